@@ -11,6 +11,7 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.api.source.SourceSection;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.graalvm.options.OptionDescriptors;
 import yona.ast.ExpressionNode;
 import yona.ast.FunctionRootNode;
 import yona.ast.ShutdownNode;
@@ -54,6 +55,11 @@ public class YonaLanguage extends TruffleLanguage<Context> {
     return new Context(this, env, languageHomePath, stdlibHomePath);
   }
 
+  @Override
+  protected OptionDescriptors getOptionDescriptors() {
+    return new YonaOptionsOptionDescriptors();
+  }
+
   @Override
   protected void initializeContext(Context context) throws Exception {
     context.initialize();
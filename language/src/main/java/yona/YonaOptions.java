@@ -0,0 +1,44 @@
+package yona;
+
+import com.oracle.truffle.api.Option;
+import org.graalvm.options.OptionCategory;
+import org.graalvm.options.OptionKey;
+import org.graalvm.options.OptionStability;
+
+/**
+ * Language options of Yona, these can be set on the polyglot Context Builder using .option("yona.<Name>", "<value>")
+ */
+@Option.Group(YonaLanguage.ID)
+public final class YonaOptions {
+  public static final String SCHEDULER_RING_BUFFER = "ring-buffer";
+  public static final String SCHEDULER_WORK_STEALING = "work-stealing";
+  public static final String OVERFLOW_GROW = "grow";
+  public static final String OVERFLOW_INLINE = "inline";
+  public static final String OVERFLOW_FAIL = "fail";
+  public static final String IO_THREADS_PLATFORM = "platform";
+  public static final String IO_THREADS_VIRTUAL = "virtual";
+
+  @Option(help = "Scheduler used to run async tasks: " + SCHEDULER_RING_BUFFER + " (shared ring buffer) or " + SCHEDULER_WORK_STEALING + " (per-worker deques).", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)
+  public static final OptionKey<String> Scheduler = new OptionKey<>(SCHEDULER_RING_BUFFER);
+
+  @Option(help = "Capacity of the ring-buffer scheduler, must be a power of two.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)
+  public static final OptionKey<Integer> SchedulerBufferSize = new OptionKey<>(1024);
+
+  @Option(help = "What to do with an async task when the ring-buffer scheduler is full: " + OVERFLOW_GROW + " (spill to an unbounded overflow queue), " + OVERFLOW_INLINE + " (run it on the submitting thread) or " + OVERFLOW_FAIL + " (fail its promise with :overflow).", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)
+  public static final OptionKey<String> SchedulerOverflow = new OptionKey<>(OVERFLOW_GROW);
+
+  @Option(help = "Number of spins a producer waits for a free slot in the ring-buffer scheduler before applying the SchedulerOverflow policy.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)
+  public static final OptionKey<Integer> SchedulerSpinAttempts = new OptionKey<>(1000);
+
+  @Option(help = "Threads running the blocking calls of builtins such as sleep, timeout, read or System::run: " + IO_THREADS_PLATFORM + " (cached thread pool) or " + IO_THREADS_VIRTUAL + " (a virtual thread per call, falls back to platform threads if the JDK does not support them).", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)
+  public static final OptionKey<String> IOThreads = new OptionKey<>(IO_THREADS_PLATFORM);
+
+  @Option(help = "Run the independent bindings of a let expression, whose size exceeds ParallelLetThreshold, as async tasks in parallel.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)
+  public static final OptionKey<Boolean> ParallelLet = new OptionKey<>(false);
+
+  @Option(help = "Number of nodes a binding of a let expression must exceed to run as an async task when ParallelLet is enabled.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)
+  public static final OptionKey<Integer> ParallelLetThreshold = new OptionKey<>(32);
+
+  private YonaOptions() {
+  }
+}
@@ -1,19 +1,31 @@
 package yona.ast;
 
+import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.RootNode;
 import com.oracle.truffle.api.source.SourceSection;
 import yona.YonaLanguage;
+import yona.ast.local.BindLocalVariableNode;
+import yona.runtime.Function;
+import yona.runtime.UninitializedFrameSlot;
 
 /**
  * The root of all YonaLanguage execution trees. It is a Truffle requirement that the tree root extends the
  * class {@link RootNode}. This class is used for both builtin and user-defined functions. For
  * builtin functions, the {@link #bodyNode} is a subclass of {@link yona.ast.builtin.BuiltinNode}.
+ *
+ * A closure binds only the identifiers its body uses, from the values captured by the {@link Function} when it was
+ * created, which the function passes as its last argument. Identifiers which were not bound yet at that time are
+ * read from the frame the closure was created in.
  */
 @NodeInfo(language = "yona", description = "The root of all yona execution trees")
-public class ClosureRootNode extends RootNode {
+public class ClosureRootNode extends TailCallRootNode {
   /**
    * The function body that is executed, and specialized during execution.
    */
@@ -29,16 +41,23 @@ public class ClosureRootNode extends RootNode {
 
   private final SourceSection sourceSection;
 
-  private final MaterializedFrame lexicalScope;
+  /**
+   * Bindings of the captured identifiers, in the order of {@link Function#getCapturedValues()}
+   */
+  @Children
+  private final BindLocalVariableNode[] captures;
 
   public ClosureRootNode(YonaLanguage language, FrameDescriptor frameDescriptor, ExpressionNode bodyNode,
-                         SourceSection sourceSection, String moduleFQN, String name, MaterializedFrame lexicalScope) {
+                         SourceSection sourceSection, String moduleFQN, String name, String[] capturedIdentifiers) {
     super(language, frameDescriptor);
     this.bodyNode = bodyNode;
     this.name = name;
     this.moduleFQN = moduleFQN;
     this.sourceSection = sourceSection;
-    this.lexicalScope = lexicalScope;
+    this.captures = new BindLocalVariableNode[capturedIdentifiers.length];
+    for (int i = 0; i < capturedIdentifiers.length; i++) {
+      this.captures[i] = new BindLocalVariableNode(capturedIdentifiers[i]);
+    }
   }
 
   @Override
@@ -47,17 +66,46 @@ public class ClosureRootNode extends RootNode {
   }
 
   @Override
-  public Object execute(VirtualFrame frame) {
-    CompilerDirectives.transferToInterpreterAndInvalidate();
-    for (Object identifier : lexicalScope.getFrameDescriptor().getIdentifiers()) {
-      FrameSlot oldFrameSlot = lexicalScope.getFrameDescriptor().findFrameSlot(identifier);
-      FrameSlot newFrameSlot = frame.getFrameDescriptor().findOrAddFrameSlot(identifier, FrameSlotKind.Illegal);
-      frame.setObject(newFrameSlot, lexicalScope.getValue(oldFrameSlot));
+  protected Object executeBody(VirtualFrame frame) {
+    if (captures.length > 0) {
+      final Object[] arguments = frame.getArguments();
+      bindCaptured(frame, (Function) arguments[arguments.length - 1]);
     }
 
     return bodyNode.executeGeneric(frame);
   }
 
+  @ExplodeLoop
+  private void bindCaptured(VirtualFrame frame, Function closure) {
+    CompilerAsserts.compilationConstant(captures.length);
+    final Object[] capturedValues = closure.getCapturedValues();
+    for (int i = 0; i < captures.length; i++) {
+      Object value = capturedValues[i];
+      if (value == UninitializedFrameSlot.INSTANCE) {
+        value = lateBoundValue(closure.getLexicalScope(), captures[i].getName());
+      }
+      if (value != UninitializedFrameSlot.INSTANCE) {
+        captures[i].execute(frame, value);
+      }
+    }
+  }
+
+  /**
+   * Value an identifier has by now in the frame the closure was created in, such as a let binding of the closure
+   * itself, which is bound only after the closure is created.
+   */
+  @CompilerDirectives.TruffleBoundary
+  private static Object lateBoundValue(MaterializedFrame lexicalScope, String identifier) {
+    if (lexicalScope == null) {
+      return UninitializedFrameSlot.INSTANCE;
+    }
+    final FrameSlot frameSlot = lexicalScope.getFrameDescriptor().findFrameSlot(identifier);
+    if (frameSlot == null) {
+      return UninitializedFrameSlot.INSTANCE;
+    }
+    return lexicalScope.getValue(frameSlot);
+  }
+
   @Override
   public String getName() {
     if (moduleFQN != null) {
@@ -0,0 +1,188 @@
+package yona.ast;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.nodes.NodeUtil;
+import com.oracle.truffle.api.nodes.RootNode;
+import yona.YonaLanguage;
+import yona.ast.local.ReadArgumentNode;
+import yona.runtime.DependencyUtils;
+import yona.runtime.async.Promise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs the code which depends on the value of a promise as a call target of its own, instead of interpreting it in
+ * a callback of the promise over a materialized frame. The continuation receives the value of the promise, which its
+ * body reads using a {@link ReadArgumentNode} with index 0, and copies of only those locals which its body uses.
+ * The node observing the promise therefore neither materializes its frame nor deoptimizes.
+ */
+@NodeInfo(shortName = "continuation")
+public final class ContinuationNode extends Node {
+  private final Supplier<ExpressionNode> bodyFactory;
+
+  /**
+   * Continuation built for the last frame descriptor, replaced as a whole so that a thread running a promise callback
+   * never sees the call target of one descriptor together with another
+   */
+  @CompilationFinal
+  private Continuation continuation;
+  /**
+   * Version of the frame descriptor when the missing slots were last looked up
+   */
+  private Assumption checkedVersion;
+
+  /**
+   * @param bodyFactory creates the body of the continuation, it is called once per frame descriptor the continuation
+   *                    runs with, and must not share nodes with the tree this node is part of
+   */
+  public ContinuationNode(Supplier<ExpressionNode> bodyFactory) {
+    this.bodyFactory = bodyFactory;
+  }
+
+  /**
+   * Continues once the promise is fulfilled, with the values the locals have now.
+   */
+  public Promise continueWith(VirtualFrame frame, Promise promise) {
+    final RootCallTarget target = initializedCallTarget(frame.getFrameDescriptor());
+    final Object[] arguments = captureLocals(frame, slots(target));
+    return promise.map(value -> call(target, arguments, value), this);
+  }
+
+  /**
+   * Continues once the promise is fulfilled, with the values the locals have then. This is for nodes whose earlier
+   * steps bind locals asynchronously, such as aliases in a {@code do} or {@code let} expression, which may also add
+   * the slots of these locals to the frame descriptor only then.
+   */
+  public Promise continueAfter(MaterializedFrame frame, Promise promise) {
+    return promise.map(value -> {
+      final RootCallTarget target = initializedCallTarget(frame.getFrameDescriptor());
+      return call(target, captureLocals(frame, slots(target)), value);
+    }, this);
+  }
+
+  private static FrameSlot[] slots(RootCallTarget target) {
+    return ((ContinuationRootNode) target.getRootNode()).getSlots();
+  }
+
+  private static Object call(RootCallTarget target, Object[] arguments, Object value) {
+    arguments[0] = value;
+    return target.call(arguments);
+  }
+
+  @ExplodeLoop
+  private static Object[] captureLocals(Frame frame, FrameSlot[] slots) {
+    CompilerAsserts.compilationConstant(slots.length);
+    final Object[] arguments = new Object[slots.length + 1];
+    for (int i = 0; i < slots.length; i++) {
+      arguments[i + 1] = frame.getValue(slots[i]);
+    }
+    return arguments;
+  }
+
+  private RootCallTarget initializedCallTarget(FrameDescriptor descriptor) {
+    Continuation cached = continuation;
+    if (cached == null || cached.frameDescriptor != descriptor || (cached.slotsMissing && slotsAdded(cached))) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      cached = atomic(() -> initialize(descriptor));
+    }
+    return cached.callTarget;
+  }
+
+  /**
+   * Looks up the slots of the identifiers of the body which had none, if the frame descriptor changed since they were
+   * last looked up. Slots are never removed from a descriptor, so a change which does not add any of them keeps the
+   * compiled code valid.
+   *
+   * @return whether a slot has been added for any of the identifiers
+   */
+  @CompilerDirectives.TruffleBoundary
+  private boolean slotsAdded(Continuation cached) {
+    final Assumption version = cached.frameDescriptor.getVersion();
+    if (version == checkedVersion) {
+      return false;
+    }
+    checkedVersion = version;
+    final ContinuationRootNode rootNode = (ContinuationRootNode) cached.callTarget.getRootNode();
+    return findSlots(cached.frameDescriptor, rootNode.getIdentifiers()).length != rootNode.getSlots().length;
+  }
+
+  /**
+   * Builds the continuation for the frame descriptor. Locals are added to a frame descriptor as aliases are first
+   * executed, so the continuation is rebuilt if an identifier of its body has got a slot since it was built.
+   */
+  private Continuation initialize(FrameDescriptor descriptor) {
+    final Continuation cached = continuation;
+    checkedVersion = descriptor.getVersion();
+    if (cached != null && cached.frameDescriptor == descriptor) {
+      final ContinuationRootNode rootNode = (ContinuationRootNode) cached.callTarget.getRootNode();
+      if (Arrays.equals(rootNode.getSlots(), findSlots(descriptor, rootNode.getIdentifiers()))) {
+        return cached;
+      }
+    }
+
+    final ExpressionNode body = bodyFactory.get();
+    final String[] identifiers = DependencyUtils.collectRequiredIdentifiers(body);
+    final FrameSlot[] slots = findSlots(descriptor, identifiers);
+
+    final RootNode rootNode = getRootNode();
+    final String name = "continuation of " + (rootNode != null ? rootNode.getName() : "<unknown>");
+    final ContinuationRootNode continuationRootNode = new ContinuationRootNode(lookupLanguageReference(YonaLanguage.class).get(), descriptor, body, identifiers, slots, getEncapsulatingSourceSection(), name);
+
+    final Continuation built = new Continuation(descriptor, Truffle.getRuntime().createCallTarget(continuationRootNode), slots.length != identifiers.length);
+    this.continuation = built;
+    return built;
+  }
+
+  private static FrameSlot[] findSlots(FrameDescriptor descriptor, String[] identifiers) {
+    final List<FrameSlot> slots = new ArrayList<>();
+    for (String identifier : identifiers) {
+      final FrameSlot slot = descriptor.findFrameSlot(identifier);
+      if (slot != null) {
+        slots.add(slot);
+      }
+    }
+    return slots.toArray(new FrameSlot[0]);
+  }
+
+  private static final class Continuation {
+    final FrameDescriptor frameDescriptor;
+    final RootCallTarget callTarget;
+    /**
+     * Whether some of the identifiers of the body had no slot yet, see {@link #slotsAdded(Continuation)}
+     */
+    final boolean slotsMissing;
+
+    Continuation(FrameDescriptor frameDescriptor, RootCallTarget callTarget, boolean slotsMissing) {
+      this.frameDescriptor = frameDescriptor;
+      this.callTarget = callTarget;
+      this.slotsMissing = slotsMissing;
+    }
+  }
+
+  /**
+   * Copies the nodes for the body of a continuation, since these are adopted by the root of the continuation.
+   */
+  public static <T extends Node> T[] cloneNodes(T[] nodes) {
+    final T[] clones = nodes.clone();
+    for (int i = 0; i < clones.length; i++) {
+      clones[i] = NodeUtil.cloneNode(nodes[i]);
+    }
+    return clones;
+  }
+}
@@ -0,0 +1,106 @@
+package yona.ast;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+import yona.YonaLanguage;
+
+/**
+ * Root of the code which runs once a promise is fulfilled, see {@link ContinuationNode}. It uses the frame descriptor
+ * of the function it continues, the first argument is the value of the promise, the remaining arguments are the values
+ * of the locals in {@link #slots}, which are written into the frame before the body is executed.
+ */
+@NodeInfo(language = "yona", description = "The root of a continuation after a promise")
+public final class ContinuationRootNode extends RootNode {
+  @Child
+  private ExpressionNode bodyNode;
+
+  /**
+   * Identifiers used by the body, some of which may not have a slot in the frame descriptor yet
+   */
+  private final String[] identifiers;
+
+  @CompilationFinal(dimensions = 1)
+  private final FrameSlot[] slots;
+
+  private final String name;
+
+  private final SourceSection sourceSection;
+
+  public ContinuationRootNode(YonaLanguage language, FrameDescriptor frameDescriptor, ExpressionNode bodyNode,
+                              String[] identifiers, FrameSlot[] slots, SourceSection sourceSection, String name) {
+    super(language, frameDescriptor);
+    this.bodyNode = bodyNode;
+    this.identifiers = identifiers;
+    this.slots = slots;
+    this.sourceSection = sourceSection;
+    this.name = name;
+  }
+
+  @Override
+  public SourceSection getSourceSection() {
+    return sourceSection;
+  }
+
+  @Override
+  public Object execute(VirtualFrame frame) {
+    restoreLocals(frame);
+    return bodyNode.executeGeneric(frame);
+  }
+
+  @ExplodeLoop
+  private void restoreLocals(VirtualFrame frame) {
+    CompilerAsserts.compilationConstant(slots.length);
+    final Object[] arguments = frame.getArguments();
+    final FrameDescriptor frameDescriptor = getFrameDescriptor();
+    for (int i = 0; i < slots.length; i++) {
+      final FrameSlot slot = slots[i];
+      final Object value = arguments[i + 1];
+      switch (frameDescriptor.getFrameSlotKind(slot)) {
+        case Long:
+          if (value instanceof Long) {
+            frame.setLong(slot, (long) value);
+            continue;
+          }
+          break;
+        case Boolean:
+          if (value instanceof Boolean) {
+            frame.setBoolean(slot, (boolean) value);
+            continue;
+          }
+          break;
+        case Byte:
+          if (value instanceof Byte) {
+            frame.setByte(slot, (byte) value);
+            continue;
+          }
+          break;
+      }
+      frame.setObject(slot, value);
+    }
+  }
+
+  public String[] getIdentifiers() {
+    return identifiers;
+  }
+
+  public FrameSlot[] getSlots() {
+    return slots;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return "continuation-root " + name;
+  }
+}
@@ -13,7 +13,7 @@ import yona.YonaLanguage;
  * builtin functions, the {@link #bodyNode} is a subclass of {@link yona.ast.builtin.BuiltinNode}.
  */
 @NodeInfo(language = "yona", description = "The root of all yona execution trees")
-public class FunctionRootNode extends RootNode {
+public class FunctionRootNode extends TailCallRootNode {
   /**
    * The function body that is executed, and specialized during execution.
    */
@@ -44,7 +44,7 @@ public class FunctionRootNode extends RootNode {
   }
 
   @Override
-  public Object execute(VirtualFrame frame) {
+  protected Object executeBody(VirtualFrame frame) {
     return bodyNode.executeGeneric(frame);
   }
 
@@ -39,6 +39,9 @@ public final class MainExpressionNode extends ExpressionNode {
     if (result instanceof Function) {
       Function function = (Function) result;
       if (function.getCardinality() == 0) {
+        if (function.getCapturedValues() != null) {
+          return function.getCallTarget().call(function.callArguments(new Object[0]));
+        }
         return function.getCallTarget().getRootNode().execute(frame);
       }
     }
@@ -0,0 +1,91 @@
+package yona.ast;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.FrameUtil;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.LoopNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RepeatingNode;
+import com.oracle.truffle.api.nodes.RootNode;
+import yona.YonaLanguage;
+import yona.ast.call.TailCallException;
+
+/**
+ * Root of the functions and closures. Tail calls of the function to itself, or to another function with the same call
+ * target, are run by a loop in this node, each in a frame of its own, instead of by the caller of the function. The
+ * loop is a Truffle {@link LoopNode}, so that a long running tail recursion is compiled with on-stack replacement.
+ */
+public abstract class TailCallRootNode extends RootNode {
+  /**
+   * Created on the first tail call of the function to itself
+   */
+  @Child
+  private LoopNode tailCallLoop;
+
+  protected TailCallRootNode(YonaLanguage language, FrameDescriptor frameDescriptor) {
+    super(language, frameDescriptor);
+  }
+
+  @Override
+  public final Object execute(VirtualFrame frame) {
+    try {
+      return executeBody(frame);
+    } catch (TailCallException e) {
+      if (e.function.getCallTarget() != getCallTarget()) {
+        throw e;
+      }
+      if (tailCallLoop == null) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        initializeTailCallLoop();
+      }
+      frame.setObject(((TailCallRepeatingNode) tailCallLoop.getRepeatingNode()).argumentsSlot, e.function.callArguments(e.arguments));
+      return tailCallLoop.execute(frame);
+    }
+  }
+
+  protected abstract Object executeBody(VirtualFrame frame);
+
+  private void initializeTailCallLoop() {
+    atomic(() -> {
+      if (tailCallLoop == null) {
+        FrameSlot argumentsSlot = getFrameDescriptor().findOrAddFrameSlot("$tailCallArguments", FrameSlotKind.Object);
+        tailCallLoop = insert(Truffle.getRuntime().createLoopNode(new TailCallRepeatingNode(argumentsSlot)));
+      }
+    });
+  }
+
+  private final class TailCallRepeatingNode extends Node implements RepeatingNode {
+    /**
+     * Slot holding the arguments of the next tail call while the loop runs
+     */
+    private final FrameSlot argumentsSlot;
+
+    TailCallRepeatingNode(FrameSlot argumentsSlot) {
+      this.argumentsSlot = argumentsSlot;
+    }
+
+    @Override
+    public boolean executeRepeating(VirtualFrame frame) {
+      return executeRepeatingWithValue(frame) == CONTINUE_LOOP_STATUS;
+    }
+
+    @Override
+    public Object executeRepeatingWithValue(VirtualFrame frame) {
+      final Object[] arguments = (Object[]) FrameUtil.getObjectSafe(frame, argumentsSlot);
+      final VirtualFrame callFrame = Truffle.getRuntime().createVirtualFrame(arguments, getFrameDescriptor());
+      try {
+        return executeBody(callFrame);
+      } catch (TailCallException e) {
+        if (e.function.getCallTarget() != getCallTarget()) {
+          throw e;
+        }
+        frame.setObject(argumentsSlot, e.function.callArguments(e.arguments));
+        return CONTINUE_LOOP_STATUS;
+      }
+    }
+  }
+}
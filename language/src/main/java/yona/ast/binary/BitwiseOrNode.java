@@ -35,7 +35,7 @@ public abstract class BitwiseOrNode extends BinaryOpNode {
   }
 
   protected Promise promise(Object left, Object right) {
-    Promise all = Promise.all(new Object[]{left, right}, this);
+    Promise all = Promise.all(left, right, this);
     return all.map(args -> {
       Object[] argValues = (Object[]) args;
 
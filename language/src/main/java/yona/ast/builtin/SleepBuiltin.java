@@ -25,7 +25,7 @@ public abstract class SleepBuiltin extends BuiltinNode {
       sleep(context, promise, (long) millisObj);
     } else { // Promise
       ((Promise) millisObj).map((millis) -> {
-        sleep(context, promise, (long) millisObj);
+        sleep(context, promise, (long) millis);
         return Unit.INSTANCE;
       }, this);
     }
@@ -33,14 +33,7 @@ public abstract class SleepBuiltin extends BuiltinNode {
     return promise;
   }
 
-  private void sleep(Context context, Promise promise, long millisObj) {
-    context.ioExecutor.submit(() -> {
-      try {
-        Thread.sleep(millisObj);
-        promise.fulfil(Unit.INSTANCE, this);
-      } catch (InterruptedException interrupt) {
-        promise.fulfil(new yona.runtime.exceptions.InterruptedException(interrupt, this), this);
-      }
-    });
+  private void sleep(Context context, Promise promise, long millis) {
+    context.timerWheel.schedule(millis, () -> promise.fulfil(Unit.INSTANCE, this));
   }
 }
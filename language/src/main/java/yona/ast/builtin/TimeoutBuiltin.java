@@ -11,6 +11,7 @@ import yona.runtime.async.Promise;
 import yona.runtime.exceptions.BadArgException;
 import yona.runtime.exceptions.TimeoutException;
 import yona.runtime.stdlib.util.TimeUnitUtil;
+import yona.runtime.threading.TimerWheel;
 
 @NodeInfo(shortName = "timeout")
 public abstract class TimeoutBuiltin extends BuiltinNode {
@@ -70,17 +71,10 @@ public abstract class TimeoutBuiltin extends BuiltinNode {
     }
 
     final Promise result = new Promise();
-
-    context.ioExecutor.submit(() -> {
-      try {
-        if (Promise.timeout(promise, millis)) {
-          result.fulfil(promise.unwrapWithError(), this);
-        } else {
-          result.fulfil(new TimeoutException(this), this);
-        }
-      } catch (InterruptedException interrupt) {
-        result.fulfil(new yona.runtime.exceptions.InterruptedException(interrupt, this), this);
-      }
+    final TimerWheel.Timeout timer = context.timerWheel.schedule(millis, () -> result.fulfilOnce(new TimeoutException(this), this));
+    promise.onComplete(value -> {
+      timer.cancel();
+      result.fulfilOnce(value, this);
     });
 
     return result;
@@ -193,14 +193,10 @@ public final class HttpClientBuiltinModule implements BuiltinModule {
     @CompilerDirectives.TruffleBoundary
     private Promise runRequest(HttpSessionTuple sessionTuple, HttpRequest request, Context context, InteropLibrary dispatch) {
       Promise promise = new Promise(dispatch);
-      context.ioExecutor.submit(() -> {
-        try {
-          HttpResponse<?> response = sessionTuple.httpClient().send(request, bodyHandlerForHttpSession(sessionTuple, context));
-          promise.fulfil(responseToTuple(sessionTuple, response, context), this);
-        } catch (Exception e) {
-          promise.fulfil(e, this);
-        }
-      });
+      context.blockingExecutor.execute(() -> {
+        HttpResponse<?> response = sessionTuple.httpClient().send(request, bodyHandlerForHttpSession(sessionTuple, context));
+        return responseToTuple(sessionTuple, response, context);
+      }, result -> promise.fulfil(result, this));
 
       return promise;
     }
@@ -218,11 +214,11 @@ public final class HttpClientBuiltinModule implements BuiltinModule {
     private Tuple responseToTuple(HttpSessionTuple sessionTuple, HttpResponse<?> response, Context context) {
       Dict headers = Dict.EMPTY;
       for (Map.Entry<String, List<String>> entry : response.headers().map().entrySet()) {
-        Seq value = Seq.EMPTY;
+        Seq.SeqBuilder value = new Seq.SeqBuilder();
         for (String val : entry.getValue()) {
-          value = value.insertLast(Seq.fromCharSequence(val));
+          value.add(Seq.fromCharSequence(val));
         }
-        headers = headers.add(Seq.fromCharSequence(entry.getKey()), value);
+        headers = headers.add(Seq.fromCharSequence(entry.getKey()), value.build());
       }
       return new Tuple((long) response.statusCode(), headers, bodyForHttpSession(sessionTuple, response, context));
     }
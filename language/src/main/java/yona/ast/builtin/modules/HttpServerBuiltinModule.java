@@ -234,11 +234,11 @@ public final class HttpServerBuiltinModule implements BuiltinModule {
     private Dict headersToDict(Headers headers) {
       Dict headersDict = Dict.EMPTY;
       for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
-        Seq value = Seq.EMPTY;
+        Seq.SeqBuilder value = new Seq.SeqBuilder();
         for (String val : entry.getValue()) {
-          value = value.insertLast(Seq.fromCharSequence(val));
+          value.add(Seq.fromCharSequence(val));
         }
-        headersDict = headersDict.add(Seq.fromCharSequence(entry.getKey()), value);
+        headersDict = headersDict.add(Seq.fromCharSequence(entry.getKey()), value.build());
       }
       return headersDict;
     }
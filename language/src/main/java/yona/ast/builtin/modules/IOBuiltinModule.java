@@ -5,6 +5,7 @@ import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.library.CachedLibrary;
+import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.YonaLanguage;
 import yona.ast.builtin.BuiltinNode;
@@ -119,13 +120,7 @@ public final class IOBuiltinModule implements BuiltinModule {
     @CompilerDirectives.TruffleBoundary
     public Promise read(@CachedContext(YonaLanguage.class) Context context, @CachedLibrary(limit = "3") InteropLibrary dispatch) {
       Promise promise = new Promise(dispatch);
-      context.ioExecutor.submit(() -> {
-        try {
-          promise.fulfil(context.getInput().read(), this);
-        } catch (IOException e) {
-          promise.fulfil(new yona.runtime.exceptions.IOException(e, this), this);
-        }
-      });
+      context.blockingExecutor.execute(() -> context.getInput().read(), result -> fulfilWithIOResult(promise, result, this));
       return promise;
     }
   }
@@ -136,17 +131,19 @@ public final class IOBuiltinModule implements BuiltinModule {
     @CompilerDirectives.TruffleBoundary
     public Promise readln(@CachedContext(YonaLanguage.class) Context context, @CachedLibrary(limit = "3") InteropLibrary dispatch) {
       Promise promise = new Promise(dispatch);
-      context.ioExecutor.submit(() -> {
-        try {
-          promise.fulfil(Seq.fromCharSequence(context.getInput().readLine()), this);
-        } catch (IOException e) {
-          promise.fulfil(new yona.runtime.exceptions.IOException(e, this), this);
-        }
-      });
+      context.blockingExecutor.execute(() -> Seq.fromCharSequence(context.getInput().readLine()), result -> fulfilWithIOResult(promise, result, this));
       return promise;
     }
   }
 
+  private static void fulfilWithIOResult(Promise promise, Object result, Node node) {
+    if (result instanceof IOException) {
+      promise.fulfil(new yona.runtime.exceptions.IOException((IOException) result, node), node);
+    } else {
+      promise.fulfil(result, node);
+    }
+  }
+
   public Builtins builtins() {
     Builtins builtins = new Builtins();
     builtins.register(new ExportedFunction(IOBuiltinModuleFactory.PrintlnBuiltinFactory.getInstance()));
@@ -1,5 +1,7 @@
 package yona.ast.builtin.modules;
 
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.CachedContext;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
@@ -8,16 +10,27 @@ import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.YonaException;
+import yona.YonaLanguage;
 import yona.ast.builtin.BuiltinNode;
+import yona.runtime.Context;
 import yona.runtime.Function;
 import yona.runtime.Seq;
 import yona.runtime.Tuple;
+import yona.runtime.async.Promise;
 import yona.runtime.exceptions.UndefinedNameException;
 import yona.runtime.stdlib.Builtins;
 import yona.runtime.stdlib.ExportedFunction;
 
+import java.util.function.Supplier;
+
 @BuiltinModuleInfo(moduleName = "Seq")
 public final class SeqBuiltinModule implements BuiltinModule {
+  /**
+   * Sequences shorter than this are processed sequentially by the parallel builtins, it is also the minimal length of
+   * the chunks processed by a single task
+   */
+  static final long PARALLEL_THRESHOLD = 1 << 12;
+
   @NodeInfo(shortName = "foldl")
   abstract static class FoldLeftBuiltin extends BuiltinNode {
     @Specialization
@@ -70,6 +83,115 @@ public final class SeqBuiltinModule implements BuiltinModule {
     }
   }
 
+  /**
+   * Maps the sequence in chunks, run as tasks on the workers, and catenates the mapped chunks.
+   */
+  @NodeInfo(shortName = "parallel_map")
+  abstract static class ParallelMapBuiltin extends BuiltinNode {
+    @Specialization
+    public Object parallelMap(Seq sequence, Function function, @CachedContext(YonaLanguage.class) Context context, @CachedLibrary(limit = "3") InteropLibrary dispatch) {
+      if (sequence.length() < PARALLEL_THRESHOLD) {
+        try {
+          return sequence.map(function, dispatch);
+        } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
+          /* Execute was not successful. */
+          throw new YonaException(e, this);
+        }
+      }
+      return submitChunks(sequence, function, context);
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private Promise submitChunks(Seq sequence, Function function, Context context) {
+      final Seq[] chunks = sequence.chunks(chunkLength(sequence, context), this);
+      @SuppressWarnings("unchecked") final Supplier<Object>[] computations = new Supplier[chunks.length];
+      final InteropLibrary dispatch = InteropLibrary.getFactory().getUncached();
+      for (int i = 0; i < chunks.length; i++) {
+        final Seq chunk = chunks[i];
+        computations[i] = () -> {
+          try {
+            return chunk.map(function, dispatch);
+          } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
+            throw new YonaException(e, this);
+          }
+        };
+      }
+      return Promise.all(context.threading.submitAll(computations, this), this).map(values -> {
+        Seq result = Seq.EMPTY;
+        for (Object value : (Object[]) values) {
+          result = Seq.catenate(result, (Seq) value);
+        }
+        return result;
+      }, this);
+    }
+  }
+
+  /**
+   * Reduces chunks of the sequence with the reducer, as tasks on the workers, and combines the results of the chunks in
+   * their order with the combine function, which must be associative. Each chunk is reduced from the initial value of
+   * the reducer, so transducers which keep state across elements, such as take or distinct, apply per chunk.
+   */
+  @NodeInfo(shortName = "parallel_reduce")
+  abstract static class ParallelReduceBuiltin extends BuiltinNode {
+    @Specialization
+    public Object parallelReduce(Seq sequence, Function combine, Tuple reducer, @CachedContext(YonaLanguage.class) Context context, @CachedLibrary(limit = "3") InteropLibrary dispatch) {
+      final Object[] reducerValues = new Object[]{reducer.get(0), reducer.get(1), reducer.get(2)};
+      if (sequence.length() < PARALLEL_THRESHOLD) {
+        try {
+          return sequence.reduceLeft(reducerValues, dispatch);
+        } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
+          /* Execute was not successful. */
+          throw new YonaException(e, this);
+        }
+      }
+      return submitChunks(sequence, combine, reducerValues, context);
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private Promise submitChunks(Seq sequence, Function combine, Object[] reducer, Context context) {
+      final Seq[] chunks = sequence.chunks(chunkLength(sequence, context), this);
+      @SuppressWarnings("unchecked") final Supplier<Object>[] computations = new Supplier[chunks.length];
+      final InteropLibrary dispatch = InteropLibrary.getFactory().getUncached();
+      for (int i = 0; i < chunks.length; i++) {
+        final Seq chunk = chunks[i];
+        computations[i] = () -> {
+          try {
+            return chunk.reduceLeft(reducer, dispatch);
+          } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
+            throw new YonaException(e, this);
+          }
+        };
+      }
+      return Promise.all(context.threading.submitAll(computations, this), this).map(values -> {
+        final Object[] partials = (Object[]) values;
+        Object result = partials[0];
+        for (int i = 1; i < partials.length; i++) {
+          result = combine(combine, result, partials[i], dispatch);
+        }
+        return result;
+      }, this);
+    }
+
+    private Object combine(Function combine, Object left, Object right, InteropLibrary dispatch) {
+      if (left instanceof Promise) {
+        return ((Promise) left).map(value -> combine(combine, value, right, dispatch), this);
+      }
+      try {
+        return dispatch.execute(combine, left, right);
+      } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
+        throw new YonaException(e, this);
+      }
+    }
+  }
+
+  /**
+   * @return length of the chunks the parallel builtins split the sequence into, a few per worker, but at least
+   * {@link #PARALLEL_THRESHOLD} elements
+   */
+  private static long chunkLength(Seq sequence, Context context) {
+    return Math.max(PARALLEL_THRESHOLD, sequence.length() / (context.threading.workerCount() * 4L) + 1);
+  }
+
   @NodeInfo(shortName = "len")
   abstract static class LengthBuiltin extends BuiltinNode {
     @Specialization
@@ -118,6 +240,92 @@ public final class SeqBuiltinModule implements BuiltinModule {
     }
   }
 
+  /**
+   * Step of the to_seq reducer. The first element starts a {@link Seq.SeqBuilder} on top of the initial sequence, which
+   * then stays owned by the reduction, so later elements are appended without copying the sequence. The accumulator
+   * passed to the step is a {@link Seq.TransientSeq}, not a sequence, and is only meant to be passed back to this step
+   * or completed by {@link PersistentBuiltin}.
+   */
+  @NodeInfo(shortName = "transient_add")
+  abstract static class TransientAddBuiltin extends BuiltinNode {
+    @Specialization
+    public Object add(Promise acc, Object value) {
+      return promise(acc, value);
+    }
+
+    @Specialization
+    public Object add(Object acc, Promise value) {
+      return promise(acc, value);
+    }
+
+    @Specialization
+    public Seq.TransientSeq add(Seq.TransientSeq acc, Object value) {
+      return doAdd(acc, value);
+    }
+
+    @Specialization
+    public Seq.TransientSeq add(Seq sequence, Object value) {
+      return doAdd(sequence, value);
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private static Seq.TransientSeq doAdd(Seq.TransientSeq acc, Object value) {
+      return acc.add(value);
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private static Seq.TransientSeq doAdd(Seq sequence, Object value) {
+      return Seq.TransientSeq.add(sequence, value);
+    }
+
+    private Promise promise(Object acc, Object value) {
+      return Promise.all(acc, value, this).map(args -> {
+        Object[] argValues = (Object[]) args;
+        if (argValues[0] instanceof Seq.TransientSeq) {
+          return doAdd((Seq.TransientSeq) argValues[0], argValues[1]);
+        } else if (argValues[0] instanceof Seq) {
+          return doAdd((Seq) argValues[0], argValues[1]);
+        } else {
+          return YonaException.typeError(this, argValues);
+        }
+      }, this);
+    }
+  }
+
+  /**
+   * Completion of the to_seq reducer, returns the sequence built by {@link TransientAddBuiltin}.
+   */
+  @NodeInfo(shortName = "persistent")
+  abstract static class PersistentBuiltin extends BuiltinNode {
+    @Specialization
+    public Object persistent(Promise acc) {
+      return acc.map(val -> {
+        if (val instanceof Seq.TransientSeq) {
+          return build((Seq.TransientSeq) val);
+        } else if (val instanceof Seq) {
+          return val;
+        } else {
+          return YonaException.typeError(this, val);
+        }
+      }, this);
+    }
+
+    @Specialization
+    public Seq persistent(Seq.TransientSeq acc) {
+      return build(acc);
+    }
+
+    @Specialization
+    public Seq persistent(Seq sequence) {
+      return sequence;
+    }
+
+    @CompilerDirectives.TruffleBoundary
+    private static Seq build(Seq.TransientSeq acc) {
+      return acc.persistent();
+    }
+  }
+
   public Builtins builtins() {
     Builtins builtins = new Builtins();
     builtins.register(new ExportedFunction(SeqBuiltinModuleFactory.LengthBuiltinFactory.getInstance()));
@@ -130,6 +338,10 @@ public final class SeqBuiltinModule implements BuiltinModule {
     builtins.register(new ExportedFunction(SeqBuiltinModuleFactory.LookupBuiltinFactory.getInstance()));
     builtins.register(new ExportedFunction(SeqBuiltinModuleFactory.TakeBuiltinFactory.getInstance()));
     builtins.register(new ExportedFunction(SeqBuiltinModuleFactory.DropBuiltinFactory.getInstance()));
+    builtins.register(new ExportedFunction(SeqBuiltinModuleFactory.TransientAddBuiltinFactory.getInstance()));
+    builtins.register(new ExportedFunction(SeqBuiltinModuleFactory.PersistentBuiltinFactory.getInstance()));
+    builtins.register(new ExportedFunction(SeqBuiltinModuleFactory.ParallelMapBuiltinFactory.getInstance()));
+    builtins.register(new ExportedFunction(SeqBuiltinModuleFactory.ParallelReduceBuiltinFactory.getInstance()));
     return builtins;
   }
 }
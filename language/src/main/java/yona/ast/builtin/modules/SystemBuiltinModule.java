@@ -12,6 +12,7 @@ import yona.YonaException;
 import yona.YonaLanguage;
 import yona.ast.builtin.BuiltinNode;
 import yona.runtime.Context;
+import yona.runtime.Dict;
 import yona.runtime.Seq;
 import yona.runtime.Tuple;
 import yona.runtime.Unit;
@@ -22,6 +23,7 @@ import yona.runtime.stdlib.ExportedFunction;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.List;
@@ -118,32 +120,14 @@ public final class SystemBuiltinModule implements BuiltinModule {
     Promise stdErrPromise = new Promise();
     Promise exitValuePromise = new Promise();
 
-    context.ioExecutor.submit(() -> {
-      try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-        stdOutPromise.fulfil(Seq.sequence(br.lines().map(Seq::fromCharSequence).toArray()), node);
-      } catch (IOException ex) {
-        stdOutPromise.fulfil(new yona.runtime.exceptions.IOException(ex, node), node);
-      }
-    });
-
-    context.ioExecutor.submit(() -> {
-      try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-        stdErrPromise.fulfil(Seq.sequence(br.lines().map(Seq::fromCharSequence).toArray()), node);
-      } catch (IOException ex) {
-        stdErrPromise.fulfil(new yona.runtime.exceptions.IOException(ex, node), node);
-      }
-    });
+    context.blockingExecutor.execute(() -> readLines(process.getInputStream()), result -> fulfilWithIOResult(stdOutPromise, result, node));
+    context.blockingExecutor.execute(() -> readLines(process.getErrorStream()), result -> fulfilWithIOResult(stdErrPromise, result, node));
+    context.blockingExecutor.execute(() -> {
+      process.waitFor();
+      return process.exitValue();
+    }, result -> fulfilWithIOResult(exitValuePromise, result, node));
 
-    context.ioExecutor.submit(() -> {
-      try {
-        process.waitFor();
-        exitValuePromise.fulfil(process.exitValue(), node);
-      } catch (InterruptedException ex) {
-        exitValuePromise.fulfil(new yona.runtime.exceptions.IOException(ex, node), node);
-      }
-    });
-
-    return Promise.all(new Object[]{stdOutPromise, stdErrPromise, exitValuePromise}, node).map(results -> {
+    return Promise.all(stdOutPromise, stdErrPromise, exitValuePromise, node).map(results -> {
       Object[] resultsArray = (Object[]) results;
       Seq stdOut = (Seq) resultsArray[0];
       Seq stdErr = (Seq) resultsArray[1];
@@ -153,6 +137,20 @@ public final class SystemBuiltinModule implements BuiltinModule {
     }, node);
   }
 
+  private static Seq readLines(InputStream inputStream) throws IOException {
+    try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+      return br.lines().map(Seq::fromCharSequence).collect(Seq.collect());
+    }
+  }
+
+  private static void fulfilWithIOResult(Promise promise, Object result, Node node) {
+    if (result instanceof IOException || result instanceof InterruptedException) {
+      promise.fulfil(new yona.runtime.exceptions.IOException((Exception) result, node), node);
+    } else {
+      promise.fulfil(result, node);
+    }
+  }
+
   @NodeInfo(shortName = "get_env")
   abstract static class GetEnvBuiltin extends BuiltinNode {
     @Specialization
@@ -197,6 +195,19 @@ public final class SystemBuiltinModule implements BuiltinModule {
     }
   }
 
+  @NodeInfo(shortName = "scheduler_stats")
+  abstract static class SchedulerStatsBuiltin extends BuiltinNode {
+    @Specialization
+    @CompilerDirectives.TruffleBoundary
+    public Dict schedulerStats(@CachedContext(YonaLanguage.class) Context context) {
+      return Dict.EMPTY
+          .add(context.symbol("queued"), context.threading.queuedCount())
+          .add(context.symbol("spilled"), context.threading.spilledCount())
+          .add(context.symbol("inlined"), context.threading.inlinedCount())
+          .add(context.symbol("rejected"), context.threading.rejectedCount());
+    }
+  }
+
   public Builtins builtins() {
     Builtins builtins = new Builtins();
     builtins.register(new ExportedFunction(SystemBuiltinModuleFactory.RunBuiltinFactory.getInstance()));
@@ -205,6 +216,7 @@ public final class SystemBuiltinModule implements BuiltinModule {
     builtins.register(new ExportedFunction(SystemBuiltinModuleFactory.PidBuiltinFactory.getInstance()));
     builtins.register(new ExportedFunction(SystemBuiltinModuleFactory.GetArgsBuiltinFactory.getInstance()));
     builtins.register(new ExportedFunction(SystemBuiltinModuleFactory.LanguageHomeBuiltinFactory.getInstance()));
+    builtins.register(new ExportedFunction(SystemBuiltinModuleFactory.SchedulerStatsBuiltinFactory.getInstance()));
     return builtins;
   }
 }
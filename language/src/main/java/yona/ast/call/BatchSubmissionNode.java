@@ -0,0 +1,61 @@
+package yona.ast.call;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import yona.YonaLanguage;
+import yona.ast.ExpressionNode;
+import yona.ast.expression.ParallelExpressionNode;
+import yona.runtime.threading.Threading;
+
+/**
+ * Collects the async tasks submitted by the children of a fan-out construct (call arguments, tuple and sequence
+ * elements, bindings of a let), so that a run of consecutive submitting children is handed over to the scheduler at
+ * once, see {@link Threading#beginBatch(boolean)}. Only children which do nothing but submit a task are batched, that
+ * is an {@code async} call of a lambda, or an expression parallelized by a let. Any other child is evaluated outside
+ * of the batch, so that tasks submitted from deeper down, such as from the body of a called function, are not held
+ * back until the rest of the construct is evaluated.
+ */
+@NodeInfo(shortName = "batchSubmission")
+public final class BatchSubmissionNode extends Node {
+  public static final int NONE = -1;
+
+  @CompilerDirectives.CompilationFinal(dimensions = 1)
+  private final boolean[] submitting;
+
+  public BatchSubmissionNode(ExpressionNode... children) {
+    this.submitting = new boolean[children.length];
+    for (int i = 0; i < children.length; i++) {
+      submitting[i] = isSubmission(children[i]);
+    }
+  }
+
+  public static boolean isSubmission(ExpressionNode node) {
+    return node instanceof ParallelExpressionNode || (node instanceof InvokeNode && ((InvokeNode) node).isAsyncLambda());
+  }
+
+  /**
+   * Called before evaluating the child at the index. Opens a batch where a run of submitting children starts, and
+   * closes it where the run ends.
+   *
+   * @param mark mark of the batch open for the previous child, {@link #NONE} for the first one
+   * @return mark of the batch open for this child, to be passed on to the next call, and finally to {@link #end(int)}
+   */
+  public int enter(int index, int mark) {
+    if (submitting[index]) {
+      return mark == NONE ? threading().beginBatch(true) : mark;
+    }
+    end(mark);
+    return NONE;
+  }
+
+  public void end(int mark) {
+    if (mark != NONE) {
+      threading().endBatch(mark, true);
+    }
+  }
+
+  private Threading threading() {
+    return lookupContextReference(YonaLanguage.class).get().threading;
+  }
+}
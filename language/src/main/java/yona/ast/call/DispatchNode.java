@@ -0,0 +1,38 @@
+package yona.ast.call;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.ReportPolymorphism;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import yona.runtime.Function;
+
+/**
+ * Calls a {@link Function} from Yona code, without going through the interop execute message. The call targets of the
+ * functions seen most recently are cached, each with a {@link DirectCallNode}, so that the calls can be inlined. Once
+ * more than {@link #INLINE_CACHE_SIZE} call targets are seen, the calls become indirect.
+ */
+@ReportPolymorphism
+@NodeInfo(shortName = "dispatch")
+public abstract class DispatchNode extends Node {
+  public static final int INLINE_CACHE_SIZE = 3;
+
+  public abstract Object executeDispatch(Function function, Object[] arguments);
+
+  @Specialization(limit = "INLINE_CACHE_SIZE", guards = "function.getCallTarget() == cachedTarget")
+  @SuppressWarnings("unused")
+  protected static Object doDirect(Function function, Object[] arguments,
+                                   @Cached("function.getCallTarget()") RootCallTarget cachedTarget,
+                                   @Cached("create(cachedTarget)") DirectCallNode callNode) {
+    return callNode.call(function.callArguments(arguments));
+  }
+
+  @Specialization(replaces = "doDirect")
+  protected static Object doIndirect(Function function, Object[] arguments,
+                                     @Cached IndirectCallNode callNode) {
+    return callNode.call(function.getCallTarget(), function.callArguments(arguments));
+  }
+}
@@ -0,0 +1,68 @@
+package yona.ast.call;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import yona.YonaLanguage;
+import yona.ast.ExpressionNode;
+import yona.runtime.threading.Threading;
+
+import java.util.Objects;
+
+/**
+ * Evaluates a child which does nothing but submit a task, see {@link BatchSubmissionNode#isSubmission(ExpressionNode)},
+ * holding the task in the batch open on the current thread, if any. Used for the elements of a generator, which are
+ * evaluated by the reducer of the generator, rather than by the node opening the batch.
+ */
+@NodeInfo(shortName = "heldSubmission")
+public final class HeldSubmissionNode extends ExpressionNode {
+  @Child
+  private ExpressionNode expression;
+
+  public HeldSubmissionNode(ExpressionNode expression) {
+    this.expression = expression;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    HeldSubmissionNode that = (HeldSubmissionNode) o;
+    return Objects.equals(expression, that.expression);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(expression);
+  }
+
+  @Override
+  public String toString() {
+    return "HeldSubmissionNode{" +
+        "expression=" + expression +
+        '}';
+  }
+
+  @Override
+  public void setIsTail(boolean isTail) {
+    super.setIsTail(isTail);
+    expression.setIsTail(isTail);
+  }
+
+  @Override
+  public Object executeGeneric(VirtualFrame frame) {
+    Threading threading = lookupContextReference(YonaLanguage.class).get().threading;
+    boolean held = threading.holdSubmissions();
+    try {
+      return expression.executeGeneric(frame);
+    } finally {
+      if (held) {
+        threading.releaseSubmissions();
+      }
+    }
+  }
+
+  @Override
+  protected String[] requiredIdentifiers() {
+    return expression.getRequiredIdentifiers();
+  }
+}
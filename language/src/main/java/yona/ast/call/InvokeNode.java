@@ -2,7 +2,8 @@ package yona.ast.call;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.StandardTags;
 import com.oracle.truffle.api.instrumentation.Tag;
@@ -15,20 +16,16 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.YonaException;
 import yona.YonaLanguage;
-import yona.ast.ClosureRootNode;
 import yona.ast.ExpressionNode;
-import yona.ast.controlflow.YonaBlockNode;
 import yona.ast.expression.IdentifierNode;
-import yona.ast.expression.value.AnyValueNode;
-import yona.ast.local.ReadArgumentNode;
-import yona.ast.local.WriteLocalVariableNode;
-import yona.ast.local.WriteLocalVariableNodeGen;
+import yona.ast.expression.value.FunctionNode;
 import yona.runtime.DependencyUtils;
 import yona.runtime.Function;
 import yona.runtime.async.Promise;
 import yona.runtime.exceptions.UndefinedNameException;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The node for function invocation in Yona. Since Yona has first class functions, the {@link yona.runtime.Function
@@ -46,16 +43,37 @@ public final class InvokeNode extends ExpressionNode {
   private final ExpressionNode[] argumentNodes;
   @Child
   private InteropLibrary library;
+  @Child
+  private DispatchNode dispatch = DispatchNodeGen.create();
+  @Child
+  private BatchSubmissionNode batchSubmission;
   @Children
   private ExpressionNode[] moduleStack;  // FQNNode or AnyValueNode | Because this is created from Stack.toArray, the last pushed element is the last element of the array
 
   private YonaLanguage language;
 
+  /**
+   * Tail calls run by the loop of an invoke node, rather than by the loop of the root of the function they call
+   */
+  private static final LongAdder DISPATCHED_TAIL_CALLS = new LongAdder();
+
+  /**
+   * The first function this node partially applied, along with its partial application
+   */
+  @CompilationFinal
+  private PartialApplication partialApplication;
+  /**
+   * Whether this node has partially applied more than one function, which are then looked up on every call
+   */
+  @CompilationFinal
+  private boolean partialApplicationGeneric = false;
+
   public InvokeNode(YonaLanguage language, ExpressionNode functionNode, ExpressionNode[] argumentNodes, ExpressionNode[] moduleStack) {
     assert functionNode != null;
     this.functionNode = functionNode;
     this.function = null;
     this.argumentNodes = argumentNodes;
+    this.batchSubmission = new BatchSubmissionNode(argumentNodes);
     this.library = InteropLibrary.getFactory().createDispatched(3);
     this.language = language;
     this.moduleStack = moduleStack;
@@ -66,6 +84,7 @@ public final class InvokeNode extends ExpressionNode {
     this.functionNode = null;
     this.function = function;
     this.argumentNodes = argumentNodes;
+    this.batchSubmission = new BatchSubmissionNode(argumentNodes);
     this.library = InteropLibrary.getFactory().createDispatched(3);
     this.language = language;
     this.moduleStack = moduleStack;
@@ -104,6 +123,14 @@ public final class InvokeNode extends ExpressionNode {
     }
   }
 
+  /**
+   * @return whether this is a call of {@code async} with a lambda, which does nothing but submit the lambda as a task
+   */
+  public boolean isAsyncLambda() {
+    return functionNode instanceof IdentifierNode && "async".equals(((IdentifierNode) functionNode).name()) &&
+        argumentNodes.length == 1 && argumentNodes[0] instanceof FunctionNode;
+  }
+
   private RuntimeException notAFucntion(Object value) {
     return new YonaException("Cannot invoke non-function value: " + value, this);
   }
@@ -137,12 +164,18 @@ public final class InvokeNode extends ExpressionNode {
   @ExplodeLoop
   private boolean checkArgsForPromises(VirtualFrame frame, Object[] argumentValues) {
     boolean argsArePromise = false;
-    for (int i = 0; i < argumentNodes.length; i++) {
-      Object argValue = argumentNodes[i].executeGeneric(frame);
-      if (argValue instanceof Promise) {
-        argsArePromise = true;
+    int batchMark = BatchSubmissionNode.NONE;
+    try {
+      for (int i = 0; i < argumentNodes.length; i++) {
+        batchMark = batchSubmission.enter(i, batchMark);
+        Object argValue = argumentNodes[i].executeGeneric(frame);
+        if (argValue instanceof Promise) {
+          argsArePromise = true;
+        }
+        argumentValues[i] = argValue;
       }
-      argumentValues[i] = argValue;
+    } finally {
+      batchSubmission.end(batchMark);
     }
     return argsArePromise;
   }
@@ -166,58 +199,70 @@ public final class InvokeNode extends ExpressionNode {
       Function dispatchFunction = function;
       while (true) {
         try {
-          return library.execute(dispatchFunction, argumentValues);
+          return dispatch.executeDispatch(dispatchFunction, argumentValues);
         } catch (TailCallException e) {
+          countDispatchedTailCall();
           dispatchFunction = e.function;
           argumentValues = e.arguments;
-        } catch (ArityException | UnsupportedTypeException | UnsupportedMessageException e) {
-          /* Execute was not successful. */
-          throw UndefinedNameException.undefinedFunction(this, dispatchFunction);
         }
       }
     }
   }
 
-  private Object createPartiallyAppliedClosure(Function function, VirtualFrame frame) {
-    CompilerDirectives.transferToInterpreterAndInvalidate();
-    /*
-     * Create a closure for `partial`ly applied function
-     */
-    String partiallyAppliedFunctionName = "$partial-" + argumentNodes.length + "/" + function.getCardinality() + "-" + function.getName();
-    ExpressionNode[] allArgumentNodes = new ExpressionNode[function.getCardinality()];
+  @CompilerDirectives.TruffleBoundary
+  private static void countDispatchedTailCall() {
+    DISPATCHED_TAIL_CALLS.increment();
+  }
 
-    setEvaluatedArgs(frame, allArgumentNodes);
-    setNotEvaluatedArgs(function, allArgumentNodes);
+  /**
+   * @return number of tail calls run by the loop of an invoke node so far, see {@link yona.ast.TailCallRootNode}
+   */
+  public static long dispatchedTailCallCount() {
+    return DISPATCHED_TAIL_CALLS.sum();
+  }
 
-    /*
-     * Partially applied function will just invoke the original function with arguments constructed as a combination
-     * of those which were provided when this closure was created and those to be read on the following application
-     */
-    InvokeNode invokeNode = new InvokeNode(language, new IdentifierNode(language, function.getName(), moduleStack), allArgumentNodes, moduleStack);
+  /*
+   * The partial application captures the function and the arguments, its call target is shared by all partial
+   * applications of the function with as many arguments
+   */
+  private Object createPartiallyAppliedClosure(Function function, VirtualFrame frame) {
+    RootCallTarget partialApplicationCallTarget = partialApplicationCallTarget(function);
+    Object[] capturedValues = new Object[argumentNodes.length + 1];
+    capturedValues[0] = function;
+    setEvaluatedArgs(frame, capturedValues);
+    return new Function(function.getModuleFQN(), partialApplicationCallTarget.getRootNode().getName(), partialApplicationCallTarget, function.getCardinality() - argumentNodes.length, function.isUnwrapArgumentPromises(), capturedValues, null);
+  }
 
-    /*
-     * We need to make sure that the original function is still accessible within the closure, even if the partially
-     * applied function already leaves the scope with the original function
-     */
-    WriteLocalVariableNode writeLocalVariableNode;
-    if (functionNode != null) {
-      writeLocalVariableNode = WriteLocalVariableNodeGen.create(functionNode, frame.getFrameDescriptor().findOrAddFrameSlot(function.getName()));
+  private RootCallTarget partialApplicationCallTarget(Function function) {
+    PartialApplication cached = partialApplication;
+    if (cached != null && cached.partiallyAppliedCallTarget == function.getCallTarget()) {
+      return cached.callTarget;
+    } else if (partialApplicationGeneric) {
+      return lookupPartialApplication(function);
+    }
+
+    CompilerDirectives.transferToInterpreterAndInvalidate();
+    RootCallTarget callTarget = lookupPartialApplication(function);
+    if (cached == null) {
+      partialApplication = new PartialApplication(function.getCallTarget(), callTarget);
     } else {
-      writeLocalVariableNode = WriteLocalVariableNodeGen.create(new AnyValueNode(function), frame.getFrameDescriptor().findOrAddFrameSlot(function.getName()));
+      partialApplicationGeneric = true;
     }
+    return callTarget;
+  }
 
-    YonaBlockNode blockNode = new YonaBlockNode(new ExpressionNode[]{writeLocalVariableNode, invokeNode});
-    ClosureRootNode rootNode = new ClosureRootNode(language, frame.getFrameDescriptor(), blockNode, getSourceSection(), function.getModuleFQN(), partiallyAppliedFunctionName, frame.materialize());
-    return new Function(function.getModuleFQN(), partiallyAppliedFunctionName, Truffle.getRuntime().createCallTarget(rootNode), function.getCardinality() - argumentNodes.length, function.isUnwrapArgumentPromises());
+  @CompilerDirectives.TruffleBoundary
+  private RootCallTarget lookupPartialApplication(Function function) {
+    return lookupContextReference(YonaLanguage.class).get().partialApplicationCallTarget(function, argumentNodes.length);
   }
 
-  /*
-   * These are the new arguments, to be read on the actual application of this new closure
-   */
-  @ExplodeLoop
-  private void setNotEvaluatedArgs(Function function, ExpressionNode[] allArgumentNodes) {
-    for (int i = argumentNodes.length, j = 0; i < function.getCardinality(); i++, j++) {
-      allArgumentNodes[i] = new ReadArgumentNode(j);
+  private static final class PartialApplication {
+    final RootCallTarget partiallyAppliedCallTarget;
+    final RootCallTarget callTarget;
+
+    PartialApplication(RootCallTarget partiallyAppliedCallTarget, RootCallTarget callTarget) {
+      this.partiallyAppliedCallTarget = partiallyAppliedCallTarget;
+      this.callTarget = callTarget;
     }
   }
 
@@ -225,9 +270,9 @@ public final class InvokeNode extends ExpressionNode {
    * These arguments are already on the stack, so they are evaluated and stored for later
    */
   @ExplodeLoop
-  private void setEvaluatedArgs(VirtualFrame frame, ExpressionNode[] allArgumentNodes) {
+  private void setEvaluatedArgs(VirtualFrame frame, Object[] capturedValues) {
     for (int i = 0; i < argumentNodes.length; i++) {
-      allArgumentNodes[i] = new AnyValueNode(argumentNodes[i].executeGeneric(frame));
+      capturedValues[i + 1] = argumentNodes[i].executeGeneric(frame);
     }
   }
 
@@ -2,14 +2,15 @@ package yona.ast.call;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.YonaException;
 import yona.YonaLanguage;
+import yona.ast.ContinuationNode;
 import yona.ast.ExpressionNode;
 import yona.ast.JavaMethodRootNode;
+import yona.ast.local.ReadArgumentNode;
 import yona.runtime.DependencyUtils;
 import yona.runtime.Function;
 import yona.runtime.NativeObject;
@@ -31,6 +32,8 @@ public final class ModuleCallNode extends ExpressionNode {
   @Children
   private ExpressionNode[] moduleStack;  // FQNNode or AnyValueNode
   private final YonaLanguage language;
+  @Child
+  private ContinuationNode continuation;
 
   public ModuleCallNode(YonaLanguage language, ExpressionNode nameNode, String functionName, ExpressionNode[] argumentNodes, ExpressionNode[] moduleStack) {
     this.language = language;
@@ -38,6 +41,7 @@ public final class ModuleCallNode extends ExpressionNode {
     this.functionName = functionName;
     this.argumentNodes = argumentNodes;
     this.moduleStack = moduleStack;
+    this.continuation = new ContinuationNode(this::continuationBody);
   }
 
   @Override
@@ -70,10 +74,7 @@ public final class ModuleCallNode extends ExpressionNode {
     Object executedName = nameNode.executeGeneric(frame);
 
     if (executedName instanceof Promise) {
-      CompilerDirectives.transferToInterpreterAndInvalidate();
-      MaterializedFrame materializedFrame = frame.materialize();
-
-      return ((Promise) executedName).map(maybeModule -> invokeModuleFunction(materializedFrame, maybeModule), this);
+      return continuation.continueWith(frame, (Promise) executedName);
     } else if (executedName instanceof YonaModule || executedName instanceof NativeObject) {
       return invokeModuleFunction(frame, executedName);
     } else {
@@ -86,6 +87,12 @@ public final class ModuleCallNode extends ExpressionNode {
     return DependencyUtils.catenateRequiredIdentifiersWith(nameNode, argumentNodes);
   }
 
+  private ExpressionNode continuationBody() {
+    ModuleCallNode moduleCallNode = new ModuleCallNode(language, new ReadArgumentNode(0), functionName, ContinuationNode.cloneNodes(argumentNodes), ContinuationNode.cloneNodes(moduleStack));
+    moduleCallNode.setSourceSection(getSourceSection());
+    return moduleCallNode;
+  }
+
   private Object invokeModuleFunction(VirtualFrame frame, Object maybeModule) {
     CompilerDirectives.transferToInterpreterAndInvalidate();
     if (maybeModule instanceof YonaModule) {
@@ -1,14 +1,15 @@
 package yona.ast.expression;
 
-import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.frame.MaterializedFrame;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import yona.ast.ContinuationNode;
 import yona.ast.ExpressionNode;
-import yona.ast.pattern.MatchControlFlowException;
+import yona.ast.local.ReadArgumentNode;
+import yona.ast.pattern.DispatchNode;
 import yona.ast.pattern.PatternMatchable;
 import yona.runtime.DependencyUtils;
 import yona.runtime.async.Promise;
@@ -25,9 +26,26 @@ public final class CaseNode extends ExpressionNode {
   @Node.Children
   public PatternMatchable[] patternNodes;
 
+  @Node.Child
+  private ContinuationNode continuation;
+
+  /**
+   * Decision tree over the patterns, built on the first execution
+   */
+  @Node.Child
+  private DispatchNode dispatch;
+
+  /**
+   * Whether the scrutinee has ever been a promise, until then the compiled code covers values only
+   */
+  @CompilationFinal
+  private boolean seenPromise = false;
+  private final ConditionProfile fulfilledProfile = ConditionProfile.createBinaryProfile();
+
   public CaseNode(ExpressionNode expression, PatternMatchable[] patternNodes) {
     this.expression = expression;
     this.patternNodes = patternNodes;
+    this.continuation = new ContinuationNode(this::continuationBody);
   }
 
   @Override
@@ -64,43 +82,61 @@ public final class CaseNode extends ExpressionNode {
 
   @Override
   public Object executeGeneric(VirtualFrame frame) {
-    CompilerDirectives.transferToInterpreterAndInvalidate();
     Object value = expression.executeGeneric(frame);
 
     if (value instanceof Promise) {
-      Promise promise = (Promise) value;
-      Object unwrappedValue = promise.unwrap();
-
-      if (unwrappedValue != null) {
-        return execute(unwrappedValue, frame);
-      } else {
-        MaterializedFrame materializedFrame = frame.materialize();
-        return promise.map(val -> execute(val, materializedFrame), this);
-      }
+      return executePromise((Promise) value, frame);
     } else {
       return execute(value, frame);
     }
   }
 
+  private Object executePromise(Promise promise, VirtualFrame frame) {
+    if (!seenPromise) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      seenPromise = true;
+    }
+
+    Object unwrappedValue = promise.unwrap();
+    if (fulfilledProfile.profile(unwrappedValue != null)) {
+      return execute(unwrappedValue, frame);
+    } else {
+      return continuation.continueWith(frame, promise);
+    }
+  }
+
+  boolean hasSeenPromise() {
+    return seenPromise;
+  }
+
+  DispatchNode getDispatch() {
+    return dispatch;
+  }
+
   @Override
   protected String[] requiredIdentifiers() {
     return DependencyUtils.catenateRequiredIdentifiersWith(expression, patternNodes);
   }
 
-  @ExplodeLoop
+  private ExpressionNode continuationBody() {
+    CaseNode caseNode = new CaseNode(new ReadArgumentNode(0), ContinuationNode.cloneNodes(patternNodes));
+    caseNode.setIsTail(isTail());
+    caseNode.setSourceSection(getSourceSection());
+    return caseNode;
+  }
+
   private Object execute(Object value, VirtualFrame frame) {
-    CompilerAsserts.compilationConstant(patternNodes.length);
-    Object retValue = null;
-    for (int i = 0; i < patternNodes.length; i++) {
-      try {
-        retValue = patternNodes[i].patternMatch(value, frame);
-        break;
-      } catch (MatchControlFlowException ex) {
-        continue;
-      }
+    if (dispatch == null) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      atomic(() -> {
+        if (dispatch == null) {
+          dispatch = insert(DispatchNode.create(patternNodes, frame));
+        }
+      });
     }
 
-    if (retValue != null) {
+    Object retValue = dispatch.execute(value, frame, patternNodes);
+    if (retValue != PatternMatchable.NO_MATCH) {
       return retValue;
     } else {
       throw new NoMatchException(this);
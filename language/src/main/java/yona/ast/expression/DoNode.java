@@ -1,11 +1,11 @@
 package yona.ast.expression;
 
 import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.TypesGen;
+import yona.ast.ContinuationNode;
 import yona.ast.ExpressionNode;
 import yona.runtime.DependencyUtils;
 import yona.runtime.async.Promise;
@@ -16,9 +16,19 @@ import java.util.Arrays;
 public final class DoNode extends ExpressionNode {
   @Children
   public ExpressionNode[] steps;  // PatternAliasNode | AliasNode | ExpressionNode
+  /**
+   * Continuations running the steps after the step with the same index, once it returns a promise
+   */
+  @Children
+  private final ContinuationNode[] continuations;
 
   public DoNode(ExpressionNode[] steps) {
     this.steps = steps;
+    this.continuations = new ContinuationNode[Math.max(steps.length - 1, 0)];
+    for (int i = 0; i < continuations.length; i++) {
+      final int nextStep = i + 1;
+      this.continuations[i] = new ContinuationNode(() -> continuationBody(nextStep));
+    }
   }
 
   @Override
@@ -48,37 +58,28 @@ public final class DoNode extends ExpressionNode {
   }
 
   @Override
+  @ExplodeLoop
   public Object executeGeneric(VirtualFrame frame) {
     CompilerAsserts.compilationConstant(steps.length);
 
-    Promise promise = null;
-    MaterializedFrame materializedFrame = null;
     Object result = null;
+    for (int i = 0; i < steps.length; i++) {
+      result = steps[i].executeGeneric(frame);
 
-    for (ExpressionNode step : steps) {
-      if (promise == null) {
-        result = step.executeGeneric(frame);
-
-        if (result instanceof Promise) {
-          promise = (Promise) result;
-        }
-      } else {
-        CompilerDirectives.transferToInterpreterAndInvalidate();
-
-        if (materializedFrame == null) {
-          materializedFrame = frame.materialize();
-        }
-
-        final MaterializedFrame finalMaterializedFrame = materializedFrame;
-        promise = promise.map(ignore -> step.executeGeneric(finalMaterializedFrame), this);
+      if (result instanceof Promise && i < continuations.length) {
+        // aliases of the earlier steps may still be binding their values, so the locals are captured once they are done
+        return continuations[i].continueAfter(frame.materialize(), (Promise) result);
       }
     }
 
-    if (promise != null) {
-      return promise;
-    } else {
-      return TypesGen.ensureNotNull(result);
-    }
+    return TypesGen.ensureNotNull(result);
+  }
+
+  private ExpressionNode continuationBody(int fromStep) {
+    DoNode doNode = new DoNode(ContinuationNode.cloneNodes(Arrays.copyOfRange(steps, fromStep, steps.length)));
+    doNode.setIsTail(isTail());
+    doNode.setSourceSection(getSourceSection());
+    return doNode;
   }
 
   @Override
@@ -2,12 +2,14 @@ package yona.ast.expression;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import yona.YonaException;
+import yona.ast.ContinuationNode;
 import yona.ast.ExpressionNode;
+import yona.ast.local.ReadArgumentNode;
+import yona.runtime.RecordType;
 import yona.runtime.Symbol;
 import yona.runtime.Tuple;
 import yona.runtime.YonaModule;
@@ -28,11 +30,25 @@ public class FieldAccessNode extends ExpressionNode {
   private final String fieldName;
   @Children
   private final ExpressionNode[] moduleStack;  // FQNNode or AnyValueNode
+  @Child
+  private ContinuationNode continuation;
 
-  public FieldAccessNode(IdentifierNode recordName, String fieldName, ExpressionNode[] moduleStack) {
+  /**
+   * Symbol of the first record type accessed by this node, with the position of the field in its tuples, so the field
+   * of a record of this type is read without looking up its definition. Other record types take the slow path.
+   */
+  @CompilationFinal
+  private Symbol cachedRecordType;
+  @CompilationFinal
+  private int cachedRecordLength;
+  @CompilationFinal
+  private int cachedFieldPosition;
+
+  public FieldAccessNode(ExpressionNode recordName, String fieldName, ExpressionNode[] moduleStack) {
     this.recordName = recordName;
     this.fieldName = fieldName;
     this.moduleStack = moduleStack;
+    this.continuation = new ContinuationNode(this::continuationBody);
   }
 
   @Override
@@ -67,23 +83,10 @@ public class FieldAccessNode extends ExpressionNode {
       if (recordTuple.length() <= 1) {
         throw new InvalidRecordException(recordValue, this);
       } else {
-        CompilerDirectives.transferToInterpreterAndInvalidate();
-        MaterializedFrame materializedFrame = frame.materialize();
-
-        return getFieldElementFromTuple(recordTuple, materializedFrame);
+        return getFieldElementFromTuple(recordTuple, frame);
       }
     } else if (recordValue instanceof Promise) {
-      CompilerDirectives.transferToInterpreterAndInvalidate();
-      MaterializedFrame materializedFrame = frame.materialize();
-
-      return ((Promise) recordValue).map(recordTupleObj -> {
-        if (recordTupleObj instanceof Tuple) {
-          Tuple recordTuple = (Tuple) recordTupleObj;
-          return getFieldElementFromTuple(recordTuple, materializedFrame);
-        } else {
-          return YonaException.typeError(this, recordTupleObj);
-        }
-      }, this);
+      return continuation.continueWith(frame, (Promise) recordValue);
     } else {
       throw YonaException.typeError(this, recordValue);
     }
@@ -94,31 +97,44 @@ public class FieldAccessNode extends ExpressionNode {
     return recordName.getRequiredIdentifiers();
   }
 
-  private Object getFieldElementFromTuple(Tuple recordTuple, MaterializedFrame frame) {
-    if (recordTuple.get(0) instanceof Symbol) {
-      Symbol recordTypeSymbol = (Symbol) recordTuple.get(0);
-      return getFieldValue(getRecordFields(recordTypeSymbol.asString(), frame), recordTuple);
-    } else if (recordTuple.get(0) instanceof Promise) {
-      return Promise.all(recordTuple.toArray(), this).map(recordElementsObj -> {
-        Object[] recordElements = (Object[]) recordElementsObj;
-        if (recordElements[0] instanceof Symbol) {
-          return getFieldValue(getRecordFields(((Symbol) recordElements[0]).asString(), frame), recordTuple);
-        } else {
-          return new InvalidRecordException(recordTuple, this);
-        }
-      }, this);
+  private ExpressionNode continuationBody() {
+    ReadArgumentNode recordValueNode = new ReadArgumentNode(0);
+    recordValueNode.setSourceSection(recordName.getSourceSection());
+    FieldAccessNode fieldAccessNode = new FieldAccessNode(recordValueNode, fieldName, ContinuationNode.cloneNodes(moduleStack));
+    fieldAccessNode.setSourceSection(getSourceSection());
+    return fieldAccessNode;
+  }
+
+  private Object getFieldElementFromTuple(Tuple recordTuple, VirtualFrame frame) {
+    Object recordTypeValue = recordTuple.get(0);
+    if (recordTypeValue == cachedRecordType && recordTuple.length() == cachedRecordLength) {
+      return recordTuple.get(cachedFieldPosition);
+    } else if (recordTypeValue instanceof Symbol) {
+      Symbol recordTypeSymbol = (Symbol) recordTypeValue;
+      RecordType recordType = getRecordType(recordTypeSymbol.asString(), frame);
+      int fieldPosition = getFieldPosition(recordType);
+      if (cachedRecordType == null) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        cachedRecordType = recordTypeSymbol;
+        cachedRecordLength = recordType.length();
+        cachedFieldPosition = fieldPosition;
+      }
+      return recordTuple.get(fieldPosition);
+    } else if (recordTypeValue instanceof Promise) {
+      // the record is looked up again once its type is known
+      return continuation.continueWith(frame, Promise.all(recordTuple.toArray(), this).map(recordElements -> new Tuple((Object[]) recordElements), this));
     } else {
       throw new InvalidRecordException(recordTuple, this);
     }
   }
 
-  private String[] getRecordFields(String recordType, VirtualFrame frame) {
+  private RecordType getRecordType(String recordType, VirtualFrame frame) {
     if (moduleStack.length > 0) {
       for (int i = moduleStack.length - 1; i >= 0; i--) {
         try {
           YonaModule module = moduleStack[i].executeModule(frame);
           if (module.getRecords().contains(recordType)) {
-            return (String[]) module.getRecords().lookup(recordType);
+            return (RecordType) module.getRecords().lookup(recordType);
           }
         } catch (UnexpectedResultException e) {
           continue;
@@ -131,13 +147,12 @@ public class FieldAccessNode extends ExpressionNode {
     throw new NoRecordException(recordType, this);
   }
 
-  private Object getFieldValue(String[] recordFields, Tuple recordTuple) {
-    for (int i = 0; i < recordFields.length; i++) {
-      if (fieldName.equals(recordFields[i])) {
-        return recordTuple.get(i + 1);
-      }
+  private int getFieldPosition(RecordType recordType) {
+    int fieldPosition = recordType.fieldPosition(fieldName);
+    if (fieldPosition == -1) {
+      throw new NoRecordFieldException(recordName.toString(), fieldName, this);
     }
 
-    throw new NoRecordFieldException(recordName.toString(), fieldName, this);
+    return fieldPosition;
   }
 }
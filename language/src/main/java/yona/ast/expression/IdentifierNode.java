@@ -10,12 +10,11 @@ import yona.YonaException;
 import yona.YonaLanguage;
 import yona.ast.ExpressionNode;
 import yona.ast.call.InvokeNode;
-import yona.ast.expression.value.AnyValueNode;
 import yona.ast.local.ReadLocalVariableNode;
 import yona.ast.local.ReadLocalVariableNodeGen;
 import yona.runtime.Context;
 import yona.runtime.Function;
-import yona.runtime.Unit;
+import yona.runtime.GlobalCell;
 import yona.runtime.YonaModule;
 import yona.runtime.exceptions.UninitializedFrameSlotException;
 
@@ -42,16 +41,17 @@ public final class IdentifierNode extends ExpressionNode {
   @Override
   public Object executeGeneric(VirtualFrame frame) {
     TruffleLanguage.ContextReference<Context> context = lookupContextReference(YonaLanguage.class);
-    Object globalValue = context.get().globals.lookup(name);
-    if (!Unit.INSTANCE.equals(globalValue)) {
+    GlobalCell globalCell = context.get().globals.cell(name);
+    if (globalCell != null) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      ReadGlobalNode readGlobalNode = new ReadGlobalNode(globalCell);
+      Object globalValue = globalCell.getValue();
       if (globalValue instanceof Function && ((Function) globalValue).getCardinality() == 0) {
-        CompilerDirectives.transferToInterpreterAndInvalidate();
-        InvokeNode invokeNode = new InvokeNode(language, (Function) globalValue, new ExpressionNode[]{}, moduleStack);
+        InvokeNode invokeNode = new InvokeNode(language, readGlobalNode, new ExpressionNode[]{}, moduleStack);
         this.replace(invokeNode);
         return invokeNode.executeGeneric(frame);
       } else {
-        CompilerDirectives.transferToInterpreterAndInvalidate();
-        this.replace(new AnyValueNode(globalValue));
+        this.replace(readGlobalNode);
         return globalValue;
       }
     }
@@ -105,7 +105,7 @@ public final class IdentifierNode extends ExpressionNode {
 
   public boolean isBound(VirtualFrame frame) {
     TruffleLanguage.ContextReference<Context> context = lookupContextReference(YonaLanguage.class);
-    if (context.get().globals.lookup(name) != Unit.INSTANCE) {
+    if (context.get().globals.contains(name)) {
       return true;
     }
     FrameSlot frameSlot = getFrameSlot(frame);
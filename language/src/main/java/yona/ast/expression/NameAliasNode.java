@@ -1,15 +1,12 @@
 package yona.ast.expression;
 
 import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.frame.FrameSlot;
-import com.oracle.truffle.api.frame.FrameSlotKind;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
-import yona.ast.local.WriteLocalVariableNode;
-import yona.ast.local.WriteLocalVariableNodeGen;
+import yona.ast.local.BindLocalVariableNode;
 
 import java.util.Objects;
 
@@ -18,11 +15,14 @@ public final class NameAliasNode extends AliasNode {
   public final String name;
   @Node.Child
   public ExpressionNode expression;
+  @Node.Child
+  private BindLocalVariableNode binding;
 
   @CompilerDirectives.TruffleBoundary
   public NameAliasNode(String name, ExpressionNode expression) {
     this.name = name;
     this.expression = expression;
+    this.binding = new BindLocalVariableNode(name);
   }
 
   @Override
@@ -49,10 +49,7 @@ public final class NameAliasNode extends AliasNode {
 
   @Override
   public Object executeGeneric(VirtualFrame frame) {
-    CompilerDirectives.transferToInterpreterAndInvalidate();
-    FrameSlot frameSlot = frame.getFrameDescriptor().findOrAddFrameSlot(name, FrameSlotKind.Illegal);
-    WriteLocalVariableNode writeLocalVariableNode = WriteLocalVariableNodeGen.create(expression, frameSlot);
-    return writeLocalVariableNode.executeGeneric(frame);
+    return binding.execute(frame, expression.executeGeneric(frame));
   }
 
   @Override
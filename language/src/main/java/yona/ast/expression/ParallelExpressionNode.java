@@ -0,0 +1,64 @@
+package yona.ast.expression;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import yona.YonaLanguage;
+import yona.ast.ExpressionNode;
+import yona.ast.expression.value.FunctionNode;
+import yona.runtime.Context;
+import yona.runtime.Function;
+import yona.runtime.async.Promise;
+
+import java.util.Objects;
+
+/**
+ * Evaluates an expression as an async task, as if it was written as {@code async \-> expression}. Used for the
+ * independent bindings of a let expression, when these are run in parallel.
+ */
+@NodeInfo(shortName = "parallel")
+public final class ParallelExpressionNode extends ExpressionNode {
+  @Child
+  public FunctionNode function;
+  @Child
+  private InteropLibrary dispatch;
+
+  public ParallelExpressionNode(FunctionNode function) {
+    this.function = function;
+    this.dispatch = InteropLibrary.getFactory().createDispatched(3);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ParallelExpressionNode that = (ParallelExpressionNode) o;
+    return Objects.equals(function, that.function);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(function);
+  }
+
+  @Override
+  public String toString() {
+    return "ParallelExpressionNode{" +
+        "function=" + function +
+        '}';
+  }
+
+  @Override
+  public Object executeGeneric(VirtualFrame frame) {
+    Function task = (Function) function.executeGeneric(frame);
+    Context context = lookupContextReference(YonaLanguage.class).get();
+    Promise promise = new Promise();
+    context.threading.submit(promise, task, dispatch, this);
+    return promise;
+  }
+
+  @Override
+  protected String[] requiredIdentifiers() {
+    return function.getRequiredIdentifiers();
+  }
+}
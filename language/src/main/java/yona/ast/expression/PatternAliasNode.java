@@ -1,6 +1,7 @@
 package yona.ast.expression;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
@@ -21,6 +22,9 @@ public final class PatternAliasNode extends AliasNode {
   @Child
   public ExpressionNode expression;
 
+  @CompilationFinal
+  private boolean seenPromise = false;
+
   public PatternAliasNode(MatchNode matchNode, ExpressionNode expression) {
     this.matchNode = matchNode;
     this.expression = expression;
@@ -56,10 +60,13 @@ public final class PatternAliasNode extends AliasNode {
 
   @Override
   public Object executeGeneric(VirtualFrame frame) {
-    CompilerDirectives.transferToInterpreterAndInvalidate();
     Object value = expression.executeGeneric(frame);
 
     if (value instanceof Promise) {
+      if (!seenPromise) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        seenPromise = true;
+      }
       Promise promise = (Promise) value;
       Object unwrappedValue = promise.unwrap();
 
@@ -77,10 +84,7 @@ public final class PatternAliasNode extends AliasNode {
   private Object execute(Object value, VirtualFrame frame) {
     MatchResult matchResult = matchNode.match(value, frame);
     if (matchResult.isMatches()) {
-      for (AliasNode nameAliasNode : matchResult.getAliases()) {
-        nameAliasNode.executeGeneric(frame);
-      }
-
+      matchResult.bind(frame);
       return Unit.INSTANCE;
     } else {
       throw new NoMatchException(this);
@@ -1,14 +1,22 @@
 package yona.ast.expression;
 
+import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.TruffleLogger;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import yona.YonaException;
 import yona.YonaLanguage;
+import yona.YonaOptions;
 import yona.ast.AliasNode;
+import yona.ast.ContinuationNode;
 import yona.ast.ExpressionNode;
+import yona.ast.call.BatchSubmissionNode;
+import yona.ast.expression.value.FunctionNode;
 import yona.runtime.Context;
 import yona.runtime.Seq;
 import yona.runtime.Set;
@@ -24,10 +32,25 @@ public final class PatternLetNode extends LexicalScopeNode {
   public AliasNode[] patternAliases;
   @Child
   public ExpressionNode expression;
+  @Child
+  private ContinuationNode continuation;
+  /**
+   * Batches of aliases which do not depend on one another, resolved on the first execution
+   */
+  @CompilationFinal(dimensions = 2)
+  private AliasNode[][] schedule;
+  /**
+   * Batches whose aliases run in parallel, see {@link YonaOptions#ParallelLet}
+   */
+  @CompilationFinal(dimensions = 1)
+  private boolean[] parallelBatches;
+  @Children
+  private BatchSubmissionNode[] batchSubmissions;
 
   public PatternLetNode(AliasNode[] patternAliases, ExpressionNode expression) {
     this.patternAliases = patternAliases;
     this.expression = expression;
+    this.continuation = new ContinuationNode(() -> NodeUtil.cloneNode(this.expression));
   }
 
   @Override
@@ -59,30 +82,159 @@ public final class PatternLetNode extends LexicalScopeNode {
   }
 
   @Override
+  @ExplodeLoop
   public Object executeGeneric(VirtualFrame frame) {
-    Context context = lookupContextReference(YonaLanguage.class).get();
-
-    CompilerDirectives.transferToInterpreterAndInvalidate();
-    MaterializedFrame materializedFrame = frame.materialize();
-
-    Object result = resolveDependencies(Seq.sequence((AliasNode[]) patternAliases), context.globallyProvidedIdentifiers()).executeGeneric(materializedFrame, this);
-
-    if (result instanceof Promise) {
-      Promise resultPromise = (Promise) result;
-      if (resultPromise.isFulfilled()) {
-        try {
-          resultPromise.unwrapOrThrow();
-        } catch (YonaException e) {
-          throw e;
-        } catch (Throwable e) {
-          throw new YonaException(e, this);
+    if (schedule == null) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      initializeSchedule();
+    }
+
+    CompilerAsserts.compilationConstant(schedule.length);
+    for (int i = 0; i < schedule.length; i++) {
+      Object result = executeBatch(i, frame);
+      if (result instanceof Promise) {
+        return continueFrom(i + 1, (Promise) result, frame.materialize());
+      }
+    }
+
+    return expression.executeGeneric(frame);
+  }
+
+  /**
+   * Resolves the schedule under the lock of the tree, since the aliases may be rewritten into parallel ones, and
+   * publishes it last, once the rest of the state it describes is set.
+   */
+  private void initializeSchedule() {
+    atomic(() -> {
+      if (schedule != null) {
+        return;
+      }
+      Context context = lookupContextReference(YonaLanguage.class).get();
+      AliasNode[][] batches = resolveDependencies(Seq.sequence((AliasNode[]) patternAliases), context.globallyProvidedIdentifiers()).batches().toArray(AliasNode[].class);
+      BatchSubmissionNode[] submissions = new BatchSubmissionNode[batches.length];
+      boolean[] parallel = new boolean[batches.length];
+      boolean parallelLet = context.getEnv().getOptions().get(YonaOptions.ParallelLet);
+      int threshold = context.getEnv().getOptions().get(YonaOptions.ParallelLetThreshold);
+      for (int i = 0; i < batches.length; i++) {
+        if (parallelLet && batches[i].length > 1) {
+          for (AliasNode aliasNode : batches[i]) {
+            parallel[i] |= parallelize(aliasNode, threshold, context);
+          }
         }
-        return expression.executeGeneric(materializedFrame);
-      } else {
-        return resultPromise.map(unit -> expression.executeGeneric(materializedFrame), this);
+        ExpressionNode[] aliasExpressions = new ExpressionNode[batches[i].length];
+        for (int j = 0; j < batches[i].length; j++) {
+          aliasExpressions[j] = aliasExpression(batches[i][j]);
+        }
+        submissions[i] = new BatchSubmissionNode(aliasExpressions);
+      }
+      this.batchSubmissions = insert(submissions);
+      this.parallelBatches = parallel;
+      this.schedule = batches;
+    });
+  }
+
+  /**
+   * Makes the alias evaluate its expression as an async task, if the expression is larger than the threshold. The
+   * alias then binds the promise of the task, just as if its expression was written as {@code async \-> expression}.
+   *
+   * @return whether the alias has been parallelized
+   */
+  private boolean parallelize(AliasNode aliasNode, int threshold, Context context) {
+    ExpressionNode aliasExpression = aliasExpression(aliasNode);
+    if (aliasExpression instanceof ParallelExpressionNode) {
+      // already rewritten, such as in the tree this node was cloned from, the size would count the task body
+      return true;
+    } else if (aliasExpression != null && NodeUtil.countNodes(aliasExpression) > threshold) {
+      aliasExpression.replace(parallelExpression(aliasExpression, context));
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  private static ExpressionNode aliasExpression(AliasNode aliasNode) {
+    if (aliasNode instanceof NameAliasNode) {
+      return ((NameAliasNode) aliasNode).expression;
+    } else if (aliasNode instanceof PatternAliasNode) {
+      return ((PatternAliasNode) aliasNode).expression;
+    } else {
+      return null;
+    }
+  }
+
+  private ParallelExpressionNode parallelExpression(ExpressionNode expression, Context context) {
+    FunctionNode functionNode = new FunctionNode(lookupLanguageReference(YonaLanguage.class).get(), expression.getSourceSection(), null, "$parallel", 0, context.globalFrameDescriptor, expression);
+    ParallelExpressionNode parallelExpressionNode = new ParallelExpressionNode(functionNode);
+    parallelExpressionNode.setSourceSection(expression.getSourceSection());
+    return parallelExpressionNode;
+  }
+
+  /**
+   * Executes the aliases of a batch in order, an alias following one which returned a promise is executed once that
+   * promise is fulfilled. The aliases of a parallel batch are all executed right away, and their promises joined.
+   */
+  @ExplodeLoop
+  private Object executeBatch(int batchIndex, VirtualFrame frame) {
+    final AliasNode[] batch = schedule[batchIndex];
+    CompilerAsserts.compilationConstant(batch.length);
+    final BatchSubmissionNode batchSubmission = batchSubmissions[batchIndex];
+    int batchMark = BatchSubmissionNode.NONE;
+    try {
+      if (parallelBatches[batchIndex]) {
+        final Object[] results = new Object[batch.length];
+        boolean anyPromise = false;
+        for (int i = 0; i < batch.length; i++) {
+          batchMark = batchSubmission.enter(i, batchMark);
+          results[i] = batch[i].executeGeneric(frame);
+          anyPromise |= results[i] instanceof Promise;
+        }
+        return anyPromise ? Promise.all(results, this) : Unit.INSTANCE;
+      }
+
+      Object result = Unit.INSTANCE;
+      for (int i = 0; i < batch.length; i++) {
+        if (result instanceof Promise) {
+          batchSubmission.end(batchMark);
+          batchMark = BatchSubmissionNode.NONE;
+          result = executeAfter((Promise) result, batch[i], frame.materialize());
+        } else {
+          batchMark = batchSubmission.enter(i, batchMark);
+          result = batch[i].executeGeneric(frame);
+        }
+      }
+      return result;
+    } finally {
+      batchSubmission.end(batchMark);
+    }
+  }
+
+  @CompilerDirectives.TruffleBoundary
+  private Promise executeAfter(Promise promise, AliasNode aliasNode, MaterializedFrame frame) {
+    return promise.map(ignore -> aliasNode.executeGeneric(frame), this);
+  }
+
+  /**
+   * Executes the remaining batches, and then the expression, once the promise of the previous batch is fulfilled.
+   */
+  @CompilerDirectives.TruffleBoundary
+  private Object continueFrom(int batchIndex, Promise promise, MaterializedFrame frame) {
+    for (int i = batchIndex; i < schedule.length; i++) {
+      final int nextBatch = i;
+      promise = promise.map(ignore -> executeBatch(nextBatch, frame), this);
+    }
+
+    if (promise.isFulfilled()) {
+      try {
+        promise.unwrapOrThrow();
+      } catch (YonaException e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new YonaException(e, this);
       }
+      return expression.executeGeneric(frame);
     } else {
-      return expression.executeGeneric(materializedFrame);
+      // the aliases bind their values into the materialized frame, so the locals are captured once they are done
+      return continuation.continueAfter(frame, promise);
     }
   }
 
@@ -117,7 +269,10 @@ public final class PatternLetNode extends LexicalScopeNode {
 
     public abstract Seq foldAliasNodes();
 
-    public abstract Object executeGeneric(final VirtualFrame frame, final ExpressionNode node);
+    /**
+     * @return sequence of arrays of AliasNodes, in the order they are to be executed
+     */
+    public abstract Seq batches();
   }
 
   static class AliasTreeSingletonNode extends AliasTree {
@@ -165,21 +320,8 @@ public final class PatternLetNode extends LexicalScopeNode {
     }
 
     @Override
-    public Object executeGeneric(VirtualFrame frame, ExpressionNode node) {
-      final Object parentResult = parent.executeGeneric(frame, node);
-      LOGGER.fine("Singleton.execute.aliasNode: " + aliasNode);
-      LOGGER.fine("Singleton.execute.parentResult: " + parentResult);
-
-      if (parentResult instanceof Promise) {
-        final Promise parentPromise = (Promise) parentResult;
-        Object result = parentPromise.map(unit -> aliasNode.executeGeneric(frame), node);
-        LOGGER.fine("Singleton.execute.result: " + result);
-        return result;
-      } else {
-        Object result = aliasNode.executeGeneric(frame);
-        LOGGER.fine("Singleton.execute.result: " + result);
-        return result;
-      }
+    public Seq batches() {
+      return parent.batches().insertLast(new AliasNode[]{aliasNode});
     }
   }
 
@@ -227,39 +369,9 @@ public final class PatternLetNode extends LexicalScopeNode {
       return parent.foldAliasNodes().insertLast(aliasNodes.toArray(AliasNode.class));
     }
 
-    private Object executeAliases(final VirtualFrame frame, final ExpressionNode node) {
-      return aliasNodes.foldLeft(null, (acc, aliasNodeObj) -> {
-        final AliasNode aliasNode = (AliasNode) aliasNodeObj;
-        LOGGER.finest("Batch.execute.alias.aliasNode: " + aliasNode);
-        LOGGER.finest("Batch.execute.alias.acc: " + acc);
-
-        if (acc instanceof Promise) {
-          final Promise promise = (Promise) acc;
-          return promise.map(unit -> aliasNode.executeGeneric(frame), node);
-        } else {
-          Object result = aliasNode.executeGeneric(frame);
-          LOGGER.finest("Batch.execute.alias.result: " + result);
-          return result;
-        }
-      });
-    }
-
     @Override
-    public Object executeGeneric(final VirtualFrame frame, final ExpressionNode node) {
-      final Object parentResult = parent.executeGeneric(frame, node);
-      LOGGER.fine("Batch.execute.aliasNodes: " + aliasNodes);
-      LOGGER.fine("Batch.execute.parentResult: " + parentResult);
-
-      if (parentResult instanceof Promise) {
-        final Promise parentPromise = (Promise) parentResult;
-        Object result = parentPromise.map(ignore -> executeAliases(frame, node), node);
-        LOGGER.fine("Batch.execute.result: " + result);
-        return result;
-      } else {
-        Object result = executeAliases(frame, node);
-        LOGGER.fine("Batch.execute.result: " + result);
-        return result;
-      }
+    public Seq batches() {
+      return parent.batches().insertLast(aliasNodes.toArray(AliasNode.class));
     }
   }
 
@@ -297,8 +409,8 @@ public final class PatternLetNode extends LexicalScopeNode {
     }
 
     @Override
-    public Object executeGeneric(VirtualFrame frame, ExpressionNode node) {
-      return Unit.INSTANCE;
+    public Seq batches() {
+      return Seq.EMPTY;
     }
   }
 }
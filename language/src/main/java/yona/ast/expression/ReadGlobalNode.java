@@ -0,0 +1,66 @@
+package yona.ast.expression;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import yona.ast.ExpressionNode;
+import yona.runtime.GlobalCell;
+
+import java.util.Objects;
+
+import static com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+
+/**
+ * Reads a global name or a module through its {@link GlobalCell}. The value is a constant in compiled code, until the
+ * name is defined again.
+ */
+@NodeInfo(shortName = "readGlobal")
+public final class ReadGlobalNode extends ExpressionNode {
+  private final GlobalCell cell;
+  @CompilationFinal
+  private Assumption unchanged;
+  @CompilationFinal
+  private Object value;
+
+  public ReadGlobalNode(GlobalCell cell) {
+    this.cell = cell;
+    this.unchanged = cell.getAssumption();
+    this.value = cell.getValue();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ReadGlobalNode that = (ReadGlobalNode) o;
+    return Objects.equals(cell, that.cell);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(cell);
+  }
+
+  @Override
+  public String toString() {
+    return "ReadGlobalNode{" +
+        "name=" + cell.getName() +
+        '}';
+  }
+
+  @Override
+  public Object executeGeneric(VirtualFrame frame) {
+    if (!unchanged.isValid()) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      unchanged = cell.getAssumption();
+      value = cell.getValue();
+    }
+    return value;
+  }
+
+  @Override
+  protected String[] requiredIdentifiers() {
+    return new String[0];
+  }
+}
@@ -55,7 +55,7 @@ public final class StringInterpolationNode extends ExpressionNode {
 
     if (interpolationValue instanceof Promise || alignmentValue instanceof Promise) {
       CompilerDirectives.transferToInterpreterAndInvalidate();
-      return Promise.all(new Object[]{interpolationValue, alignmentValue}, this).map(fulfiled -> {
+      return Promise.all(interpolationValue, alignmentValue, this).map(fulfiled -> {
         try {
           Object[] fulfiledArgs = (Object[]) fulfiled;
           Seq fulfiledInterpolationValue = StringUtil.yonaValueAsYonaString(fulfiledArgs[0]);
@@ -88,6 +88,10 @@ public final class StringInterpolationNode extends ExpressionNode {
 
   @Override
   protected String[] requiredIdentifiers() {
-    return DependencyUtils.catenateRequiredIdentifiers(interpolationExpression, alignmentExpression);
+    if (alignmentExpression != null) {
+      return DependencyUtils.catenateRequiredIdentifiers(interpolationExpression, alignmentExpression);
+    } else {
+      return interpolationExpression.getRequiredIdentifiers();
+    }
   }
 }
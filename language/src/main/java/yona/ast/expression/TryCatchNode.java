@@ -8,7 +8,6 @@ import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.YonaLanguage;
 import yona.ast.ExpressionNode;
-import yona.ast.pattern.MatchControlFlowException;
 import yona.ast.pattern.PatternMatchable;
 import yona.runtime.DependencyUtils;
 import yona.runtime.async.Promise;
@@ -105,20 +104,14 @@ public final class TryCatchNode extends ExpressionNode {
 
     Throwable throwable = (Throwable) value;
 
-    Object retValue = null;
+    Object exceptionTuple = ExceptionUtil.throwableToTuple(throwable, lookupContextReference(YonaLanguage.class).get());
     for (int i = 0; i < catchPatterns.length; i++) {
-      try {
-        retValue = catchPatterns[i].patternMatch(ExceptionUtil.throwableToTuple(throwable, lookupContextReference(YonaLanguage.class).get()), frame);
-        break;
-      } catch (MatchControlFlowException ex) {
-        continue;
+      Object retValue = catchPatterns[i].patternMatch(exceptionTuple, frame);
+      if (retValue != PatternMatchable.NO_MATCH) {
+        return retValue;
       }
     }
 
-    if (retValue != null) {
-      return retValue;
-    } else {
-      throw new NoMatchException(this);
-    }
+    throw new NoMatchException(this);
   }
 }
@@ -7,12 +7,13 @@ import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import yona.YonaException;
 import yona.YonaLanguage;
+import yona.ast.expression.ReadGlobalNode;
 import yona.ast.local.ReadLocalVariableNode;
 import yona.ast.local.ReadLocalVariableNodeGen;
 import yona.runtime.Context;
+import yona.runtime.GlobalCell;
 import yona.runtime.YonaModule;
 import yona.runtime.exceptions.UninitializedFrameSlotException;
-import yona.runtime.Unit;
 
 import java.util.Arrays;
 import java.util.Objects;
@@ -70,11 +71,11 @@ public final class FQNNode extends LiteralValueNode {
     Context context = lookupContextReference(YonaLanguage.class).get();
     try {
       String fqn = Context.getFQN(packageParts, moduleName);
-      Object globalValue = context.globals.lookup(fqn);
-      if (!Unit.INSTANCE.equals(globalValue)) {
+      GlobalCell globalCell = context.globals.cell(fqn);
+      if (globalCell != null) {
         CompilerDirectives.transferToInterpreterAndInvalidate();
-        this.replace(new AnyValueNode(globalValue));
-        return (YonaModule) globalValue;
+        this.replace(new ReadGlobalNode(globalCell));
+        return (YonaModule) globalCell.getValue();
       }
 
       CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -89,6 +90,8 @@ public final class FQNNode extends LiteralValueNode {
       throw new YonaException("Unexpected error while loading a module " + moduleName, e, this);
     }
 
-    return context.lookupModule(packageParts, moduleName, this);
+    GlobalCell moduleCell = context.lookupModuleCell(packageParts, moduleName, this);
+    this.replace(new ReadGlobalNode(moduleCell));
+    return (YonaModule) moduleCell.getValue();
   }
 }
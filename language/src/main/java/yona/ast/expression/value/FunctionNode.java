@@ -1,9 +1,15 @@
 package yona.ast.expression.value;
 
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
@@ -11,12 +17,15 @@ import com.oracle.truffle.api.source.SourceSection;
 import yona.YonaLanguage;
 import yona.ast.ClosureRootNode;
 import yona.ast.ExpressionNode;
+import yona.runtime.DependencyUtils;
 import yona.runtime.Function;
+import yona.runtime.UninitializedFrameSlot;
 
 import java.util.Objects;
 
 /**
- * Any function defined not as a module function, lambda
+ * Any function defined not as a module function, lambda. All closures created by this node share one call target,
+ * each of them captures only the values of the identifiers its body uses, see {@link ClosureRootNode}.
  */
 @NodeInfo
 public final class FunctionNode extends FunctionLikeNode {
@@ -29,6 +38,28 @@ public final class FunctionNode extends FunctionLikeNode {
   private SourceSection sourceSection;
   private FrameDescriptor frameDescriptor;
 
+  @CompilationFinal
+  private RootCallTarget callTarget;
+  @CompilationFinal(dimensions = 1)
+  private String[] capturedIdentifiers;
+  /**
+   * Slots of the captured identifiers in {@link #capturedFrameDescriptor}, null for those without a slot
+   */
+  @CompilationFinal(dimensions = 1)
+  private FrameSlot[] capturedSlots;
+  @CompilationFinal
+  private FrameDescriptor capturedFrameDescriptor;
+  /**
+   * Whether some of the captured identifiers had no slot yet, which are then looked up again once the frame descriptor
+   * changes, see {@link #slotsAdded(FrameDescriptor)}
+   */
+  @CompilationFinal
+  private boolean slotsMissing;
+  /**
+   * Version of the frame descriptor when the missing slots were last looked up
+   */
+  private Assumption checkedVersion;
+
   public FunctionNode(YonaLanguage language, SourceSection sourceSection, String moduleFQN, String name, int cardinality, FrameDescriptor frameDescriptor, ExpressionNode expression) {
     this.moduleFQN = moduleFQN;
     this.name = name;
@@ -79,9 +110,79 @@ public final class FunctionNode extends FunctionLikeNode {
   }
 
   private Function execute(VirtualFrame frame) {
-    CompilerDirectives.transferToInterpreterAndInvalidate();
-    ClosureRootNode rootNode = new ClosureRootNode(language, frameDescriptor, expression, sourceSection, moduleFQN, name, frame.materialize());
-    return new Function(moduleFQN, name, Truffle.getRuntime().createCallTarget(rootNode), cardinality, true);
+    final FrameDescriptor descriptor = frame.getFrameDescriptor();
+    if (callTarget == null || capturedFrameDescriptor != descriptor || (slotsMissing && slotsAdded(descriptor))) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      atomic(() -> initialize(descriptor));
+    }
+
+    final Object[] capturedValues = new Object[capturedSlots.length];
+    if (capture(frame, capturedValues)) {
+      return new Function(moduleFQN, name, callTarget, cardinality, true, capturedValues, null);
+    } else {
+      return new Function(moduleFQN, name, callTarget, cardinality, true, capturedValues, frame.materialize());
+    }
+  }
+
+  /**
+   * @return whether all captured identifiers are bound already
+   */
+  @ExplodeLoop
+  private boolean capture(VirtualFrame frame, Object[] capturedValues) {
+    CompilerAsserts.compilationConstant(capturedSlots.length);
+    boolean allBound = true;
+    for (int i = 0; i < capturedSlots.length; i++) {
+      final FrameSlot slot = capturedSlots[i];
+      final Object value = slot != null ? frame.getValue(slot) : UninitializedFrameSlot.INSTANCE;
+      if (value == UninitializedFrameSlot.INSTANCE) {
+        allBound = false;
+      }
+      capturedValues[i] = value;
+    }
+    return allBound;
+  }
+
+  /**
+   * Looks up the slots of the captured identifiers which had none, if the frame descriptor changed since they were last
+   * looked up. Slots are added to a descriptor as aliases are first executed, but never removed, so a change which
+   * does not add any of them, such as a new binding elsewhere in the global scope, keeps the compiled code valid.
+   *
+   * @return whether a slot has been added for any of the captured identifiers
+   */
+  @CompilerDirectives.TruffleBoundary
+  private boolean slotsAdded(FrameDescriptor descriptor) {
+    final Assumption version = descriptor.getVersion();
+    if (version == checkedVersion) {
+      return false;
+    }
+    checkedVersion = version;
+    for (int i = 0; i < capturedSlots.length; i++) {
+      if (capturedSlots[i] == null && descriptor.findFrameSlot(capturedIdentifiers[i]) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Creates the call target on the first execution, and looks up the slots of the captured identifiers.
+   */
+  private void initialize(FrameDescriptor descriptor) {
+    if (callTarget == null) {
+      capturedIdentifiers = DependencyUtils.collectRequiredIdentifiers(expression);
+      ClosureRootNode rootNode = new ClosureRootNode(language, frameDescriptor, expression, sourceSection, moduleFQN, name, capturedIdentifiers);
+      callTarget = Truffle.getRuntime().createCallTarget(rootNode);
+    }
+    checkedVersion = descriptor.getVersion();
+    FrameSlot[] slots = new FrameSlot[capturedIdentifiers.length];
+    boolean missing = false;
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = descriptor.findFrameSlot(capturedIdentifiers[i]);
+      missing |= slots[i] == null;
+    }
+    capturedSlots = slots;
+    slotsMissing = missing;
+    capturedFrameDescriptor = descriptor;
   }
 
   @Override
@@ -1,12 +1,16 @@
 package yona.ast.expression.value;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import yona.YonaException;
 import yona.YonaLanguage;
 import yona.ast.ExpressionNode;
 import yona.runtime.DependencyUtils;
+import yona.runtime.RecordType;
+import yona.runtime.Symbol;
 import yona.runtime.Tuple;
 import yona.runtime.Unit;
 import yona.runtime.YonaModule;
@@ -27,6 +31,16 @@ public final class RecordInstanceNode extends ExpressionNode {
   @Children
   private final ExpressionNode[] moduleStack;  // FQNNode or AnyValueNode
 
+  /**
+   * Resolved on the first execution, record types are defined in the enclosing modules, so they do not change
+   */
+  @CompilationFinal
+  private Symbol recordTypeSymbol;
+  @CompilationFinal
+  private int recordLength;
+  @CompilationFinal(dimensions = 1)
+  private int[] fieldPositions;
+
   public RecordInstanceNode(String recordType, RecordFieldValueNode[] fields, ExpressionNode[] moduleStack) {
     this.recordType = recordType;
     this.fields = fields;
@@ -59,11 +73,7 @@ public final class RecordInstanceNode extends ExpressionNode {
 
   @Override
   public Object executeGeneric(VirtualFrame frame) {
-    try {
-      return executeTuple(frame);
-    } catch (UnexpectedResultException e) {
-      throw new YonaException("Unexpected error when creating a record instance", e, this);
-    }
+    return executeTuple(frame);
   }
 
   @Override
@@ -72,14 +82,31 @@ public final class RecordInstanceNode extends ExpressionNode {
   }
 
   @Override
-  public Tuple executeTuple(VirtualFrame frame) throws UnexpectedResultException {
-    String[] recordFields = null;
+  @ExplodeLoop
+  public Tuple executeTuple(VirtualFrame frame) {
+    if (fieldPositions == null) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      resolveRecordType(frame);
+    }
+
+    Object[] resultFields = new Object[recordLength];
+    Arrays.fill(resultFields, Unit.INSTANCE);
+    resultFields[0] = recordTypeSymbol;
+    for (int i = 0; i < fields.length; i++) {
+      resultFields[fieldPositions[i]] = fields[i].fieldValue.executeGeneric(frame);
+    }
+
+    return new Tuple(resultFields);
+  }
+
+  private void resolveRecordType(VirtualFrame frame) {
+    RecordType record = null;
     if (moduleStack.length > 0) {
       for (int i = moduleStack.length - 1; i >= 0; i--) {
         try {
           YonaModule module = moduleStack[i].executeModule(frame);
           if (module.getRecords().contains(recordType)) {
-            recordFields = (String[]) module.getRecords().lookup(recordType);
+            record = (RecordType) module.getRecords().lookup(recordType);
           }
         } catch (UnexpectedResultException e) {
           continue;
@@ -89,33 +116,20 @@ public final class RecordInstanceNode extends ExpressionNode {
       }
     }
 
-    if (recordFields == null) {
+    if (record == null) {
       throw new NoRecordException(recordType, this);
-    } else {
-      Object[] resultFields = new Object[recordFields.length + 1];
-      Arrays.fill(resultFields, Unit.INSTANCE);
-      resultFields[0] = lookupContextReference(YonaLanguage.class).get().symbol(recordType);
-      for (RecordFieldValueNode field : fields) {
-        Tuple fieldTuple = field.executeTuple(frame);
-        setField((String) fieldTuple.get(0), fieldTuple.get(1), recordFields, resultFields);
-      }
-
-      return new Tuple(resultFields);
     }
-  }
 
-  private void setField(String fieldName, Object fieldValue, String[] recordFields, Object[] resultFields) {
-    int fieldPos = -1;
-    for (int i = 0; i < recordFields.length; i++) {
-      if (fieldName.equals(recordFields[i])) {
-        fieldPos = i;
+    int[] positions = new int[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      positions[i] = record.fieldPosition(fields[i].fieldName);
+      if (positions[i] == -1) {
+        throw new NoRecordFieldException(recordType, fields[i].fieldName, this);
       }
     }
 
-    if (fieldPos == -1) {
-      throw new NoRecordFieldException(recordType, fieldName, this);
-    } else {
-      resultFields[fieldPos + 1] = fieldValue;
-    }
+    recordTypeSymbol = lookupContextReference(YonaLanguage.class).get().symbol(recordType);
+    recordLength = record.length();
+    fieldPositions = positions;
   }
 }
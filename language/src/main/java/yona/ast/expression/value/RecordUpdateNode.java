@@ -3,12 +3,14 @@ package yona.ast.expression.value;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import yona.TypesGen;
 import yona.YonaException;
 import yona.ast.ExpressionNode;
 import yona.runtime.DependencyUtils;
+import yona.runtime.RecordType;
 import yona.runtime.Symbol;
 import yona.runtime.Tuple;
 import yona.runtime.YonaModule;
@@ -20,6 +22,8 @@ import yona.runtime.exceptions.NoRecordFieldException;
 import java.util.Arrays;
 import java.util.Objects;
 
+import static com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+
 @NodeInfo(shortName = "recordInstance")
 public final class RecordUpdateNode extends ExpressionNode {
   @Child
@@ -29,6 +33,17 @@ public final class RecordUpdateNode extends ExpressionNode {
   @Children
   private final ExpressionNode[] moduleStack;  // FQNNode or AnyValueNode
 
+  /**
+   * Symbol of the first record type updated by this node, with the positions of the updated fields in its tuples.
+   * Other record types take the slow path.
+   */
+  @CompilationFinal
+  private Symbol cachedRecordType;
+  @CompilationFinal
+  private int cachedRecordLength;
+  @CompilationFinal(dimensions = 1)
+  private int[] cachedFieldPositions;
+
   public RecordUpdateNode(ExpressionNode recordIdentifier, RecordFieldValueNode[] fields, ExpressionNode[] moduleStack) {
     this.recordIdentifier = recordIdentifier;
     this.fields = fields;
@@ -96,15 +111,45 @@ public final class RecordUpdateNode extends ExpressionNode {
 
   private Tuple executeTupleValue(VirtualFrame frame, Tuple originalRecordTuple) throws UnexpectedResultException {
     Symbol recordTypeSymbol = TypesGen.expectSymbol(originalRecordTuple.get(0));
-    String recordType = recordTypeSymbol.asString();
+    int[] fieldPositions;
+    if (recordTypeSymbol == cachedRecordType && originalRecordTuple.length() == cachedRecordLength) {
+      fieldPositions = cachedFieldPositions;
+    } else {
+      RecordType recordType = getRecordType(recordTypeSymbol.asString(), frame);
+      if (originalRecordTuple.length() != recordType.length()) {
+        throw new InvalidRecordException(originalRecordTuple, this);
+      }
+
+      fieldPositions = getFieldPositions(recordType);
+      if (cachedRecordType == null) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        cachedRecordType = recordTypeSymbol;
+        cachedRecordLength = recordType.length();
+        cachedFieldPositions = fieldPositions;
+      }
+    }
+
+    return updateFields(frame, originalRecordTuple, fieldPositions);
+  }
+
+  @ExplodeLoop
+  private Tuple updateFields(VirtualFrame frame, Tuple originalRecordTuple, int[] fieldPositions) {
+    Object[] resultFields = originalRecordTuple.toArray().clone();
+    for (int i = 0; i < fields.length; i++) {
+      resultFields[fieldPositions[i]] = fields[i].fieldValue.executeGeneric(frame);
+    }
 
-    String[] recordFields = null;
+    return new Tuple(resultFields);
+  }
+
+  private RecordType getRecordType(String recordType, VirtualFrame frame) {
+    RecordType record = null;
     if (moduleStack.length > 0) {
       for (int i = moduleStack.length - 1; i >= 0; i--) {
         try {
           YonaModule module = moduleStack[i].executeModule(frame);
           if (module.getRecords().contains(recordType)) {
-            recordFields = (String[]) module.getRecords().lookup(recordType);
+            record = (RecordType) module.getRecords().lookup(recordType);
           }
         } catch (UnexpectedResultException e) {
           continue;
@@ -114,35 +159,22 @@ public final class RecordUpdateNode extends ExpressionNode {
       }
     }
 
-    if (recordFields == null) {
+    if (record == null) {
       throw new NoRecordException(recordType, this);
-    } else {
-      if (originalRecordTuple.length() != recordFields.length + 1) {
-        throw new InvalidRecordException(originalRecordTuple, this);
-      }
-
-      Object[] resultFields = originalRecordTuple.toArray().clone();
-      for (RecordFieldValueNode field : fields) {
-        Tuple fieldTuple = field.executeTuple(frame);
-        setField(recordType, (String) fieldTuple.get(0), fieldTuple.get(1), recordFields, resultFields);
-      }
-
-      return new Tuple(resultFields);
     }
+
+    return record;
   }
 
-  private void setField(String recordType, String fieldName, Object fieldValue, String[] recordFields, Object[] resultFields) {
-    int fieldPos = -1;
-    for (int i = 0; i < recordFields.length; i++) {
-      if (fieldName.equals(recordFields[i])) {
-        fieldPos = i;
+  private int[] getFieldPositions(RecordType recordType) {
+    int[] fieldPositions = new int[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      fieldPositions[i] = recordType.fieldPosition(fields[i].fieldName);
+      if (fieldPositions[i] == -1) {
+        throw new NoRecordFieldException(recordType.getName(), fields[i].fieldName, this);
       }
     }
 
-    if (fieldPos == -1) {
-      throw new NoRecordFieldException(recordType, fieldName, this);
-    } else {
-      resultFields[fieldPos + 1] = fieldValue;
-    }
+    return fieldPositions;
   }
 }
@@ -5,6 +5,7 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import yona.ast.ExpressionNode;
+import yona.ast.call.BatchSubmissionNode;
 import yona.runtime.DependencyUtils;
 import yona.runtime.Seq;
 
@@ -14,9 +15,12 @@ import java.util.Objects;
 public final class SequenceNode extends ExpressionNode {
   @Node.Children
   public final ExpressionNode[] expressions;
+  @Node.Child
+  private BatchSubmissionNode batchSubmission;
 
   public SequenceNode(ExpressionNode[] expressions) {
     this.expressions = expressions;
+    this.batchSubmission = new BatchSubmissionNode(expressions);
   }
 
   @Override
@@ -56,9 +60,14 @@ public final class SequenceNode extends ExpressionNode {
 
   private Seq execute(VirtualFrame frame) {
     Object[] values = new Object[expressions.length];
-    int i = 0;
-    for (ExpressionNode expressionNode : expressions) {
-      values[i++] = expressionNode.executeGeneric(frame);
+    int batchMark = BatchSubmissionNode.NONE;
+    try {
+      for (int i = 0; i < expressions.length; i++) {
+        batchMark = batchSubmission.enter(i, batchMark);
+        values[i] = expressions[i].executeGeneric(frame);
+      }
+    } finally {
+      batchSubmission.end(batchMark);
     }
 
     return Seq.sequence(values);
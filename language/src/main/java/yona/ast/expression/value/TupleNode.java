@@ -5,6 +5,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.ast.ExpressionNode;
+import yona.ast.call.BatchSubmissionNode;
 import yona.runtime.DependencyUtils;
 import yona.runtime.Tuple;
 import yona.runtime.async.Promise;
@@ -15,9 +16,12 @@ import java.util.Arrays;
 public final class TupleNode extends ExpressionNode {
   @Node.Children
   public final ExpressionNode[] expressions;
+  @Node.Child
+  private BatchSubmissionNode batchSubmission;
 
   public TupleNode(ExpressionNode... expressions) {
     this.expressions = expressions;
+    this.batchSubmission = new BatchSubmissionNode(expressions);
   }
 
   @Override
@@ -46,11 +50,17 @@ public final class TupleNode extends ExpressionNode {
     Object[] results = new Object[expressions.length];
     boolean containsPromise = false;
 
-    for (int i = 0; i < expressions.length; i++) {
-      results[i] = expressions[i].executeGeneric(frame);
-      if (results[i] instanceof Promise) {
-        containsPromise = true;
+    int batchMark = BatchSubmissionNode.NONE;
+    try {
+      for (int i = 0; i < expressions.length; i++) {
+        batchMark = batchSubmission.enter(i, batchMark);
+        results[i] = expressions[i].executeGeneric(frame);
+        if (results[i] instanceof Promise) {
+          containsPromise = true;
+        }
       }
+    } finally {
+      batchSubmission.end(batchMark);
     }
 
     if (containsPromise) {
@@ -5,6 +5,8 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import yona.YonaLanguage;
 import yona.ast.ExpressionNode;
+import yona.ast.call.BatchSubmissionNode;
+import yona.ast.call.HeldSubmissionNode;
 import yona.ast.call.InvokeNode;
 import yona.ast.expression.CaseNode;
 import yona.ast.expression.value.FunctionNode;
@@ -15,14 +17,20 @@ import yona.ast.pattern.TupleMatchNode;
 import yona.runtime.Context;
 import yona.runtime.Function;
 import yona.runtime.UninitializedFrameSlot;
+import yona.runtime.threading.Threading;
 
 @NodeInfo(shortName = "generator")
 public final class GeneratorNode extends ExpressionNode {
   @Child
   private InvokeNode callNode;
+  /**
+   * Whether the elements of the generator are async tasks, which are then batched, see {@link HeldSubmissionNode}
+   */
+  private final boolean submitting;
   private final String moduleFQN;
 
   public GeneratorNode(YonaLanguage language, GeneratedCollection type, ExpressionNode reducer, ExpressionNode condition, MatchNode[] stepNames, ExpressionNode stepExpression, ExpressionNode[] moduleStack, String moduleFQN) {
+    this.submitting = BatchSubmissionNode.isSubmission(reducer);
     this.callNode = getGeneratorNode(language, type, reducer, condition, stepNames, stepExpression, moduleStack);
     this.moduleFQN = moduleFQN;
   }
@@ -43,7 +51,8 @@ public final class GeneratorNode extends ExpressionNode {
       argPatterns = new TupleMatchNode(stepMatchNodes);
     }
 
-    ExpressionNode reducerBodyNode = new CaseNode(new ReadArgumentNode(0), new PatternNode[]{new PatternNode(argPatterns, reducer)});
+    ExpressionNode element = BatchSubmissionNode.isSubmission(reducer) ? new HeldSubmissionNode(reducer) : reducer;
+    ExpressionNode reducerBodyNode = new CaseNode(new ReadArgumentNode(0), new PatternNode[]{new PatternNode(argPatterns, element)});
     reducerBodyNode.addRootTag();
 
     FunctionNode reduceFunction = new FunctionNode(language, reducer.getSourceSection(), this.moduleFQN, "$" + type.toLowerString() + "_reducer", 1, new FrameDescriptor(UninitializedFrameSlot.INSTANCE), reducerBodyNode);
@@ -64,8 +73,16 @@ public final class GeneratorNode extends ExpressionNode {
 
   @Override
   public Object executeGeneric(VirtualFrame frame) {
-    this.replace(callNode);
-    return callNode.executeGeneric(frame);
+    if (!submitting) {
+      return callNode.executeGeneric(frame);
+    }
+    Threading threading = lookupContextReference(YonaLanguage.class).get().threading;
+    int batchMark = threading.beginBatch(false);
+    try {
+      return callNode.executeGeneric(frame);
+    } finally {
+      threading.endBatch(batchMark, false);
+    }
   }
 
   @Override
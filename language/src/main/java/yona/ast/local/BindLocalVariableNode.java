@@ -0,0 +1,83 @@
+package yona.ast.local;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeInfo;
+
+/**
+ * Binds a value to the local variable of the given name. The frame slot of the variable, and the node writing into it,
+ * are resolved on the first execution. Should the node later run with another frame descriptor, which is rare since
+ * most code shares the global one, the value is written as an object into the slot looked up by name, in the
+ * interpreter, without invalidating the compiled code for the resolved descriptor more than once.
+ */
+@NodeInfo(shortName = "bindLocalVariable")
+public final class BindLocalVariableNode extends Node {
+  private final String name;
+
+  @CompilationFinal
+  private FrameDescriptor frameDescriptor;
+  @Child
+  private WriteLocalVariableNode writeNode;
+  /**
+   * Whether the node has run with another frame descriptor than the one it resolved the slot for
+   */
+  @CompilationFinal
+  private boolean generic = false;
+
+  public BindLocalVariableNode(String name) {
+    this.name = name;
+  }
+
+  public Object execute(VirtualFrame frame, Object value) {
+    final FrameDescriptor descriptor = frame.getFrameDescriptor();
+    if (descriptor != frameDescriptor) {
+      if (frameDescriptor == null) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        atomic(() -> resolve(descriptor));
+        if (descriptor == frameDescriptor) {
+          return writeNode.executeWrite(frame, value);
+        }
+      }
+      if (generic) {
+        CompilerDirectives.transferToInterpreter();
+      } else {
+        // the first miss invalidates, so that later ones only leave the compiled code
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        generic = true;
+      }
+      return writeObject(frame, value);
+    }
+    return writeNode.executeWrite(frame, value);
+  }
+
+  private void resolve(FrameDescriptor descriptor) {
+    if (frameDescriptor == null) {
+      FrameSlot frameSlot = descriptor.findOrAddFrameSlot(name, FrameSlotKind.Illegal);
+      this.writeNode = insert(WriteLocalVariableNodeGen.create(null, frameSlot));
+      this.frameDescriptor = descriptor;
+    }
+  }
+
+  private Object writeObject(VirtualFrame frame, Object value) {
+    FrameSlot frameSlot = frame.getFrameDescriptor().findOrAddFrameSlot(name, FrameSlotKind.Illegal);
+    frame.getFrameDescriptor().setFrameSlotKind(frameSlot, FrameSlotKind.Object);
+    frame.setObject(frameSlot, value);
+    return value;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return "BindLocalVariableNode{" +
+        "name='" + name + '\'' +
+        '}';
+  }
+}
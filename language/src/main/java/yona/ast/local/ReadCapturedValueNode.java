@@ -0,0 +1,38 @@
+package yona.ast.local;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import yona.ast.ExpressionNode;
+import yona.runtime.Function;
+
+/**
+ * Reads a value captured by the function being executed, which receives itself as its last argument, see
+ * {@link Function#callArguments(Object[])}.
+ */
+@NodeInfo
+public final class ReadCapturedValueNode extends ExpressionNode {
+  /** The index into the captured values of the function. */
+  private final int index;
+
+  public ReadCapturedValueNode(int index) {
+    this.index = index;
+  }
+
+  @Override
+  public Object executeGeneric(VirtualFrame frame) {
+    Object[] args = frame.getArguments();
+    return ((Function) args[args.length - 1]).getCapturedValues()[index];
+  }
+
+  @Override
+  protected String[] requiredIdentifiers() {
+    return new String[0];
+  }
+
+  @Override
+  public String toString() {
+    return "ReadCapturedValueNode{" +
+        "index=" + index +
+        '}';
+  }
+}
@@ -58,6 +58,6 @@ public abstract class ReadLocalVariableNode extends ExpressionNode {
 
   @Override
   protected String[] requiredIdentifiers() {
-    return new String[0];
+    return new String[]{(String) getSlot().getIdentifier()};
   }
 }
@@ -23,6 +23,11 @@ public abstract class WriteLocalVariableNode extends ExpressionNode {
    */
   protected abstract FrameSlot getSlot();
 
+  /**
+   * Writes the value which has already been evaluated, the value node is not executed and may be null.
+   */
+  public abstract Object executeWrite(VirtualFrame frame, Object value);
+
   /**
    * Specialized method to write a primitive {@code long} value. This is only possible if the
    * local variable also has currently the type {@code long} or was never written before,
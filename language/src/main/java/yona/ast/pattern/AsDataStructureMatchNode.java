@@ -2,11 +2,10 @@ package yona.ast.pattern;
 
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import yona.ast.AliasNode;
 import yona.ast.expression.IdentifierNode;
-import yona.ast.expression.NameAliasNode;
-import yona.ast.expression.value.AnyValueNode;
+import yona.ast.local.BindLocalVariableNode;
 
+import java.util.List;
 import java.util.Objects;
 
 @NodeInfo(shortName = "asDataStructureMatch")
@@ -15,10 +14,13 @@ public final class AsDataStructureMatchNode extends MatchNode {
   public IdentifierNode identifierNode;
   @Child
   public MatchNode matchNode;
+  @Child
+  private BindLocalVariableNode binding;
 
   public AsDataStructureMatchNode(IdentifierNode identifierNode, MatchNode matchNode) {
     this.identifierNode = identifierNode;
     this.matchNode = matchNode;
+    this.binding = new BindLocalVariableNode(identifierNode.name());
   }
 
   @Override
@@ -49,16 +51,18 @@ public final class AsDataStructureMatchNode extends MatchNode {
     if (!matchResult.isMatches()) {
       return MatchResult.FALSE;
     } else {
-      for (AliasNode nameAliasNode : matchResult.getAliases()) {
-        nameAliasNode.executeGeneric(frame);
-      }
-      AliasNode identifierAlias = new NameAliasNode(identifierNode.name(), new AnyValueNode(value));
-      identifierAlias.executeGeneric(frame);
+      matchResult.bind(frame);
+      binding.execute(frame, value);
 
       return MatchResult.TRUE;
     }
   }
 
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    matchNode.collectShapes(path, constraints, frame);
+  }
+
   @Override
   protected String[] requiredIdentifiers() {
     return matchNode.getRequiredIdentifiers();
@@ -1,11 +1,11 @@
 package yona.ast.pattern;
 
 import com.oracle.truffle.api.frame.VirtualFrame;
-import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
 import yona.runtime.*;
 
 import java.util.Arrays;
+import java.util.List;
 
 public final class DictMatchNode extends MatchNode {
   @Children
@@ -55,7 +55,7 @@ public final class DictMatchNode extends MatchNode {
         }
       }
 
-      Seq aliases = Seq.EMPTY;
+      MatchResult bindings = MatchResult.TRUE;
       for (int i = 0; i < expressionNodes.length; i++) {
         Object key = expressionNodes[i].executeGeneric(frame);
 
@@ -67,15 +67,12 @@ public final class DictMatchNode extends MatchNode {
           if (!matchResult.isMatches()) {
             return MatchResult.FALSE;
           } else {
-            aliases = Seq.catenate(aliases, Seq.sequence((Object[]) matchResult.getAliases()));
+            bindings = bindings.and(matchResult);
           }
         }
       }
 
-      aliases.foldLeft(null, (acc, alias) -> {
-        ((AliasNode) alias).executeGeneric(frame);
-        return null;
-      });
+      bindings.bind(frame);
 
       return MatchResult.TRUE;
     }
@@ -83,6 +80,11 @@ public final class DictMatchNode extends MatchNode {
     return MatchResult.FALSE;
   }
 
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    constraints.add(new ShapeConstraint(path, Shape.dict()));
+  }
+
   @Override
   protected String[] requiredIdentifiers() {
     return DependencyUtils.catenateRequiredIdentifiers(expressionNodes);
@@ -0,0 +1,188 @@
+package yona.ast.pattern;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decision tree over the clauses of a case expression or a function. Each test checks a {@link Shape} of the value,
+ * or of an element of a tuple value, once, and leads to the clauses which may still match. These are then tried in
+ * their original order, so the first clause which matches wins, as if all of them were tried one by one.
+ */
+@NodeInfo(shortName = "dispatch")
+public abstract class DispatchNode extends Node {
+  /**
+   * Limit of tests in a tree, the clauses remaining once it is reached are tried one by one
+   */
+  static final int MAX_TESTS = 64;
+
+  /**
+   * @return value of the clause which matched, or {@link PatternMatchable#NO_MATCH}
+   */
+  public abstract Object execute(Object value, VirtualFrame frame, PatternMatchable[] patterns);
+
+  public abstract int countTests();
+
+  /**
+   * Builds the tree for the clauses, the frame is used to evaluate the literals of their patterns.
+   */
+  @SuppressWarnings("unchecked")
+  public static DispatchNode create(PatternMatchable[] patterns, VirtualFrame frame) {
+    List<ShapeConstraint>[] constraints = new List[patterns.length];
+    List<Integer> clauses = new ArrayList<>();
+    for (int i = 0; i < patterns.length; i++) {
+      constraints[i] = new ArrayList<>();
+      patterns[i].getMatchExpression().collectShapes(new int[0], constraints[i], frame);
+      clauses.add(i);
+    }
+    return new Builder(constraints).build(clauses, new ArrayList<>());
+  }
+
+  private static final class Builder {
+    private final List<ShapeConstraint>[] constraints;
+    private int tests = 0;
+
+    Builder(List<ShapeConstraint>[] constraints) {
+      this.constraints = constraints;
+    }
+
+    /**
+     * Tests the first constraint of the first clause which is not known to hold yet. When it holds, the clauses with
+     * a shape incompatible with it are dropped, otherwise the clauses which require it.
+     */
+    DispatchNode build(List<Integer> clauses, List<ShapeConstraint> known) {
+      if (clauses.isEmpty() || tests >= MAX_TESTS) {
+        return new ClausesNode(clauses);
+      }
+
+      ShapeConstraint next = firstUnknown(constraints[clauses.get(0)], known);
+      if (next == null) {
+        return new ClausesNode(clauses);
+      }
+      tests++;
+
+      List<Integer> matched = new ArrayList<>();
+      List<Integer> unmatched = new ArrayList<>();
+      for (int clause : clauses) {
+        if (compatible(constraints[clause], next)) {
+          matched.add(clause);
+        }
+        if (!requires(constraints[clause], next)) {
+          unmatched.add(clause);
+        }
+      }
+
+      List<ShapeConstraint> matchedKnown = new ArrayList<>(known);
+      matchedKnown.add(next);
+      return new TestNode(next, build(matched, matchedKnown), build(unmatched, known));
+    }
+
+    private static ShapeConstraint firstUnknown(List<ShapeConstraint> clauseConstraints, List<ShapeConstraint> known) {
+      for (ShapeConstraint constraint : clauseConstraints) {
+        if (!requires(known, constraint)) {
+          return constraint;
+        }
+      }
+      return null;
+    }
+
+    private static boolean compatible(List<ShapeConstraint> clauseConstraints, ShapeConstraint other) {
+      for (ShapeConstraint constraint : clauseConstraints) {
+        if (constraint.samePath(other) && !constraint.shape.compatibleWith(other.shape)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean requires(List<ShapeConstraint> clauseConstraints, ShapeConstraint other) {
+      for (ShapeConstraint constraint : clauseConstraints) {
+        if (constraint.samePath(other) && constraint.shape.implies(other.shape)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  static final class TestNode extends DispatchNode {
+    private final ShapeConstraint constraint;
+    @Child
+    private DispatchNode matched;
+    @Child
+    private DispatchNode unmatched;
+
+    private final ConditionProfile profile = ConditionProfile.createBinaryProfile();
+
+    TestNode(ShapeConstraint constraint, DispatchNode matched, DispatchNode unmatched) {
+      this.constraint = constraint;
+      this.matched = matched;
+      this.unmatched = unmatched;
+    }
+
+    @Override
+    public Object execute(Object value, VirtualFrame frame, PatternMatchable[] patterns) {
+      if (profile.profile(constraint.test(value))) {
+        return matched.execute(value, frame, patterns);
+      } else {
+        return unmatched.execute(value, frame, patterns);
+      }
+    }
+
+    @Override
+    public int countTests() {
+      return 1 + matched.countTests() + unmatched.countTests();
+    }
+
+    @Override
+    public String toString() {
+      return "TestNode{" +
+          "constraint=" + constraint +
+          '}';
+    }
+  }
+
+  static final class ClausesNode extends DispatchNode {
+    @CompilationFinal(dimensions = 1)
+    private final int[] clauses;
+
+    ClausesNode(List<Integer> clauses) {
+      this.clauses = new int[clauses.size()];
+      for (int i = 0; i < this.clauses.length; i++) {
+        this.clauses[i] = clauses.get(i);
+      }
+    }
+
+    @Override
+    @ExplodeLoop
+    public Object execute(Object value, VirtualFrame frame, PatternMatchable[] patterns) {
+      CompilerAsserts.compilationConstant(clauses.length);
+      for (int i = 0; i < clauses.length; i++) {
+        Object result = patterns[clauses[i]].patternMatch(value, frame);
+        if (result != PatternMatchable.NO_MATCH) {
+          return result;
+        }
+      }
+      return PatternMatchable.NO_MATCH;
+    }
+
+    @Override
+    public int countTests() {
+      return 0;
+    }
+
+    @Override
+    public String toString() {
+      return "ClausesNode{" +
+          "clauses=" + clauses.length +
+          '}';
+    }
+  }
+}
@@ -1,12 +1,15 @@
 package yona.ast.pattern;
 
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import yona.ast.AliasNode;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import yona.YonaException;
 import yona.ast.ExpressionNode;
-import yona.ast.expression.ConditionNode;
-import yona.ast.expression.ThrowNode;
 import yona.runtime.DependencyUtils;
+import yona.runtime.async.Promise;
+import yona.runtime.exceptions.NoMatchException;
 
 import java.util.Objects;
 
@@ -15,11 +18,16 @@ public final class GuardedPattern extends PatternMatchable {
   @Child
   public MatchNode matchExpression;
   @Child
-  public ConditionNode conditionNode;
+  public ExpressionNode guardExpression;
+  @Child
+  public ExpressionNode valueExpression;
+
+  private final ConditionProfile condition = ConditionProfile.createCountingProfile();
 
   public GuardedPattern(MatchNode matchExpression, ExpressionNode guardExpression, ExpressionNode valueExpression) {
     this.matchExpression = matchExpression;
-    this.conditionNode = new ConditionNode(guardExpression, valueExpression, new ThrowNode(MatchControlFlowException.INSTANCE));
+    this.guardExpression = guardExpression;
+    this.valueExpression = valueExpression;
   }
 
   @Override
@@ -28,41 +36,67 @@ public final class GuardedPattern extends PatternMatchable {
     if (o == null || getClass() != o.getClass()) return false;
     GuardedPattern that = (GuardedPattern) o;
     return Objects.equals(matchExpression, that.matchExpression) &&
-        Objects.equals(conditionNode, that.conditionNode);
+        Objects.equals(guardExpression, that.guardExpression) &&
+        Objects.equals(valueExpression, that.valueExpression);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(matchExpression, conditionNode);
+    return Objects.hash(matchExpression, guardExpression, valueExpression);
   }
 
   @Override
   public String toString() {
     return "GuardedPattern{" +
         "matchExpression=" + matchExpression +
-        ", conditionNode=" + conditionNode +
+        ", guardExpression=" + guardExpression +
+        ", valueExpression=" + valueExpression +
         '}';
   }
 
   @Override
   public void setIsTail(boolean isTail) {
     super.setIsTail(isTail);
-    conditionNode.setIsTail(isTail);
+    valueExpression.setIsTail(isTail);
   }
 
   @Override
-  public Object patternMatch(Object value, VirtualFrame frame) throws MatchControlFlowException {
+  public Object patternMatch(Object value, VirtualFrame frame) {
     MatchResult matchResult = matchExpression.match(value, frame);
-    if (matchResult.isMatches()) {
-      for (AliasNode aliasNode : matchResult.getAliases()) {
-        aliasNode.executeGeneric(frame);
+    if (!matchResult.isMatches()) {
+      return NO_MATCH;
+    }
+
+    matchResult.bind(frame);
+    Object guardValue = guardExpression.executeGeneric(frame);
+
+    if (guardValue instanceof Boolean) {
+      if (condition.profile((boolean) guardValue)) {
+        return valueExpression.executeGeneric(frame);
+      } else {
+        return NO_MATCH;
       }
-      return conditionNode.executeGeneric(frame);
+    } else if (guardValue instanceof Promise) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      MaterializedFrame materializedFrame = frame.materialize();
+      // the following clauses are not tried once the guard is fulfilled
+      return ((Promise) guardValue).map(val -> {
+        if ((boolean) val) {
+          return valueExpression.executeGeneric(materializedFrame);
+        } else {
+          throw new NoMatchException(this);
+        }
+      }, this);
     } else {
-      throw MatchControlFlowException.INSTANCE;
+      throw YonaException.typeError(this, guardValue);
     }
   }
 
+  @Override
+  public MatchNode getMatchExpression() {
+    return matchExpression;
+  }
+
   @Override
   public Object executeGeneric(VirtualFrame frame) {
     return null;
@@ -70,6 +104,6 @@ public final class GuardedPattern extends PatternMatchable {
 
   @Override
   protected String[] requiredIdentifiers() {
-    return DependencyUtils.catenateRequiredIdentifiers(matchExpression, conditionNode);
+    return DependencyUtils.catenateRequiredIdentifiers(matchExpression, guardExpression, valueExpression);
   }
 }
@@ -1,18 +1,18 @@
 package yona.ast.pattern;
 
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
 import yona.ast.expression.IdentifierNode;
-import yona.ast.expression.NameAliasNode;
-import yona.ast.expression.value.AnyValueNode;
 import yona.ast.expression.value.EmptySequenceNode;
+import yona.ast.local.BindLocalVariableNode;
 import yona.runtime.ArrayUtils;
 import yona.runtime.DependencyUtils;
 import yona.runtime.Seq;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 @NodeInfo(shortName = "headTailsHeadMatch")
@@ -21,12 +21,17 @@ public final class HeadTailsHeadMatchNode extends MatchNode {
   public final MatchNode[] leftNodes;
   @Child
   public ExpressionNode tailsNode;
+  @Child
+  private BindLocalVariableNode tailsBinding;
   @Children
   public final MatchNode[] rightPatterns;
 
   public HeadTailsHeadMatchNode(MatchNode[] leftNodes, ExpressionNode tailsNode, MatchNode[] rightPatterns) {
     this.leftNodes = leftNodes;
     this.tailsNode = tailsNode;
+    if (tailsNode instanceof IdentifierNode) {
+      this.tailsBinding = new BindLocalVariableNode(((IdentifierNode) tailsNode).name());
+    }
     this.rightPatterns = rightPatterns;
   }
 
@@ -62,39 +67,42 @@ public final class HeadTailsHeadMatchNode extends MatchNode {
     return DependencyUtils.catenateRequiredIdentifiers(DependencyUtils.catenateRequiredIdentifiersWith(tailsNode, leftNodes), rightPatterns);
   }
 
+  /**
+   * Heads on both sides are matched by their index, the tails are sliced off the sequence only once all of them match.
+   */
   @Override
+  @ExplodeLoop
   public MatchResult match(Object value, VirtualFrame frame) {
     if (value instanceof Seq) {
       Seq sequence = (Seq) value;
-      Seq aliases = Seq.EMPTY;
+      MatchResult bindings = MatchResult.TRUE;
+      long length = sequence.length();
 
-      if (leftNodes.length + rightPatterns.length > sequence.length()) {
+      if (leftNodes.length + rightPatterns.length > length) {
         return MatchResult.FALSE;
       }
 
-      if (sequence.length() > 0) {
+      if (length > 0) {
         for (int i = 0; i < leftNodes.length; i++) {
-          MatchNode headNode = leftNodes[i];
-          MatchResult headMatches = headNode.match(sequence.first(this), frame);
+          MatchResult headMatches = leftNodes[i].match(sequence.lookup(i, this), frame);
           if (headMatches.isMatches()) {
-            aliases = Seq.catenate(aliases, Seq.sequence((Object[]) headMatches.getAliases()));
-            sequence = sequence.removeFirst(this);
+            bindings = bindings.and(headMatches);
           } else {
             return MatchResult.FALSE;
           }
         }
 
+        long rightStart = length - rightPatterns.length;
         for (int i = rightPatterns.length - 1; i >= 0; i--) {
-          MatchNode headNode = rightPatterns[i];
-          MatchResult headMatches = headNode.match(sequence.last(this), frame);
+          MatchResult headMatches = rightPatterns[i].match(sequence.lookup(rightStart + i, this), frame);
           if (headMatches.isMatches()) {
-            aliases = Seq.catenate(aliases, Seq.sequence((Object[]) headMatches.getAliases()));
-            sequence = sequence.removeLast(this);
+            bindings = bindings.and(headMatches);
           } else {
             return MatchResult.FALSE;
           }
         }
 
+        long tailsLength = rightStart - leftNodes.length;
         // YonaParser.g4: tails : identifier | emptySequence | underscore ;
         if (tailsNode instanceof IdentifierNode) {
           IdentifierNode identifierNode = (IdentifierNode) tailsNode;
@@ -102,22 +110,19 @@ public final class HeadTailsHeadMatchNode extends MatchNode {
           if (identifierNode.isBound(frame)) {
             Seq identifierValue = (Seq) identifierNode.executeGeneric(frame);
 
-            if (!Objects.equals(identifierValue, sequence)) {
+            if (identifierValue.length() != tailsLength || !Objects.equals(identifierValue, tails(sequence, rightStart, tailsLength))) {
               return MatchResult.FALSE;
             }
           } else {
-            aliases = aliases.insertLast(new NameAliasNode(identifierNode.name(), new AnyValueNode(sequence)));
+            bindings = bindings.and(MatchResult.binding(tailsBinding, tails(sequence, rightStart, tailsLength)));
           }
         } else if (tailsNode instanceof EmptySequenceNode) {
-          if (sequence.length() > 0) {
+          if (tailsLength > 0) {
             return MatchResult.FALSE;
           }
         }
 
-        aliases.foldLeft(null, (acc, alias) -> {
-          ((AliasNode) alias).executeGeneric(frame);
-          return null;
-        });
+        bindings.bind(frame);
 
         return MatchResult.TRUE;
       }
@@ -126,6 +131,19 @@ public final class HeadTailsHeadMatchNode extends MatchNode {
     return MatchResult.FALSE;
   }
 
+  private Seq tails(Seq sequence, long rightStart, long tailsLength) {
+    if (tailsLength == 0) {
+      return Seq.EMPTY;
+    }
+    Seq tails = rightPatterns.length == 0 ? sequence : sequence.take(rightStart, this);
+    return leftNodes.length == 0 ? tails : tails.drop(leftNodes.length, this);
+  }
+
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    constraints.add(new ShapeConstraint(path, Shape.sequenceOfAtLeast(Math.max(leftNodes.length + rightPatterns.length, 1))));
+  }
+
   @Override
   protected String[] providedIdentifiers() {
     return ArrayUtils.catenate(tailsNode.getRequiredIdentifiers(), DependencyUtils.catenateProvidedIdentifiers(leftNodes, rightPatterns));
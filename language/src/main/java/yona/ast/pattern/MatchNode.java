@@ -3,6 +3,8 @@ package yona.ast.pattern;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import yona.ast.AliasNode;
 
+import java.util.List;
+
 public abstract class MatchNode extends AliasNode {
   @Override
   public Object executeGeneric(VirtualFrame frame) {
@@ -10,4 +12,11 @@ public abstract class MatchNode extends AliasNode {
   }
 
   public abstract MatchResult match(Object value, VirtualFrame frame);
+
+  /**
+   * Adds the shapes, which the value at the path must have for this pattern to match, to the constraints. None are
+   * required by default, patterns which have any can therefore be skipped by a {@link DispatchNode}.
+   */
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+  }
 }
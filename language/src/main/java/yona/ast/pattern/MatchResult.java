@@ -1,28 +1,67 @@
 package yona.ast.pattern;
 
-import yona.ast.AliasNode;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import yona.ast.local.BindLocalVariableNode;
 
 import java.util.Arrays;
 import java.util.Objects;
 
 /**
- * Aliases are executed only after full match found.
+ * Bindings are executed only after full match found. A binding is a {@link BindLocalVariableNode} of the pattern
+ * which matched, together with the value to bind, so that a match does not allocate any nodes.
  */
 public final class MatchResult {
+  private static final BindLocalVariableNode[] NO_BINDINGS = new BindLocalVariableNode[0];
+  private static final Object[] NO_VALUES = new Object[0];
+
   public static final MatchResult FALSE = new MatchResult(false);
   public static final MatchResult TRUE = new MatchResult(true);
 
-  private boolean matches;
-  private AliasNode[] aliases;
+  private final boolean matches;
+  private final BindLocalVariableNode[] bindings;
+  private final Object[] values;
 
   public MatchResult(boolean matches) {
-    this.matches = matches;
-    this.aliases = new AliasNode[0];
+    this(matches, NO_BINDINGS, NO_VALUES);
   }
 
-  public MatchResult(boolean matches, AliasNode[] aliases) {
+  private MatchResult(boolean matches, BindLocalVariableNode[] bindings, Object[] values) {
     this.matches = matches;
-    this.aliases = aliases;
+    this.bindings = bindings;
+    this.values = values;
+  }
+
+  /**
+   * Successful match, which binds the value once the whole pattern matches
+   */
+  public static MatchResult binding(BindLocalVariableNode binding, Object value) {
+    return new MatchResult(true, new BindLocalVariableNode[]{binding}, new Object[]{value});
+  }
+
+  /**
+   * @return successful match with the bindings of both this and the other match
+   */
+  public MatchResult and(MatchResult other) {
+    if (other.bindings.length == 0) {
+      return this;
+    } else if (bindings.length == 0) {
+      return other;
+    } else {
+      BindLocalVariableNode[] newBindings = Arrays.copyOf(bindings, bindings.length + other.bindings.length);
+      System.arraycopy(other.bindings, 0, newBindings, bindings.length, other.bindings.length);
+      Object[] newValues = Arrays.copyOf(values, values.length + other.values.length);
+      System.arraycopy(other.values, 0, newValues, values.length, other.values.length);
+      return new MatchResult(true, newBindings, newValues);
+    }
+  }
+
+  /**
+   * Binds the values of the match into the frame
+   */
+  public void bind(VirtualFrame frame) {
+    for (int i = 0; i < bindings.length; i++) {
+      bindings[i].execute(frame, values[i]);
+    }
   }
 
   @Override
@@ -31,13 +70,15 @@ public final class MatchResult {
     if (o == null || getClass() != o.getClass()) return false;
     MatchResult that = (MatchResult) o;
     return matches == that.matches &&
-        Arrays.equals(aliases, that.aliases);
+        Arrays.equals(bindings, that.bindings) &&
+        Arrays.equals(values, that.values);
   }
 
   @Override
   public int hashCode() {
     int result = Objects.hash(matches);
-    result = 31 * result + Arrays.hashCode(aliases);
+    result = 31 * result + Arrays.hashCode(bindings);
+    result = 31 * result + Arrays.hashCode(values);
     return result;
   }
 
@@ -45,15 +86,12 @@ public final class MatchResult {
   public String toString() {
     return "MatchResult{" +
         "matches=" + matches +
-        ", aliases=" + Arrays.toString(aliases) +
+        ", bindings=" + Arrays.toString(bindings) +
+        ", values=" + Arrays.toString(values) +
         '}';
   }
 
   public boolean isMatches() {
     return matches;
   }
-
-  public AliasNode[] getAliases() {
-    return aliases;
-  }
 }
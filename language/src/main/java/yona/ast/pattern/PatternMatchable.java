@@ -4,5 +4,15 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import yona.ast.ExpressionNode;
 
 public abstract class PatternMatchable extends ExpressionNode {
-  public abstract Object patternMatch(Object value, VirtualFrame frame) throws MatchControlFlowException;
+  /**
+   * Returned by {@link #patternMatch(Object, VirtualFrame)} if the pattern does not match the value
+   */
+  public static final Object NO_MATCH = new Object();
+
+  /**
+   * @return the value of the clause, or {@link #NO_MATCH}
+   */
+  public abstract Object patternMatch(Object value, VirtualFrame frame);
+
+  public abstract MatchNode getMatchExpression();
 }
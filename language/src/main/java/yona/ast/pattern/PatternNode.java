@@ -3,7 +3,6 @@ package yona.ast.pattern;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
 import yona.runtime.DependencyUtils;
 
@@ -51,18 +50,21 @@ public class PatternNode extends PatternMatchable {
   }
 
   @Override
-  public Object patternMatch(Object value, VirtualFrame frame) throws MatchControlFlowException {
+  public Object patternMatch(Object value, VirtualFrame frame) {
     MatchResult matchResult = matchExpression.match(value, frame);
     if (matchResult.isMatches()) {
-      for (AliasNode nameAliasNode : matchResult.getAliases()) {
-        nameAliasNode.executeGeneric(frame);
-      }
+      matchResult.bind(frame);
       return valueExpression.executeGeneric(frame);
     } else {
-      throw MatchControlFlowException.INSTANCE;
+      return NO_MATCH;
     }
   }
 
+  @Override
+  public MatchNode getMatchExpression() {
+    return matchExpression;
+  }
+
   @Override
   public Object executeGeneric(VirtualFrame frame) {
     return null;
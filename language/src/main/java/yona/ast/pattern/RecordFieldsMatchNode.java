@@ -1,15 +1,16 @@
 package yona.ast.pattern;
 
+import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import yona.YonaException;
 import yona.YonaLanguage;
-import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
 import yona.runtime.*;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 import static com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -23,6 +24,11 @@ public final class RecordFieldsMatchNode extends MatchNode {
   @Children
   private final ExpressionNode[] moduleStack;  // FQNNode or AnyValueNode
 
+  @CompilationFinal
+  private RecordType record;
+  @CompilationFinal
+  private Symbol recordTypeSymbol;
+
   public RecordFieldsMatchNode(String recordType, RecordPatternFieldNode[] fieldMatchNodes, ExpressionNode[] moduleStack) {
     this.recordType = recordType;
     this.fieldMatchNodes = fieldMatchNodes;
@@ -65,45 +71,28 @@ public final class RecordFieldsMatchNode extends MatchNode {
     if (value instanceof Tuple) {
       Tuple tuple = (Tuple) value;
 
-      String[] recordFields = null;
-      if (moduleStack.length > 0) {
-        for (int i = moduleStack.length - 1; i >= 0; i--) {
-          try {
-            YonaModule module = moduleStack[i].executeModule(frame);
-            if (module.getRecords().contains(recordType)) {
-              recordFields = (String[]) module.getRecords().lookup(recordType);
-            }
-          } catch (UnexpectedResultException e) {
-            continue;
-          } catch (YonaException e) {  // IO error
-            continue;
-          }
-        }
+      if (record == null) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        resolveRecordType(frame);
       }
 
-      if (recordFields != null) {
-        Context context = lookupContextReference(YonaLanguage.class).get();
-        Symbol recordTypeSymbol = context.symbol(recordType);
-
-        if (tuple.get(0) instanceof Symbol && recordTypeSymbol.equals((tuple.get(0))) && recordFields.length + 1 == tuple.length()) {
-          Seq aliases = Seq.EMPTY;
+      if (record != null) {
+        if (tuple.get(0) instanceof Symbol && recordTypeSymbol.equals((tuple.get(0))) && record.length() == tuple.length()) {
+          MatchResult bindings = MatchResult.TRUE;
 
           boolean matched = false;
           for (RecordPatternFieldNode fieldMatchNode : fieldMatchNodes) {
-            MatchResult matchResult = fieldMatchNode.match(new Object[]{tuple, recordFields}, frame);
+            MatchResult matchResult = fieldMatchNode.match(new Object[]{tuple, record}, frame);
             if (!matchResult.isMatches()) {
               continue;
             } else {
               matched = true;
-              aliases = Seq.catenate(aliases, Seq.sequence((Object[]) matchResult.getAliases()));
+              bindings = bindings.and(matchResult);
             }
           }
 
           if (matched) {
-            aliases.foldLeft(null, (acc, alias) -> {
-              ((AliasNode) alias).executeGeneric(frame);
-              return null;
-            });
+            bindings.bind(frame);
 
             return MatchResult.TRUE;
           }
@@ -114,6 +103,38 @@ public final class RecordFieldsMatchNode extends MatchNode {
     return MatchResult.FALSE;
   }
 
+  /**
+   * Record types are defined in the enclosing modules, so they are looked up once
+   */
+  private void resolveRecordType(VirtualFrame frame) {
+    if (moduleStack.length > 0) {
+      for (int i = moduleStack.length - 1; i >= 0; i--) {
+        try {
+          YonaModule module = moduleStack[i].executeModule(frame);
+          if (module.getRecords().contains(recordType)) {
+            record = (RecordType) module.getRecords().lookup(recordType);
+          }
+        } catch (UnexpectedResultException e) {
+          continue;
+        } catch (YonaException e) {  // IO error
+          continue;
+        }
+      }
+    }
+
+    if (record != null) {
+      Context context = lookupContextReference(YonaLanguage.class).get();
+      recordTypeSymbol = context.symbol(recordType);
+    }
+  }
+
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    Context context = lookupContextReference(YonaLanguage.class).get();
+    constraints.add(new ShapeConstraint(path, Shape.tuple(-1)));
+    constraints.add(new ShapeConstraint(ShapeConstraint.elementPath(path, 0), Shape.literal(context.symbol(recordType))));
+  }
+
   @Override
   protected String[] providedIdentifiers() {
     return DependencyUtils.catenateProvidedIdentifiers(fieldMatchNodes);
@@ -161,15 +182,9 @@ public final class RecordFieldsMatchNode extends MatchNode {
     public MatchResult match(Object value, VirtualFrame frame) {
       Object[] inputValues = (Object[]) value;
       Tuple tuple = (Tuple) inputValues[0];
-      String[] recordFields = (String[]) inputValues[1];
+      RecordType record = (RecordType) inputValues[1];
 
-      int fieldPos = -1;
-      for (int i = 0; i < recordFields.length; i++) {
-        if (fieldName.equals(recordFields[i])) {
-          fieldPos = i + 1;
-          break;
-        }
-      }
+      int fieldPos = record.fieldPosition(fieldName);
 
       if (fieldPos != -1) {
         return fieldValue.match(tuple.get(fieldPos), frame);
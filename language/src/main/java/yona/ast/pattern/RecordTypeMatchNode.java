@@ -9,6 +9,7 @@ import yona.runtime.Tuple;
 import yona.runtime.YonaModule;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 import static com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -46,6 +47,11 @@ public final class RecordTypeMatchNode extends MatchNode {
         '}';
   }
 
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    constraints.add(new ShapeConstraint(path, Shape.tuple(-1)));
+  }
+
   @Override
   protected String[] requiredIdentifiers() {
     return new String[0];
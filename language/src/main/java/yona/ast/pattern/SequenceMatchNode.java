@@ -3,11 +3,11 @@ package yona.ast.pattern;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import yona.ast.AliasNode;
 import yona.runtime.DependencyUtils;
 import yona.runtime.Seq;
 
 import java.util.Arrays;
+import java.util.List;
 
 @NodeInfo(shortName = "sequenceMatch")
 public final class SequenceMatchNode extends MatchNode {
@@ -49,7 +49,7 @@ public final class SequenceMatchNode extends MatchNode {
       Seq sequence = (Seq) value;
 
       if (sequence.length() == matchNodes.length) {
-        Seq aliases = Seq.EMPTY;
+        MatchResult bindings = MatchResult.TRUE;
 
         for (int i = 0; i < matchNodes.length; i++) {
           MatchNode matchNode = matchNodes[i];
@@ -58,14 +58,11 @@ public final class SequenceMatchNode extends MatchNode {
           if (!matchResult.isMatches()) {
             return MatchResult.FALSE;
           } else {
-            aliases = Seq.catenate(aliases, Seq.sequence((Object[]) matchResult.getAliases()));
+            bindings = bindings.and(matchResult);
           }
         }
 
-        aliases.foldLeft(null, (acc, alias) -> {
-          ((AliasNode) alias).executeGeneric(frame);
-          return null;
-        });
+        bindings.bind(frame);
 
         return MatchResult.TRUE;
       }
@@ -74,6 +71,11 @@ public final class SequenceMatchNode extends MatchNode {
     return MatchResult.FALSE;
   }
 
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    constraints.add(new ShapeConstraint(path, Shape.sequence(matchNodes.length)));
+  }
+
   @Override
   protected String[] providedIdentifiers() {
     return DependencyUtils.catenateProvidedIdentifiers(matchNodes);
@@ -0,0 +1,238 @@
+package yona.ast.pattern;
+
+import yona.runtime.Dict;
+import yona.runtime.Seq;
+import yona.runtime.Tuple;
+
+import java.util.Objects;
+
+/**
+ * Shape a value must have for a pattern to match, such as the arity of a tuple or the value of a literal. Shapes are
+ * necessary, not sufficient, conditions of a match, {@link DispatchNode} uses them to skip the clauses of a case
+ * expression which cannot match a value, without trying them.
+ */
+public abstract class Shape {
+  public static Shape literal(Object value) {
+    return new Literal(value);
+  }
+
+  /**
+   * @param arity number of elements, or -1 for a tuple of any arity
+   */
+  public static Shape tuple(int arity) {
+    return new TupleShape(arity);
+  }
+
+  public static Shape sequence(int length) {
+    return new SequenceShape(length, true);
+  }
+
+  public static Shape sequenceOfAtLeast(int length) {
+    return new SequenceShape(length, false);
+  }
+
+  public static Shape dict() {
+    return DictShape.INSTANCE;
+  }
+
+  public abstract boolean accepts(Object value);
+
+  /**
+   * @return whether there may be a value which both shapes accept
+   */
+  public abstract boolean compatibleWith(Shape other);
+
+  /**
+   * @return whether every value this shape accepts is accepted by the other shape too
+   */
+  public boolean implies(Shape other) {
+    return equals(other);
+  }
+
+  static final class Literal extends Shape {
+    final Object value;
+
+    Literal(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+      return Objects.equals(value, this.value);
+    }
+
+    @Override
+    public boolean compatibleWith(Shape other) {
+      return other.accepts(value);
+    }
+
+    @Override
+    public boolean implies(Shape other) {
+      return other.accepts(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Literal literal = (Literal) o;
+      return Objects.equals(value, literal.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(value);
+    }
+
+    @Override
+    public String toString() {
+      return "Literal{" +
+          "value=" + value +
+          '}';
+    }
+  }
+
+  static final class TupleShape extends Shape {
+    final int arity;
+
+    TupleShape(int arity) {
+      this.arity = arity;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+      return value instanceof Tuple && (arity < 0 || ((Tuple) value).size() == arity);
+    }
+
+    @Override
+    public boolean compatibleWith(Shape other) {
+      if (other instanceof TupleShape) {
+        int otherArity = ((TupleShape) other).arity;
+        return arity < 0 || otherArity < 0 || arity == otherArity;
+      } else {
+        return other instanceof Literal && other.compatibleWith(this);
+      }
+    }
+
+    @Override
+    public boolean implies(Shape other) {
+      return other instanceof TupleShape && (((TupleShape) other).arity < 0 || ((TupleShape) other).arity == arity);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      TupleShape that = (TupleShape) o;
+      return arity == that.arity;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(arity);
+    }
+
+    @Override
+    public String toString() {
+      return "TupleShape{" +
+          "arity=" + arity +
+          '}';
+    }
+  }
+
+  static final class SequenceShape extends Shape {
+    final int length;
+    final boolean exact;
+
+    SequenceShape(int length, boolean exact) {
+      this.length = length;
+      this.exact = exact;
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+      if (value instanceof Seq) {
+        long valueLength = ((Seq) value).length();
+        return exact ? valueLength == length : valueLength >= length;
+      } else {
+        return false;
+      }
+    }
+
+    @Override
+    public boolean compatibleWith(Shape other) {
+      if (other instanceof SequenceShape) {
+        SequenceShape that = (SequenceShape) other;
+        if (exact && that.exact) {
+          return length == that.length;
+        } else if (exact) {
+          return length >= that.length;
+        } else if (that.exact) {
+          return that.length >= length;
+        } else {
+          return true;
+        }
+      } else {
+        return other instanceof Literal && other.compatibleWith(this);
+      }
+    }
+
+    @Override
+    public boolean implies(Shape other) {
+      if (other instanceof SequenceShape) {
+        SequenceShape that = (SequenceShape) other;
+        if (that.exact) {
+          return exact && length == that.length;
+        } else {
+          return length >= that.length;
+        }
+      } else {
+        return false;
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      SequenceShape that = (SequenceShape) o;
+      return length == that.length &&
+          exact == that.exact;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(length, exact);
+    }
+
+    @Override
+    public String toString() {
+      return "SequenceShape{" +
+          "length=" + length +
+          ", exact=" + exact +
+          '}';
+    }
+  }
+
+  static final class DictShape extends Shape {
+    static final DictShape INSTANCE = new DictShape();
+
+    private DictShape() {
+    }
+
+    @Override
+    public boolean accepts(Object value) {
+      return value instanceof Dict;
+    }
+
+    @Override
+    public boolean compatibleWith(Shape other) {
+      return other instanceof DictShape || (other instanceof Literal && other.compatibleWith(this));
+    }
+
+    @Override
+    public String toString() {
+      return "DictShape{}";
+    }
+  }
+}
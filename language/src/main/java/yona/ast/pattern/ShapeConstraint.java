@@ -0,0 +1,71 @@
+package yona.ast.pattern;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import yona.runtime.Tuple;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link Shape} required of the value at a path, the path being the indexes of elements of nested tuples.
+ */
+public final class ShapeConstraint {
+  @CompilationFinal(dimensions = 1)
+  final int[] path;
+  final Shape shape;
+
+  public ShapeConstraint(int[] path, Shape shape) {
+    this.path = path;
+    this.shape = shape;
+  }
+
+  /**
+   * @return path of the i-th element of the tuple at the given path
+   */
+  public static int[] elementPath(int[] path, int i) {
+    int[] elementPath = Arrays.copyOf(path, path.length + 1);
+    elementPath[path.length] = i;
+    return elementPath;
+  }
+
+  @ExplodeLoop
+  boolean test(Object value) {
+    for (int index : path) {
+      if (value instanceof Tuple && ((Tuple) value).size() > index) {
+        value = ((Tuple) value).get(index);
+      } else {
+        return false;
+      }
+    }
+    return shape.accepts(value);
+  }
+
+  boolean samePath(ShapeConstraint other) {
+    return Arrays.equals(path, other.path);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ShapeConstraint that = (ShapeConstraint) o;
+    return Arrays.equals(path, that.path) &&
+        Objects.equals(shape, that.shape);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = Objects.hash(shape);
+    result = 31 * result + Arrays.hashCode(path);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "ShapeConstraint{" +
+        "path=" + Arrays.toString(path) +
+        ", shape=" + shape +
+        '}';
+  }
+}
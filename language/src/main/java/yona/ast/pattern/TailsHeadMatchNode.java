@@ -1,17 +1,17 @@
 package yona.ast.pattern;
 
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
-import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
 import yona.ast.expression.IdentifierNode;
-import yona.ast.expression.NameAliasNode;
-import yona.ast.expression.value.AnyValueNode;
 import yona.ast.expression.value.EmptySequenceNode;
+import yona.ast.local.BindLocalVariableNode;
 import yona.runtime.DependencyUtils;
 import yona.runtime.Seq;
 
+import java.util.List;
 import java.util.Objects;
 
 @NodeInfo(shortName = "tailsHeadMatch")
@@ -20,10 +20,15 @@ public final class TailsHeadMatchNode extends MatchNode {
   public MatchNode[] headNodes;
   @Child
   public ExpressionNode tailsNode;
+  @Child
+  private BindLocalVariableNode tailsBinding;
 
   public TailsHeadMatchNode(ExpressionNode tailsNode, MatchNode[] headNodes) {
     this.headNodes = headNodes;
     this.tailsNode = tailsNode;
+    if (tailsNode instanceof IdentifierNode) {
+      this.tailsBinding = new BindLocalVariableNode(((IdentifierNode) tailsNode).name());
+    }
   }
 
   @Override
@@ -53,23 +58,27 @@ public final class TailsHeadMatchNode extends MatchNode {
     return new String[0];
   }
 
+  /**
+   * Heads are matched by their index, the tails are split off the sequence only once all of them match.
+   */
   @Override
+  @ExplodeLoop
   public MatchResult match(Object value, VirtualFrame frame) {
     if (value instanceof Seq) {
       Seq sequence = (Seq) value;
-      Seq aliases = Seq.EMPTY;
+      MatchResult bindings = MatchResult.TRUE;
+      long length = sequence.length();
 
-      if (headNodes.length > sequence.length()) {
+      if (headNodes.length > length) {
         return MatchResult.FALSE;
       }
 
-      if (sequence.length() > 0) {
+      if (length > 0) {
+        long tailsLength = length - headNodes.length;
         for (int i = headNodes.length - 1; i >= 0; i--) {
-          MatchNode headNode = headNodes[i];
-          MatchResult headMatches = headNode.match(sequence.last(this), frame);
+          MatchResult headMatches = headNodes[i].match(sequence.lookup(tailsLength + i, this), frame);
           if (headMatches.isMatches()) {
-            aliases = Seq.catenate(aliases, Seq.sequence((Object[]) headMatches.getAliases()));
-            sequence = sequence.removeLast(this);
+            bindings = bindings.and(headMatches);
           } else {
             return MatchResult.FALSE;
           }
@@ -87,14 +96,14 @@ public final class TailsHeadMatchNode extends MatchNode {
               return MatchResult.FALSE;
             }
 
-            if (!Objects.equals(identifierValue, sequence)) {
+            if (!Objects.equals(identifierValue, tails(sequence, tailsLength))) {
               return MatchResult.FALSE;
             }
           } else {
-            aliases = aliases.insertLast(new NameAliasNode(identifierNode.name(), new AnyValueNode(sequence)));
+            bindings = bindings.and(MatchResult.binding(tailsBinding, tails(sequence, tailsLength)));
           }
         } else if (tailsNode instanceof EmptySequenceNode) {
-          if (sequence.length() > 0) {
+          if (tailsLength > 0) {
             return MatchResult.FALSE;
           }
         } else if (tailsNode instanceof UnderscoreMatchNode) {
@@ -107,15 +116,12 @@ public final class TailsHeadMatchNode extends MatchNode {
             return MatchResult.FALSE;
           }
 
-          if (!Objects.equals(sequenceValue, sequence)) {
+          if (sequenceValue.length() != tailsLength || !Objects.equals(sequenceValue, tails(sequence, tailsLength))) {
             return MatchResult.FALSE;
           }
         }
 
-        aliases.foldLeft(null, (acc, alias) -> {
-          ((AliasNode) alias).executeGeneric(frame);
-          return null;
-        });
+        bindings.bind(frame);
 
         return MatchResult.TRUE;
       }
@@ -124,6 +130,21 @@ public final class TailsHeadMatchNode extends MatchNode {
     return MatchResult.FALSE;
   }
 
+  private Seq tails(Seq sequence, long tailsLength) {
+    if (tailsLength == 0) {
+      return Seq.EMPTY;
+    } else if (headNodes.length == 0) {
+      return sequence;
+    } else {
+      return sequence.take(tailsLength, this);
+    }
+  }
+
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    constraints.add(new ShapeConstraint(path, Shape.sequenceOfAtLeast(Math.max(headNodes.length, 1))));
+  }
+
   @Override
   protected String[] providedIdentifiers() {
     return DependencyUtils.catenateProvidedIdentifiers(tailsNode.getRequiredIdentifiers(), headNodes);
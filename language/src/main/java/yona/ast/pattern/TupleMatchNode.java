@@ -4,13 +4,12 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
 import yona.runtime.DependencyUtils;
-import yona.runtime.Seq;
 import yona.runtime.Tuple;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 @NodeInfo(shortName = "tupleMatch")
@@ -53,7 +52,7 @@ public final class TupleMatchNode extends MatchNode {
       Tuple tuple = (Tuple) value;
 
       if (tuple.size() == expressions.length) {
-        Seq aliases = Seq.EMPTY;
+        MatchResult bindings = MatchResult.TRUE;
 
         for (int i = 0; i < expressions.length; i++) {
           if (expressions[i] instanceof MatchNode) {
@@ -63,7 +62,7 @@ public final class TupleMatchNode extends MatchNode {
             if (!nestedMatchResult.isMatches()) {
               return MatchResult.FALSE;
             } else {
-              aliases = Seq.catenate(aliases, Seq.sequence((Object[]) nestedMatchResult.getAliases()));
+              bindings = bindings.and(nestedMatchResult);
             }
           } else {
             Object exprVal = expressions[i].executeGeneric(frame);
@@ -74,10 +73,7 @@ public final class TupleMatchNode extends MatchNode {
           }
         }
 
-        aliases.foldLeft(null, (acc, alias) -> {
-          ((AliasNode) alias).executeGeneric(frame);
-          return null;
-        });
+        bindings.bind(frame);
 
         return MatchResult.TRUE;
       }
@@ -86,6 +82,16 @@ public final class TupleMatchNode extends MatchNode {
     return MatchResult.FALSE;
   }
 
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    constraints.add(new ShapeConstraint(path, Shape.tuple(expressions.length)));
+    for (int i = 0; i < expressions.length; i++) {
+      if (expressions[i] instanceof MatchNode) {
+        ((MatchNode) expressions[i]).collectShapes(ShapeConstraint.elementPath(path, i), constraints, frame);
+      }
+    }
+  }
+
   @Override
   @ExplodeLoop
   protected String[] providedIdentifiers() {
@@ -2,24 +2,31 @@ package yona.ast.pattern;
 
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.NodeInfo;
-import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
-import yona.ast.expression.FrameSlotAliasNode;
 import yona.ast.expression.IdentifierNode;
-import yona.ast.expression.NameAliasNode;
-import yona.ast.expression.value.AnyValueNode;
+import yona.ast.expression.value.FQNNode;
+import yona.ast.expression.value.LiteralValueNode;
+import yona.ast.local.BindLocalVariableNode;
 import yona.ast.local.ReadLocalVariableNode;
 import yona.runtime.exceptions.UninitializedFrameSlotException;
 
+import java.util.List;
 import java.util.Objects;
 
 @NodeInfo(shortName = "valueMatch")
 public final class ValueMatchNode extends MatchNode {
   @Child
   private ExpressionNode expression;
+  @Child
+  private BindLocalVariableNode binding;
 
   public ValueMatchNode(ExpressionNode expression) {
     this.expression = expression;
+    if (expression instanceof IdentifierNode) {
+      this.binding = new BindLocalVariableNode(((IdentifierNode) expression).name());
+    } else if (expression instanceof ReadLocalVariableNode) {
+      this.binding = new BindLocalVariableNode((String) ((ReadLocalVariableNode) expression).getSlot().getIdentifier());
+    }
   }
 
   @Override
@@ -56,7 +63,7 @@ public final class ValueMatchNode extends MatchNode {
           return MatchResult.TRUE;
         }
       } else {
-        return new MatchResult(true, new AliasNode[]{new NameAliasNode(identifierNode.name(), new AnyValueNode(value))});
+        return MatchResult.binding(binding, value);
       }
     } else if (expression instanceof ReadLocalVariableNode) {
       ReadLocalVariableNode readLocalVariableNode = (ReadLocalVariableNode) expression;
@@ -75,7 +82,7 @@ public final class ValueMatchNode extends MatchNode {
           return MatchResult.TRUE;
         }
       } else {
-        return new MatchResult(true, new AliasNode[]{new FrameSlotAliasNode(readLocalVariableNode.getSlot(), new AnyValueNode(value))});
+        return MatchResult.binding(binding, value);
       }
     } else {
       Object exprValue = expression.executeGeneric(frame);
@@ -88,6 +95,13 @@ public final class ValueMatchNode extends MatchNode {
     return expression.getRequiredIdentifiers();
   }
 
+  @Override
+  public void collectShapes(int[] path, List<ShapeConstraint> constraints, VirtualFrame frame) {
+    if (expression instanceof LiteralValueNode && !(expression instanceof FQNNode)) {
+      constraints.add(new ShapeConstraint(path, Shape.literal(expression.executeGeneric(frame))));
+    }
+  }
+
   public ExpressionNode getExpression() {
     return expression;
   }
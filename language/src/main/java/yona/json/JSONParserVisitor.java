@@ -25,11 +25,11 @@ public class JSONParserVisitor extends JSONBaseVisitor<Object> {
 
   @Override
   public Seq visitArr(JSONParser.ArrContext ctx) {
-    Seq seq = Seq.EMPTY;
+    Seq.SeqBuilder builder = new Seq.SeqBuilder();
     for (ParserRuleContext innerContext : ctx.value()) {
-      seq = seq.insertLast(visit(innerContext));
+      builder.add(visit(innerContext));
     }
-    return seq;
+    return builder.build();
   }
 
   @Override
@@ -19,6 +19,7 @@ import yona.ast.local.ReadArgumentNode;
 import yona.ast.pattern.*;
 import yona.runtime.Context;
 import yona.runtime.Dict;
+import yona.runtime.RecordType;
 
 import java.util.*;
 import java.util.function.BiFunction;
@@ -491,7 +492,8 @@ public final class ParserVisitor extends YonaParserBaseVisitor<ExpressionNode> {
         fields[j] = recordContext.identifier(j).getText();
       }
 
-      records = records.add(recordContext.UPPERCASE_NAME().getText(), fields);
+      String recordName = recordContext.UPPERCASE_NAME().getText();
+      records = records.add(recordName, new RecordType(recordName, fields));
     }
 
     for (int i = 0; i < functionPatternsCount; i++) {
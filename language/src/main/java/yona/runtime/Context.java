@@ -22,13 +22,16 @@ import yona.ast.controlflow.YonaBlockNode;
 import yona.ast.expression.SimpleIdentifierNode;
 import yona.ast.expression.value.AnyValueNode;
 import yona.ast.local.ReadArgumentNode;
+import yona.ast.local.ReadCapturedValueNode;
 import yona.ast.local.WriteLocalVariableNode;
 import yona.ast.local.WriteLocalVariableNodeGen;
 import yona.runtime.annotations.ExceptionSymbol;
 import yona.runtime.stdlib.BuiltinModules;
 import yona.runtime.stdlib.Builtins;
 import yona.runtime.stdlib.ExportedFunction;
+import yona.runtime.threading.BlockingExecutor;
 import yona.runtime.threading.Threading;
+import yona.runtime.threading.TimerWheel;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -41,6 +44,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -64,16 +69,19 @@ public final class Context {
   public final Builtins builtins;
   public final BuiltinModules builtinModules;
   private Dict symbols = Dict.empty(Murmur3.INSTANCE, 0L);
-  private Dict moduleCache = Dict.empty(Murmur3.INSTANCE, 0L);
+  private final Globals moduleCache = new Globals();
   public final Threading threading;
   public ExecutorService ioExecutor;
-  public Dict globals = Dict.empty(Murmur3.INSTANCE, 0L);
+  public BlockingExecutor blockingExecutor;
+  public TimerWheel timerWheel;
+  public final Globals globals = new Globals();
   public final FrameDescriptor globalFrameDescriptor;
   public final MaterializedFrame globalFrame;
   private final Path stdlibHome;
   private final Path languageHome;
   public static final ThreadLocal<Dict> LOCAL_CONTEXTS = ThreadLocal.withInitial(Dict::empty);
   private final boolean printAllResults;
+  private final Map<List<Object>, RootCallTarget> partialApplications = new ConcurrentHashMap<>();
 
   public Context(final YonaLanguage language, final TruffleLanguage.Env env, final Path languageHomePath, final Path stdlibHomePath) {
     this.env = env;
@@ -111,6 +119,9 @@ public final class Context {
 
 //    LOGGER.fine("Initializing threading");
     this.ioExecutor = Executors.newCachedThreadPool(runnable -> env.createThread(runnable, null, new ThreadGroup("yona-io")));
+    this.blockingExecutor = new BlockingExecutor(this, ioExecutor);
+    this.timerWheel = new TimerWheel(runnable -> env.createThread(runnable, null, new ThreadGroup("yona-timer")), ioExecutor);
+    timerWheel.initialize();
     threading.initialize();
 
     installBuiltins();
@@ -263,6 +274,10 @@ public final class Context {
     return env;
   }
 
+  public YonaLanguage getLanguage() {
+    return language;
+  }
+
   /**
    * Returns the default input. To allow unit
    * testing, we do not use {@link System#in} directly.
@@ -317,19 +332,30 @@ public final class Context {
 
   @CompilerDirectives.TruffleBoundary
   public void cacheModule(String FQN, YonaModule module) {
-    moduleCache = moduleCache.add(FQN, module);
+    moduleCache.define(FQN, module);
   }
 
   @CompilerDirectives.TruffleBoundary
   public YonaModule lookupModule(String[] packageParts, String moduleName, Node node) {
+    return (YonaModule) lookupModuleCell(packageParts, moduleName, node).getValue();
+  }
+
+  /**
+   * @return cell of the module, which is loaded if it is not cached yet
+   */
+  @CompilerDirectives.TruffleBoundary
+  public GlobalCell lookupModuleCell(String[] packageParts, String moduleName, Node node) {
     String FQN = getFQN(packageParts, moduleName);
-    Object module = moduleCache.lookup(FQN);
-    if (module == Unit.INSTANCE) {
-      module = loadModule(packageParts, moduleName, FQN, node);
-      moduleCache = moduleCache.add(FQN, module);
+    GlobalCell cell = moduleCache.cell(FQN);
+    if (cell == null) {
+      YonaModule module = loadModule(packageParts, moduleName, FQN, node);
+      cell = moduleCache.cell(FQN);
+      if (cell == null) {
+        cell = moduleCache.define(FQN, module);
+      }
     }
 
-    return (YonaModule) module;
+    return cell;
   }
 
   @CompilerDirectives.TruffleBoundary
@@ -400,7 +426,7 @@ public final class Context {
         throw new YonaException("Module file " + file.getPath().substring(Paths.get(".").toUri().toURL().getFile().length() - 2) + " has incorrectly defined module as " + module.getFqn(), node);
       }
       if (cache) {
-        moduleCache = this.moduleCache.add(FQN, module);
+        moduleCache.define(FQN, module);
       }
 
       return module;
@@ -424,7 +450,7 @@ public final class Context {
       }
 
       YonaModule module = new YonaModule(FQN, exports, functions, Dict.EMPTY);
-      moduleCache = this.moduleCache.add(FQN, module);
+      moduleCache.define(FQN, module);
       return module;
     } catch (ClassNotFoundException classNotFoundException) {
       return null;
@@ -461,19 +487,42 @@ public final class Context {
   }
 
   public void insertGlobal(String functionName, Function function) {
-    globals = globals.add(functionName, function);
+    globals.define(functionName, function);
   }
 
   public void insertGlobal(String fqn, YonaModule module) {
     Object existingObject = globals.lookup(fqn);
     if (Unit.INSTANCE == existingObject) {
-      globals = globals.add(fqn, module);
+      globals.define(fqn, module);
     } else {
       YonaModule existingModule = (YonaModule) existingObject;
-      globals = globals.add(fqn, existingModule.merge(module));
+      globals.define(fqn, existingModule.merge(module));
     }
   }
 
+  /**
+   * Call target of the partial applications of a function with the given number of arguments. A partial application is
+   * a {@link Function} capturing the applied function followed by the applied arguments, so it shares its call target
+   * with all partial applications of functions with the same call target and number of arguments.
+   */
+  @CompilerDirectives.TruffleBoundary
+  public RootCallTarget partialApplicationCallTarget(Function function, int appliedArgumentsCount) {
+    return partialApplications.computeIfAbsent(List.of(function.getCallTarget(), function.getCardinality(), appliedArgumentsCount), key -> {
+      String partiallyAppliedFunctionName = "$partial-" + appliedArgumentsCount + "/" + function.getCardinality() + "-" + function.getName();
+      ExpressionNode[] allArgumentNodes = new ExpressionNode[function.getCardinality()];
+      for (int i = 0; i < appliedArgumentsCount; i++) {
+        allArgumentNodes[i] = new ReadCapturedValueNode(i + 1);
+      }
+      for (int i = appliedArgumentsCount, j = 0; i < function.getCardinality(); i++, j++) {
+        allArgumentNodes[i] = new ReadArgumentNode(j);
+      }
+
+      InvokeNode invokeNode = new InvokeNode(language, new ReadCapturedValueNode(0), allArgumentNodes, new ExpressionNode[0]);
+      FunctionRootNode rootNode = new FunctionRootNode(language, new FrameDescriptor(UninitializedFrameSlot.INSTANCE), invokeNode, function.getDeclaredLocation(), null, partiallyAppliedFunctionName);
+      return Truffle.getRuntime().createCallTarget(rootNode);
+    });
+  }
+
   public Function lookupGlobalFunction(String fqn, String function) {
     if (fqn != null && globals.contains(fqn)) {
       YonaModule yonaModule = (YonaModule) globals.lookup(fqn);
@@ -488,6 +537,8 @@ public final class Context {
   public void dispose() {
 //    LOGGER.fine("Threading shutting down");
     threading.dispose();
+    timerWheel.dispose();
+    blockingExecutor.dispose();
     ioExecutor.shutdown();
     assert ioExecutor.shutdownNow().isEmpty();
     assert ioExecutor.isShutdown();
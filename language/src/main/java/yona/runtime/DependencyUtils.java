@@ -1,10 +1,14 @@
 package yona.runtime;
 
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public final class DependencyUtils {
   public static String[] catenateRequiredIdentifiersWith(ExpressionNode node1, ExpressionNode... nodes) {
@@ -42,4 +46,23 @@ public final class DependencyUtils {
   public static String[] catenateProvidedIdentifiers(String[] initialIdentifiers, AliasNode... nodes) {
     return ArrayUtils.catenate(initialIdentifiers, ArrayUtils.catenateMany(nodes, AliasNode::getProvidedIdentifiers));
   }
+
+  /**
+   * Identifiers used anywhere in the tree, including the bodies of lambdas, which may need them from the frame.
+   */
+  public static String[] collectRequiredIdentifiers(Node node) {
+    final Set<String> identifiers = new LinkedHashSet<>();
+    collectRequiredIdentifiers(node, identifiers);
+    return identifiers.toArray(new String[0]);
+  }
+
+  private static void collectRequiredIdentifiers(Node node, Set<String> identifiers) {
+    if (node instanceof ExpressionNode) {
+      Collections.addAll(identifiers, ((ExpressionNode) node).getRequiredIdentifiers());
+    }
+    NodeUtil.forEachChild(node, child -> {
+      collectRequiredIdentifiers(child, identifiers);
+      return true;
+    });
+  }
 }
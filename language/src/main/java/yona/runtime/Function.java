@@ -3,6 +3,7 @@ package yona.runtime;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.library.ExportLibrary;
@@ -11,6 +12,8 @@ import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.IndirectCallNode;
 import com.oracle.truffle.api.source.SourceSection;
 
+import java.util.Arrays;
+
 /**
  * Represents a Yona function. On the Truffle level, a callable element is represented by a
  * {@link RootCallTarget call target}. This class encapsulates a call target, and adds version
@@ -37,12 +40,29 @@ public final class Function implements TruffleObject {
 
   private boolean unwrapArgumentPromises;
 
+  /**
+   * Values of the identifiers a closure captured when it was created, see {@link yona.ast.ClosureRootNode}, or null for
+   * functions which are not closures.
+   */
+  private final Object[] capturedValues;
+
+  /**
+   * Frame the closure was created in, kept only if some of its identifiers were not bound yet at that time.
+   */
+  private final MaterializedFrame lexicalScope;
+
   public Function(String moduleFQN, String name, RootCallTarget callTarget, int cardinality, boolean unwrapArgumentPromises) {
+    this(moduleFQN, name, callTarget, cardinality, unwrapArgumentPromises, null, null);
+  }
+
+  public Function(String moduleFQN, String name, RootCallTarget callTarget, int cardinality, boolean unwrapArgumentPromises, Object[] capturedValues, MaterializedFrame lexicalScope) {
     this.moduleFQN = moduleFQN;
     this.name = name;
     this.callTarget = callTarget;
     this.cardinality = cardinality;
     this.unwrapArgumentPromises = unwrapArgumentPromises;
+    this.capturedValues = capturedValues;
+    this.lexicalScope = lexicalScope;
   }
 
   public String getModuleFQN() {
@@ -82,6 +102,26 @@ public final class Function implements TruffleObject {
     return unwrapArgumentPromises;
   }
 
+  public Object[] getCapturedValues() {
+    return capturedValues;
+  }
+
+  public MaterializedFrame getLexicalScope() {
+    return lexicalScope;
+  }
+
+  /**
+   * Arguments for the call target, a closure receives itself as an extra last argument, to read its captured values.
+   */
+  public Object[] callArguments(Object[] arguments) {
+    if (capturedValues == null) {
+      return arguments;
+    }
+    final Object[] callArguments = Arrays.copyOf(arguments, arguments.length + 1);
+    callArguments[arguments.length] = this;
+    return callArguments;
+  }
+
   /**
    * {@link Function} instances are always visible as executable to other languages.
    */
@@ -135,7 +175,7 @@ public final class Function implements TruffleObject {
                                      @Cached("create(cachedTarget)") DirectCallNode callNode) {
 
       /* Inline cache hit, we are safe to execute the cached call target. */
-      return callNode.call(arguments);
+      return callNode.call(function.callArguments(arguments));
     }
 
     /**
@@ -150,7 +190,7 @@ public final class Function implements TruffleObject {
        * SL has a quite simple call lookup: just ask the function for the current call target,
        * and call it.
        */
-      return callNode.call(function.getCallTarget(), arguments);
+      return callNode.call(function.getCallTarget(), function.callArguments(arguments));
     }
   }
 }
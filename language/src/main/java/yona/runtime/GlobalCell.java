@@ -0,0 +1,52 @@
+package yona.runtime;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
+
+/**
+ * Holds the value of a global name. Nodes reading the cell keep its value as a constant for as long as its assumption
+ * holds, a new value invalidates the assumption, so only the code which read the previous value is deoptimized.
+ */
+public final class GlobalCell {
+  private final String name;
+  private volatile Object value;
+  private volatile Assumption unchanged;
+
+  GlobalCell(String name, Object value) {
+    this.name = name;
+    this.value = value;
+    this.unchanged = Truffle.getRuntime().createAssumption("global " + name + " unchanged");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  /**
+   * @return assumption which holds until the value of this cell changes
+   */
+  public Assumption getAssumption() {
+    return unchanged;
+  }
+
+  @CompilerDirectives.TruffleBoundary
+  synchronized void setValue(Object value) {
+    Assumption previous = unchanged;
+    this.value = value;
+    this.unchanged = Truffle.getRuntime().createAssumption("global " + name + " unchanged");
+    previous.invalidate();
+  }
+
+  @Override
+  public String toString() {
+    return "GlobalCell{" +
+        "name='" + name + '\'' +
+        ", value=" + value +
+        '}';
+  }
+}
@@ -0,0 +1,62 @@
+package yona.runtime;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import yona.common.TriFunction;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of {@link GlobalCell}s by name. A cell is never removed, so nodes may keep the cell of a name once it is
+ * defined and read its value through it.
+ */
+public final class Globals {
+  private final Map<String, GlobalCell> cells = new ConcurrentHashMap<>();
+
+  /**
+   * @return cell of the name, or null if the name is not defined
+   */
+  @CompilerDirectives.TruffleBoundary
+  public GlobalCell cell(String name) {
+    return cells.get(name);
+  }
+
+  /**
+   * @return value of the name, or {@link Unit#INSTANCE} if the name is not defined
+   */
+  @CompilerDirectives.TruffleBoundary
+  public Object lookup(String name) {
+    GlobalCell cell = cells.get(name);
+    return cell == null ? Unit.INSTANCE : cell.getValue();
+  }
+
+  @CompilerDirectives.TruffleBoundary
+  public boolean contains(String name) {
+    return cells.containsKey(name);
+  }
+
+  /**
+   * Defines the name, or replaces its value if it is defined already.
+   *
+   * @return cell of the name
+   */
+  @CompilerDirectives.TruffleBoundary
+  public GlobalCell define(String name, Object value) {
+    GlobalCell cell = cells.putIfAbsent(name, new GlobalCell(name, value));
+    if (cell == null) {
+      return cells.get(name);
+    } else {
+      cell.setValue(value);
+      return cell;
+    }
+  }
+
+  @CompilerDirectives.TruffleBoundary
+  public <T> T fold(T initial, TriFunction<T, String, Object, T> function) {
+    T acc = initial;
+    for (GlobalCell cell : cells.values()) {
+      acc = function.apply(acc, cell.getName(), cell.getValue());
+    }
+    return acc;
+  }
+}
@@ -0,0 +1,71 @@
+package yona.runtime;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Definition of a record type. Record instances are tuples with the symbol of the type first, followed by the values
+ * of the fields in the order of their definition, so the position of a field in the tuple is computed once, here.
+ */
+public final class RecordType {
+  private final String name;
+  @CompilationFinal(dimensions = 1)
+  private final String[] fields;
+  private final Map<String, Integer> positions = new HashMap<>();
+
+  public RecordType(String name, String[] fields) {
+    this.name = name;
+    this.fields = fields;
+    for (int i = 0; i < fields.length; i++) {
+      positions.put(fields[i], i + 1);
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String[] getFields() {
+    return fields;
+  }
+
+  /**
+   * @return length of the tuples of this record type
+   */
+  public int length() {
+    return fields.length + 1;
+  }
+
+  /**
+   * @return position of the field in the tuples of this record type, or -1 if there is no such field
+   */
+  public int fieldPosition(String fieldName) {
+    Integer position = positions.get(fieldName);
+    return position == null ? -1 : position;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    RecordType that = (RecordType) o;
+    return Objects.equals(name, that.name) &&
+        Arrays.equals(fields, that.fields);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = Objects.hash(name);
+    result = 31 * result + Arrays.hashCode(fields);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(fields);
+  }
+}
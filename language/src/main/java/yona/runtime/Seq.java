@@ -1,6 +1,5 @@
 package yona.runtime;
 
-import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.interop.*;
 import com.oracle.truffle.api.library.ExportLibrary;
@@ -13,6 +12,7 @@ import yona.runtime.exceptions.TransducerDoneException;
 import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -29,6 +29,7 @@ public final class Seq implements TruffleObject {
   static final int MASK = 0x3f;
   static final int MAX_NODE_LENGTH = 64;
   static final int MIN_NODE_LENGTH = 63;
+  static final int UTF8_INDEX_STRIDE = 8;
 
   public static final Seq EMPTY = new Seq(EMPTY_NODE, 0, EMPTY_NODE, 0L, EMPTY_NODE, 0, BITS);
 
@@ -78,10 +79,20 @@ public final class Seq implements TruffleObject {
   @ExportMessage
   @CompilerDirectives.TruffleBoundary
   public boolean isString() {
-    CompilerAsserts.compilationConstant(length());
-    for (long i = 0; i < length(); i++) {
-      if (!(lookup(i, null) instanceof Integer)) {
+    for (LeafCursor cursor = new LeafCursor(this); cursor.leaf != null; cursor.nextLeaf()) {
+      if (cursor.leaf instanceof byte[]) {
+        if (!decodeIsUtf8(((byte[]) cursor.leaf)[0])) {
+          return false;
+        }
+      } else if (cursor.leaf instanceof long[] || cursor.leaf instanceof double[]) {
         return false;
+      } else {
+        final Object[] values = (Object[]) cursor.leaf;
+        for (int i = 1; i < values.length; i++) {
+          if (!(values[i] instanceof Integer)) {
+            return false;
+          }
+        }
       }
     }
     return true;
@@ -99,24 +110,81 @@ public final class Seq implements TruffleObject {
 
   @CompilerDirectives.TruffleBoundary(allowInlining = true)
   public static Seq sequence(Object... values) {
-    Seq result = EMPTY;
+    final SeqBuilder builder = new SeqBuilder();
     for (Object value : values) {
-      result = result.insertLast(value);
+      builder.add(value);
     }
-    return result;
+    return builder.build();
   }
 
   @CompilerDirectives.TruffleBoundary
   public boolean contains(Object element, final Node caller) {
-    CompilerAsserts.compilationConstant(length());
-    for (long i = 0; i < length(); i++) {
-      if (element.equals(lookup(i, caller))) {
+    for (LeafCursor cursor = new LeafCursor(this); cursor.leaf != null; cursor.nextLeaf()) {
+      if (leafContains(cursor.leaf, element)) {
         return true;
       }
     }
     return false;
   }
 
+  static boolean leafContains(final Object leaf, final Object element) {
+    if (leaf instanceof byte[]) {
+      final byte[] bytes = (byte[]) leaf;
+      if (decodeIsUtf8(bytes[0])) {
+        if (element instanceof Integer) {
+          final int codePoint = (Integer) element;
+          final int len = decodeLength(bytes[0]);
+          int offset = 1;
+          for (int i = 0; i < len; i++) {
+            final int leafCodePoint = UnicodeUtils.utf8Decode(bytes, offset);
+            if (leafCodePoint == codePoint) {
+              return true;
+            }
+            offset += UnicodeUtils.utf8Length(leafCodePoint);
+          }
+        }
+      } else if (element instanceof Byte) {
+        final byte value = (Byte) element;
+        for (int i = 1; i < bytes.length; i++) {
+          if (bytes[i] == value) {
+            return true;
+          }
+        }
+      }
+      return false;
+    } else if (leaf instanceof long[]) {
+      if (element instanceof Long) {
+        final long value = (Long) element;
+        final long[] values = (long[]) leaf;
+        for (int i = 1; i < values.length; i++) {
+          if (values[i] == value) {
+            return true;
+          }
+        }
+      }
+      return false;
+    } else if (leaf instanceof double[]) {
+      if (element instanceof Double) {
+        final long bits = Double.doubleToLongBits((Double) element);
+        final double[] values = (double[]) leaf;
+        for (int i = 1; i < values.length; i++) {
+          if (Double.doubleToLongBits(values[i]) == bits) {
+            return true;
+          }
+        }
+      }
+      return false;
+    } else {
+      final Object[] values = (Object[]) leaf;
+      for (int i = 1; i < values.length; i++) {
+        if (element.equals(values[i])) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
   @CompilerDirectives.TruffleBoundary(allowInlining = true)
   public Object first(Node caller) {
     return lookup(0, caller);
@@ -189,10 +257,11 @@ public final class Seq implements TruffleObject {
     if (prefixSize != MAX_NODE_LENGTH) {
       return new Seq(leafInsertFirst(prefix, o), prefixSize + 1, root, rootSize, suffix, suffixSize, shift);
     }
-    Object[] newRoot = treeTryInsertFirst(root, prefix, shift);
+    final Object leaf = compactLeaf(prefix);
+    Object[] newRoot = treeTryInsertFirst(root, leaf, shift);
     int newShift = shift;
     if (newRoot == null) {
-      newRoot = newNonLeaf(wrap(prefix, 0, shift), root, shift);
+      newRoot = newNonLeaf(wrap(leaf, 0, shift), root, shift);
       newShift += BITS;
     }
     return new Seq(newLeaf(o), 1, newRoot, rootSize + prefixSize, suffix, suffixSize, newShift);
@@ -222,10 +291,11 @@ public final class Seq implements TruffleObject {
     if (suffixSize != MAX_NODE_LENGTH) {
       return new Seq(prefix, prefixSize, root, rootSize, leafInsertLast(suffix, o), suffixSize + 1, shift);
     }
-    Object[] newRoot = treeTryInsertLast(root, suffix, shift);
+    final Object leaf = compactLeaf(suffix);
+    Object[] newRoot = treeTryInsertLast(root, leaf, shift);
     int newShift = shift;
     if (newRoot == null) {
-      newRoot = newNonLeaf(root, wrap(suffix, 0, shift), shift);
+      newRoot = newNonLeaf(root, wrap(leaf, 0, shift), shift);
       newShift += BITS;
     }
     return new Seq(prefix, prefixSize, newRoot, rootSize + suffixSize, newLeaf(o), 1, newShift);
@@ -439,8 +509,8 @@ public final class Seq implements TruffleObject {
       Object[] leftParent = (Object[]) pt[0];
       Object[] rightParent = (Object[]) pt[2];
       final Object[] subPt = treeSplitAt(pt[1], idx, shift - BITS);
-      final Object leftChild = subPt[0];
-      final Object rightChild = subPt[2];
+      final Object leftChild = shift == BITS ? compactLeaf(subPt[0]) : subPt[0];
+      final Object rightChild = shift == BITS ? compactLeaf(subPt[2]) : subPt[2];
       if (nodeLength(leftChild) > 0) {
         leftParent = nonLeafInsertLast(leftParent, leftChild, shift - BITS);
       }
@@ -500,6 +570,23 @@ public final class Seq implements TruffleObject {
     return new Seq[]{(Seq) pt[0], ((Seq) pt[2]).insertFirst(pt[1])};
   }
 
+  /**
+   * Splits the sequence into consecutive chunks of the given length, the last one may be shorter.
+   */
+  @CompilerDirectives.TruffleBoundary
+  public Seq[] chunks(final long chunkLength, final Node caller) {
+    final int count = (int) Math.max(1, (length() + chunkLength - 1) / chunkLength);
+    final Seq[] result = new Seq[count];
+    Seq rest = this;
+    for (int i = 0; i < count - 1; i++) {
+      final Seq[] split = rest.split(chunkLength, caller);
+      result[i] = split[0];
+      rest = split[1];
+    }
+    result[count - 1] = rest;
+    return result;
+  }
+
   @CompilerDirectives.TruffleBoundary(allowInlining = true)
   public Seq take(final long n, final Node caller) {
     final Object[] pt = splitAt(n, caller);
@@ -750,7 +837,7 @@ public final class Seq implements TruffleObject {
     if (shift == 0) {
       if (node instanceof byte[]) {
         final byte[] bytes = (byte[]) node;
-        buffer.put(bytes, 1, bytes.length - 1);
+        buffer.put(bytes, 1, leafBytesEnd(bytes) - 1);
       } else {
         for (int i = 0; i < len; i++) {
           Object o = nodeLookup(node, i);
@@ -786,16 +873,56 @@ public final class Seq implements TruffleObject {
 
   long calculateMurmur3Hash(final long seed) {
     long hash = seed;
-    final long length = length();
-    for (int i = 0; i < length; i++) {
-      long k = Murmur3.INSTANCE.hash(seed, lookup(i, null));
-      k *= Murmur3.C1;
-      k = Long.rotateLeft(k, 31);
-      k *= Murmur3.C2;
-      hash ^= k;
-      hash = Long.rotateLeft(hash, 27) * 5 + 0x52dce729;
+    for (LeafCursor cursor = new LeafCursor(this); cursor.leaf != null; cursor.nextLeaf()) {
+      hash = leafMurmur3Hash(cursor.leaf, seed, hash);
+    }
+    return Murmur3.fMix64(hash ^ length());
+  }
+
+  /**
+   * Mixes the hashes of the elements of a leaf into the hash, the elements of byte leaves are hashed as the Integer or
+   * Byte values they decode to, so the hash does not depend on how the sequence is stored.
+   */
+  static long leafMurmur3Hash(final Object leaf, final long seed, long hash) {
+    if (leaf instanceof byte[]) {
+      final byte[] bytes = (byte[]) leaf;
+      if (decodeIsUtf8(bytes[0])) {
+        final int len = decodeLength(bytes[0]);
+        int offset = 1;
+        for (int i = 0; i < len; i++) {
+          final int codePoint = UnicodeUtils.utf8Decode(bytes, offset);
+          hash = murmur3Mix(hash, Murmur3.hashChar(seed, codePoint));
+          offset += UnicodeUtils.utf8Length(codePoint);
+        }
+      } else {
+        for (int i = 1; i < bytes.length; i++) {
+          hash = murmur3Mix(hash, Murmur3.hashByte(seed, bytes[i]));
+        }
+      }
+    } else if (leaf instanceof long[]) {
+      final long[] values = (long[]) leaf;
+      for (int i = 1; i < values.length; i++) {
+        hash = murmur3Mix(hash, Murmur3.hashInteger(seed, values[i]));
+      }
+    } else if (leaf instanceof double[]) {
+      final double[] values = (double[]) leaf;
+      for (int i = 1; i < values.length; i++) {
+        hash = murmur3Mix(hash, Murmur3.hashFloat(seed, values[i]));
+      }
+    } else {
+      final Object[] values = (Object[]) leaf;
+      for (int i = 1; i < values.length; i++) {
+        hash = murmur3Mix(hash, Murmur3.INSTANCE.hash(seed, values[i]));
+      }
     }
-    return Murmur3.fMix64(hash ^ length);
+    return hash;
+  }
+
+  static long murmur3Mix(final long hash, long k) {
+    k *= Murmur3.C1;
+    k = Long.rotateLeft(k, 31);
+    k *= Murmur3.C2;
+    return Long.rotateLeft(hash ^ k, 27) * 5 + 0x52dce729;
   }
 
   @Override
@@ -816,15 +943,197 @@ public final class Seq implements TruffleObject {
     if (this.length() != that.length()) {
       return false;
     }
-    final long length = length();
-    for (long i = 0; i < length; i++) {
-      if (!this.lookup(i, null).equals(that.lookup(i, null))) {
-        return false;
+    final LeafCursor left = new LeafCursor(this);
+    final LeafCursor right = new LeafCursor(that);
+    while (left.leaf != null) {
+      final int n = Math.min(left.remaining(), right.remaining());
+      if (left.sameKind(right)) {
+        if (!left.rangeEquals(right, n)) {
+          return false;
+        }
+      } else {
+        for (int i = 0; i < n; i++) {
+          if (!left.next().equals(right.next())) {
+            return false;
+          }
+        }
+      }
+      if (left.remaining() == 0) {
+        left.nextLeaf();
+      }
+      if (right.remaining() == 0) {
+        right.nextLeaf();
       }
     }
     return true;
   }
 
+  /**
+   * Visits the leaves of a sequence in order: the prefix, the leaves of the tree and the suffix, and the elements of the
+   * current leaf, decoding UTF-8 leaves from the offset of the previous element, rather than from their start.
+   */
+  static final class LeafCursor {
+    private static final int PREFIX = 0;
+    private static final int ROOT = 1;
+    private static final int SUFFIX = 2;
+    private static final int DONE = 3;
+
+    private final Seq seq;
+    private final Object[][] path;
+    private final int[] indices;
+    private int part = PREFIX;
+
+    /**
+     * Current leaf, null once all leaves were visited
+     */
+    Object leaf;
+    private int leafLength;
+    private int index;
+    private int offset;
+
+    LeafCursor(final Seq seq) {
+      this.seq = seq;
+      this.path = new Object[seq.shift / BITS][];
+      this.indices = new int[path.length];
+      if (seq.prefixSize != 0) {
+        setLeaf(seq.prefix);
+      } else {
+        nextLeaf();
+      }
+    }
+
+    void nextLeaf() {
+      if (part == PREFIX) {
+        part = ROOT;
+        if (seq.rootSize != 0) {
+          setLeaf(descend(seq.root, 0));
+          return;
+        }
+      } else if (part == ROOT) {
+        final Object treeLeaf = nextTreeLeaf();
+        if (treeLeaf != null) {
+          setLeaf(treeLeaf);
+          return;
+        }
+      }
+      if (part == ROOT) {
+        part = SUFFIX;
+        if (seq.suffixSize != 0) {
+          setLeaf(seq.suffix);
+          return;
+        }
+      }
+      part = DONE;
+      leaf = null;
+    }
+
+    private void setLeaf(final Object leaf) {
+      this.leaf = leaf;
+      this.leafLength = nodeLength(leaf);
+      this.index = 0;
+      this.offset = 1;
+    }
+
+    private Object descend(Object node, int level) {
+      while (level < path.length) {
+        path[level] = (Object[]) node;
+        indices[level] = 0;
+        node = nodeLookup(node, 0);
+        level++;
+      }
+      return node;
+    }
+
+    private Object nextTreeLeaf() {
+      for (int level = path.length - 1; level >= 0; level--) {
+        if (++indices[level] < nodeLength(path[level])) {
+          return descend(nodeLookup(path[level], indices[level]), level + 1);
+        }
+      }
+      return null;
+    }
+
+    int remaining() {
+      return leafLength - index;
+    }
+
+    /**
+     * @return next element of the current leaf
+     */
+    Object next() {
+      if (leaf instanceof byte[]) {
+        final byte[] bytes = (byte[]) leaf;
+        if (decodeIsUtf8(bytes[0])) {
+          final int codePoint = UnicodeUtils.utf8Decode(bytes, offset);
+          offset += UnicodeUtils.utf8Length(codePoint);
+          index++;
+          return codePoint;
+        } else {
+          return bytes[1 + index++];
+        }
+      } else if (leaf instanceof long[]) {
+        return ((long[]) leaf)[1 + index++];
+      } else if (leaf instanceof double[]) {
+        return ((double[]) leaf)[1 + index++];
+      } else {
+        return ((Object[]) leaf)[1 + index++];
+      }
+    }
+
+    /**
+     * @return whether the current leaves of both cursors are byte leaves of the same kind, long[] or double[] leaves
+     */
+    boolean sameKind(final LeafCursor other) {
+      if (leaf instanceof byte[] && other.leaf instanceof byte[]) {
+        return decodeIsUtf8(((byte[]) leaf)[0]) == decodeIsUtf8(((byte[]) other.leaf)[0]);
+      } else {
+        return (leaf instanceof long[] && other.leaf instanceof long[]) || (leaf instanceof double[] && other.leaf instanceof double[]);
+      }
+    }
+
+    /**
+     * Compares the next n elements of two leaves of the same kind as ranges of their arrays. UTF-8 encodes equal code
+     * points to equal bytes, and doubles are compared by their bits like {@link Double#equals}, so the ranges are equal
+     * exactly when the elements are.
+     */
+    boolean rangeEquals(final LeafCursor other, final int n) {
+      if (leaf instanceof long[]) {
+        final boolean equal = Arrays.equals((long[]) leaf, 1 + index, 1 + index + n, (long[]) other.leaf, 1 + other.index, 1 + other.index + n);
+        index += n;
+        other.index += n;
+        return equal;
+      } else if (leaf instanceof double[]) {
+        final boolean equal = Arrays.equals((double[]) leaf, 1 + index, 1 + index + n, (double[]) other.leaf, 1 + other.index, 1 + other.index + n);
+        index += n;
+        other.index += n;
+        return equal;
+      }
+      final byte[] bytes = (byte[]) leaf;
+      final byte[] otherBytes = (byte[]) other.leaf;
+      final int from;
+      final int to;
+      final int otherFrom;
+      if (decodeIsUtf8(bytes[0])) {
+        from = offset;
+        to = UnicodeUtils.utf8Offset(bytes, offset, n);
+        otherFrom = other.offset;
+      } else {
+        from = 1 + index;
+        to = from + n;
+        otherFrom = 1 + other.index;
+      }
+      final int otherTo = otherFrom + to - from;
+      if (otherTo > leafBytesEnd(otherBytes) || !Arrays.equals(bytes, from, to, otherBytes, otherFrom, otherTo)) {
+        return false;
+      }
+      offset = to;
+      other.offset = otherTo;
+      index += n;
+      other.index += n;
+      return true;
+    }
+  }
+
   static Object wrap(final Object node, final int nodeShift, int desiredShift) {
     if (nodeShift == desiredShift) {
       return node;
@@ -839,8 +1148,11 @@ public final class Seq implements TruffleObject {
       final byte[] bytes = (byte[]) node;
       final Object[] result = new Object[nodeLength(node) + 1];
       if (decodeIsUtf8(bytes[0])) {
+        int offset = 1;
         for (int i = 1; i < result.length; i++) {
-          result[i] = UnicodeUtils.utf8Decode(bytes, UnicodeUtils.utf8Offset(bytes, 1, i - 1));
+          final int codePoint = UnicodeUtils.utf8Decode(bytes, offset);
+          result[i] = codePoint;
+          offset += UnicodeUtils.utf8Length(codePoint);
         }
       } else {
         for (int i = 1; i < result.length; i++) {
@@ -848,11 +1160,57 @@ public final class Seq implements TruffleObject {
         }
       }
       return result;
+    } else if (node instanceof long[]) {
+      final long[] values = (long[]) node;
+      final Object[] result = new Object[values.length];
+      for (int i = 1; i < result.length; i++) {
+        result[i] = values[i];
+      }
+      return result;
+    } else if (node instanceof double[]) {
+      final double[] values = (double[]) node;
+      final Object[] result = new Object[values.length];
+      for (int i = 1; i < result.length; i++) {
+        result[i] = values[i];
+      }
+      return result;
     } else {
       return (Object[]) node;
     }
   }
 
+  /**
+   * Leaves of the tree with only integers, or only floats, are stored unboxed, as a long[] or a double[] with the first
+   * slot unused, like in an Object[] leaf. Leaves are never modified, so a leaf with any other element stays an Object[].
+   */
+  static Object compactLeaf(final Object leaf) {
+    if (!(leaf instanceof Object[]) || Array.getLength(leaf) < 2) {
+      return leaf;
+    }
+    final Object[] values = (Object[]) leaf;
+    if (values[1] instanceof Long) {
+      final long[] result = new long[values.length];
+      for (int i = 1; i < values.length; i++) {
+        if (!(values[i] instanceof Long)) {
+          return leaf;
+        }
+        result[i] = (Long) values[i];
+      }
+      return result;
+    } else if (values[1] instanceof Double) {
+      final double[] result = new double[values.length];
+      for (int i = 1; i < values.length; i++) {
+        if (!(values[i] instanceof Double)) {
+          return leaf;
+        }
+        result[i] = (Double) values[i];
+      }
+      return result;
+    } else {
+      return leaf;
+    }
+  }
+
   static int nodeLength(final Object node) {
     return node instanceof byte[] ? decodeLength(((byte[]) node)[0]) : Array.getLength(node) - 1;
   }
@@ -890,10 +1248,14 @@ public final class Seq implements TruffleObject {
     if (node instanceof byte[]) {
       final byte[] bytes = (byte[]) node;
       if (decodeIsUtf8(bytes[0])) {
-        return UnicodeUtils.utf8Decode(bytes, UnicodeUtils.utf8Offset(bytes, 1, i));
+        return UnicodeUtils.utf8Decode(bytes, utf8LeafOffset(bytes, i));
       } else {
         return bytes[i + 1];
       }
+    } else if (node instanceof long[]) {
+      return ((long[]) node)[i + 1];
+    } else if (node instanceof double[]) {
+      return ((double[]) node)[i + 1];
     } else {
       return ((Object[]) node)[i + 1];
     }
@@ -977,7 +1339,8 @@ public final class Seq implements TruffleObject {
     } else {
       result[0] = ((Object[]) node)[0];
       for (int i = 0; i < len; i++) {
-        result[i + 1] = nodeMap(nodeLookup(node, i), shift - BITS, function, dispatch);
+        final Object[] child = nodeMap(nodeLookup(node, i), shift - BITS, function, dispatch);
+        result[i + 1] = shift == BITS ? compactLeaf(child) : child;
       }
     }
     return result;
@@ -993,7 +1356,8 @@ public final class Seq implements TruffleObject {
     } else {
       result[0] = ((Object[]) node)[0];
       for (int i = 0; i < len; i++) {
-        result[i + 1] = nodeMap(nodeLookup(node, i), shift - BITS, function);
+        final Object[] child = nodeMap(nodeLookup(node, i), shift - BITS, function);
+        result[i + 1] = shift == BITS ? compactLeaf(child) : child;
       }
     }
     return result;
@@ -1010,11 +1374,56 @@ public final class Seq implements TruffleObject {
   }
 
   static byte[] newLeaf(final Utf8Source source, final int n) {
-    final byte[] result = source.next(1, n);
-    result[0] = encode(n, true);
+    final byte[] bytes = source.next(1, n);
+    bytes[0] = encode(n, true);
+    if (bytes.length - 1 == n) {
+      return bytes;
+    }
+    final int indexLength = utf8IndexLength(n);
+    final byte[] result = Arrays.copyOf(bytes, bytes.length + indexLength);
+    int offset = 1;
+    for (int i = 1; i <= indexLength; i++) {
+      offset = UnicodeUtils.utf8Offset(bytes, offset, UTF8_INDEX_STRIDE);
+      result[bytes.length + i - 1] = (byte) offset;
+    }
     return result;
   }
 
+  /**
+   * UTF-8 leaves with only ASCII characters have a byte per code point, so code point i is at offset 1 + i. Other UTF-8
+   * leaves are followed by an index with the offset of every {@link #UTF8_INDEX_STRIDE}th code point, so finding a code
+   * point decodes at most {@code UTF8_INDEX_STRIDE - 1} others. Offsets are below 256, as a leaf has at most 64 code
+   * points of at most 4 bytes.
+   */
+  static int utf8LeafOffset(final byte[] bytes, final int i) {
+    final int len = decodeLength(bytes[0]);
+    if (bytes.length - 1 == len) {
+      return 1 + i;
+    }
+    final int checkpoint = i / UTF8_INDEX_STRIDE;
+    if (checkpoint == 0) {
+      return UnicodeUtils.utf8Offset(bytes, 1, i);
+    }
+    final int offset = bytes[bytes.length - utf8IndexLength(len) + checkpoint - 1] & 0xff;
+    return UnicodeUtils.utf8Offset(bytes, offset, i - checkpoint * UTF8_INDEX_STRIDE);
+  }
+
+  static int utf8IndexLength(final int len) {
+    return (len - 1) / UTF8_INDEX_STRIDE;
+  }
+
+  /**
+   * @return end of the elements of a byte leaf, the index of a UTF-8 leaf follows them
+   */
+  static int leafBytesEnd(final byte[] bytes) {
+    final int len = decodeLength(bytes[0]);
+    if (!decodeIsUtf8(bytes[0]) || bytes.length - 1 == len) {
+      return bytes.length;
+    } else {
+      return bytes.length - utf8IndexLength(len);
+    }
+  }
+
   static Object[] leafInsertFirst(final Object[] leaf, final Object value) {
     final Object[] result = new Object[leaf.length + 1];
     result[1] = value;
@@ -1409,40 +1818,40 @@ public final class Seq implements TruffleObject {
     Object[] leftRoot = left.root;
     int leftShift = left.shift;
     if (nodeLength(left.prefix) != 0) {
-      Object[] l = treeTryInsertFirst(leftRoot, left.prefix, leftShift);
+      Object[] l = treeTryInsertFirst(leftRoot, compactLeaf(left.prefix), leftShift);
       if (l != null) {
         leftRoot = l;
       } else {
-        leftRoot = newNonLeaf(wrap(left.prefix, 0, leftShift), leftRoot, leftShift);
+        leftRoot = newNonLeaf(wrap(compactLeaf(left.prefix), 0, leftShift), leftRoot, leftShift);
         leftShift += BITS;
       }
     }
     if (nodeLength(left.suffix) != 0) {
-      Object[] l = treeTryInsertLast(leftRoot, left.suffix, leftShift);
+      Object[] l = treeTryInsertLast(leftRoot, compactLeaf(left.suffix), leftShift);
       if (l != null) {
         leftRoot = l;
       } else {
-        leftRoot = newNonLeaf(leftRoot, wrap(left.suffix, 0, leftShift), leftShift);
+        leftRoot = newNonLeaf(leftRoot, wrap(compactLeaf(left.suffix), 0, leftShift), leftShift);
         leftShift += BITS;
       }
     }
     Object[] rightRoot = right.root;
     int rightShift = right.shift;
     if (nodeLength(right.prefix) != 0) {
-      Object[] r = treeTryInsertFirst(rightRoot, right.prefix, rightShift);
+      Object[] r = treeTryInsertFirst(rightRoot, compactLeaf(right.prefix), rightShift);
       if (r != null) {
         rightRoot = r;
       } else {
-        rightRoot = newNonLeaf(wrap(right.prefix, 0, rightShift), rightRoot, rightShift);
+        rightRoot = newNonLeaf(wrap(compactLeaf(right.prefix), 0, rightShift), rightRoot, rightShift);
         rightShift += BITS;
       }
     }
     if (nodeLength(right.suffix) != 0) {
-      Object[] r = treeTryInsertLast(rightRoot, right.suffix, rightShift);
+      Object[] r = treeTryInsertLast(rightRoot, compactLeaf(right.suffix), rightShift);
       if (r != null) {
         rightRoot = r;
       } else {
-        rightRoot = newNonLeaf(rightRoot, wrap(right.suffix, 0, rightShift), rightShift);
+        rightRoot = newNonLeaf(rightRoot, wrap(compactLeaf(right.suffix), 0, rightShift), rightShift);
         rightShift += BITS;
       }
     }
@@ -1577,6 +1986,11 @@ public final class Seq implements TruffleObject {
       }
     }
     System.arraycopy(parent, srcIdx + 1, result, nodesToFill + 1, nodesToCopy);
+    if (childShift == 0) {
+      for (int i = 0; i < nodesToFill; i++) {
+        result[i + 1] = compactLeaf(result[i + 1]);
+      }
+    }
     return buildIndex(result, childShift);
   }
 
@@ -1668,6 +2082,11 @@ public final class Seq implements TruffleObject {
         }
       }
     }
+    if (childShift == 0) {
+      for (int i = 0; i < nodesToFill; i++) {
+        result[nodesToCopy + i + 1] = compactLeaf(result[nodesToCopy + i + 1]);
+      }
+    }
     return buildIndex(result, childShift);
   }
 
@@ -1690,24 +2109,151 @@ public final class Seq implements TruffleObject {
     return nonLeaf;
   }
 
-  private static final class SeqBuilder {
-    private Seq seq;
+  /**
+   * Transient builder of a sequence. Elements are appended into a leaf and non-leaf nodes owned by the builder, which
+   * are only shared once they are full and so never modified again, so appending an element does not copy anything.
+   * {@link #build()} copies the path of partially filled nodes on the right edge of the tree, so the builder stays
+   * usable afterwards.
+   */
+  public static final class SeqBuilder implements TruffleObject {
+    private Seq base;
+    private Object[] leaf;
+    private int leafSize;
+    private Object[][] nodes;  // nodes[i] holds full nodes of shift i * BITS
+    private int[] nodeSizes;
+    private int depth;
+    private long size;
 
     public SeqBuilder() {
-      this.seq = Seq.EMPTY;
+      this(Seq.EMPTY);
     }
 
-    public void add(Object obj) {
-      this.seq = this.seq.insertLast(obj);
+    /**
+     * @param base sequence to append the elements to
+     */
+    public SeqBuilder(final Seq base) {
+      this.base = base;
+      this.nodes = new Object[4][];
+      this.nodeSizes = new int[4];
+      reset();
+    }
+
+    private void reset() {
+      this.leaf = new Object[MAX_NODE_LENGTH + 1];
+      this.leafSize = 0;
+      this.depth = 0;
+      this.size = 0;
+    }
+
+    public void add(final Object obj) {
+      leaf[++leafSize] = obj;
+      size++;
+      if (leafSize == MAX_NODE_LENGTH) {
+        addNode(compactLeaf(leaf), 0);
+        leaf = new Object[MAX_NODE_LENGTH + 1];
+        leafSize = 0;
+      }
+    }
+
+    private void addNode(final Object node, final int level) {
+      if (level == depth) {
+        if (depth == nodes.length) {
+          nodes = Arrays.copyOf(nodes, depth * 2);
+          nodeSizes = Arrays.copyOf(nodeSizes, depth * 2);
+        }
+        nodes[depth] = new Object[MAX_NODE_LENGTH + 1];
+        nodeSizes[depth] = 0;
+        depth++;
+      }
+      final Object[] parent = nodes[level];
+      parent[++nodeSizes[level]] = node;
+      if (nodeSizes[level] == MAX_NODE_LENGTH) {
+        nodes[level] = new Object[MAX_NODE_LENGTH + 1];
+        nodeSizes[level] = 0;
+        addNode(parent, level + 1);
+      }
     }
 
     public SeqBuilder catenate(SeqBuilder other) {
-      this.seq = Seq.catenate(this.seq, other.seq);
+      this.base = Seq.catenate(build(), other.build());
+      reset();
       return this;
     }
 
     public Seq build() {
-      return this.seq;
+      Object[] root = EMPTY_NODE;
+      int shift = BITS;
+      if (depth != 0) {
+        Object child = null;
+        for (int level = 0; level < depth; level++) {
+          final int len = nodeSizes[level];
+          if (len == 0 && child == null) {
+            continue;
+          }
+          final Object[] node = new Object[len + (child == null ? 1 : 2)];
+          System.arraycopy(nodes[level], 1, node, 1, len);
+          if (child != null) {
+            node[len + 1] = child;
+          }
+          child = buildIndex(node, level * BITS);
+        }
+        root = (Object[]) child;
+        shift = depth * BITS;
+        while (shift > BITS && nodeLength(root) == 1) {
+          root = (Object[]) nodeFirst(root);
+          shift -= BITS;
+        }
+      }
+      final Seq seq = new Seq(EMPTY_NODE, 0, root, size - leafSize, Arrays.copyOf(leaf, leafSize + 1), leafSize, shift);
+      return base.length() == 0 ? seq : Seq.catenate(base, seq);
+    }
+
+    long size() {
+      return base.length() + size;
+    }
+  }
+
+  /**
+   * Accumulator of the to_seq reducer. Each value is a snapshot of the sequence built so far, backed by a
+   * {@link SeqBuilder} shared with the following snapshots. Only the latest snapshot appends into the builder, so a
+   * reduction which threads the accumulator through appends without copying, while a transducer which keeps an older
+   * accumulator and adds to it again gets a copy of the sequence up to that snapshot instead of the elements added
+   * since.
+   */
+  public static final class TransientSeq implements TruffleObject {
+    private final SeqBuilder builder;
+    private final long length;
+
+    private TransientSeq(final SeqBuilder builder) {
+      this.builder = builder;
+      this.length = builder.size();
+    }
+
+    /**
+     * @param base sequence to append the elements to
+     */
+    public static TransientSeq add(final Seq base, final Object obj) {
+      final SeqBuilder builder = new SeqBuilder(base);
+      builder.add(obj);
+      return new TransientSeq(builder);
+    }
+
+    public TransientSeq add(final Object obj) {
+      synchronized (builder) {
+        if (builder.size() == length) {
+          builder.add(obj);
+          return new TransientSeq(builder);
+        }
+      }
+      return add(persistent(), obj);
+    }
+
+    public Seq persistent() {
+      final Seq seq;
+      synchronized (builder) {
+        seq = builder.build();
+      }
+      return seq.length() == length ? seq : seq.take(length, null);
     }
   }
 
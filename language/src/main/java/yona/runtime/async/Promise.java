@@ -7,23 +7,42 @@ import com.oracle.truffle.api.nodes.Node;
 import yona.ast.call.TailCallException;
 import yona.runtime.exceptions.UndefinedNameException;
 
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.function.Supplier;
 
 import static java.util.function.Function.identity;
 
 @ExportLibrary(InteropLibrary.class)
 public final class Promise implements TruffleObject {
   private static final AtomicReferenceFieldUpdater<Promise, Object> UPDATER = AtomicReferenceFieldUpdater.newUpdater(Promise.class, Object.class, "value");
+  private static final AtomicReferenceFieldUpdater<Promise, Object> DEPENDENT_UPDATER = AtomicReferenceFieldUpdater.newUpdater(Promise.class, Object.class, "dependent");
+  private static final AtomicIntegerFieldUpdater<Promise> PENDING_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Promise.class, "pending");
+  private static final Object FIRED = new Object();
   public static final Promise NEVER = new Promise();
 
   volatile Object value;
 
+  /**
+   * Inline slot for the first promise derived from this one by {@link #map}, so that the common case of a single
+   * listener does not need a {@link Callback.Transform}. Null while the slot is free, {@link #FIRED} once the dependent
+   * has been run, or when the slot can no longer be taken. Further listeners go to the callback list in {@link #value}.
+   */
+  private volatile Object dependent;
+  /**
+   * Functions applied to the result of the source promise, if this promise is in the inline slot of its source, null
+   * stands for identity
+   */
+  private Function<? super Object, ?> onSuccess;
+  private Function<? super Throwable, ?> onFailure;
+  /**
+   * Number of promises this one still waits for, if it is the result of {@link #all}
+   */
+  private volatile int pending;
+
   private final InteropLibrary library;
 
   public Promise() {
@@ -41,44 +60,59 @@ public final class Promise implements TruffleObject {
     library = InteropLibrary.getFactory().getUncached();
   }
 
+  @CompilerDirectives.TruffleBoundary
   public void fulfil(Object result, Node node) {
-    fulfil(this, result, node).run();
+    final Trampoline trampoline = Trampoline.current();
+    final int base = trampoline.size;
+    if (!complete(this, result, node, trampoline)) throw new AssertionError("Promise is already fulfilled with " + value);
+    runSteps(trampoline, base, node);
   }
 
   public boolean isFulfilled() {
     return !(value instanceof Callback);
   }
 
-  private Trampoline fulfil(Promise promise, Object result, Node node) {
+  /**
+   * Fulfils the promise unless it has been fulfilled already, for combinators which may observe several results.
+   */
+  @CompilerDirectives.TruffleBoundary
+  public void fulfilOnce(Object result, Node node) {
+    final Trampoline trampoline = Trampoline.current();
+    final int base = trampoline.size;
+    complete(this, result, node, trampoline);
+    runSteps(trampoline, base, node);
+  }
+
+  /**
+   * @return false if the promise has been fulfilled already
+   */
+  private boolean complete(Promise promise, Object result, Node node, Trampoline trampoline) {
     Object snapshot;
     do {
       snapshot = promise.value;
-      if (!(snapshot instanceof Callback)) throw new AssertionError("Promise is already fulfilled with " + snapshot);
+      if (!(snapshot instanceof Callback)) return false;
     } while (!UPDATER.compareAndSet(promise, snapshot, result));
-    Trampoline trampoline = Trampoline.Done.INSTANCE;
-    Callback callback = (Callback) snapshot;
+    runCallbacks((Callback) snapshot, result, node, trampoline);
+    fireDependent(promise, result, node, trampoline);
+    return true;
+  }
+
+  private void runCallbacks(Callback callback, Object result, Node node, Trampoline trampoline) {
     while (callback != Callback.Nil.INSTANCE) {
       if (callback instanceof Callback.Transform) {
         Callback.Transform transform = (Callback.Transform) callback;
-        try {
-          final Object o;
-          if (result instanceof Throwable) {
-            o = applyTCOToFunction(transform.onFailure, (Throwable) result, node);
-          } else {
-            o = applyTCOToFunction(transform.onSuccess, result, node);
-          }
-          if (o instanceof Promise) {
-            // function returned a Promise, make it pass its result to callback's promise when done
-            trampoline = new Trampoline.More(trampoline, () -> ((Promise) o).propagate(transform.result, node));
-          } else {
-            // otherwise, fulfil with what function returned
-            trampoline = new Trampoline.More(trampoline, () -> fulfil(transform.result, o, node));
-          }
-        } catch (Exception e) {
-          // function threw an exception, fulfil callbacks's promise with it
-          trampoline = new Trampoline.More(trampoline, () -> fulfil(transform.result, e, node));
-        }
+        transform(transform.result, transform.onSuccess, transform.onFailure, result, node, trampoline);
         callback = transform.next;
+      } else if (callback instanceof Callback.Join) {
+        Callback.Join join = (Callback.Join) callback;
+        if (result instanceof Throwable) {
+          // failed elements are not counted down, so the counter cannot reach zero anymore
+          trampoline.push(Trampoline.FULFIL_ONCE, join.result, result);
+        } else {
+          join.data[join.index] = result;
+          if (PENDING_UPDATER.decrementAndGet(join.result) == 0) trampoline.push(Trampoline.FULFIL, join.result, join.data);
+        }
+        callback = join.next;
       } else {
         Callback.Consume consume = (Callback.Consume) callback;
         // just execute right here
@@ -87,60 +121,126 @@ public final class Promise implements TruffleObject {
         callback = consume.next;
       }
     }
-    return trampoline;
   }
 
-  private Trampoline propagate(Promise promise, Node node) {
+  /**
+   * Runs the dependent in the inline slot of the source promise, unless there is none, or it has been run already.
+   */
+  private void fireDependent(Promise source, Object result, Node node, Trampoline trampoline) {
+    final Object snapshot = source.dependent;
+    if (snapshot instanceof Promise && DEPENDENT_UPDATER.compareAndSet(source, snapshot, FIRED)) {
+      final Promise target = (Promise) snapshot;
+      final Function<? super Object, ?> onSuccess = target.onSuccess;
+      final Function<? super Throwable, ?> onFailure = target.onFailure;
+      target.onSuccess = null;
+      target.onFailure = null;
+      transform(target, onSuccess, onFailure, result, node, trampoline);
+    }
+  }
+
+  private void transform(Promise target, Function<? super Object, ?> onSuccess, Function<? super Throwable, ?> onFailure, Object result, Node node, Trampoline trampoline) {
+    try {
+      final Object o;
+      if (result instanceof Throwable) {
+        o = onFailure == null ? result : applyTCOToFunction(onFailure, (Throwable) result, node);
+      } else {
+        o = onSuccess == null ? result : applyTCOToFunction(onSuccess, result, node);
+      }
+      if (o instanceof Promise) {
+        // function returned a Promise, make it pass its result to callback's promise when done
+        trampoline.push(Trampoline.PROPAGATE, (Promise) o, target);
+      } else {
+        // otherwise, fulfil with what function returned
+        trampoline.push(Trampoline.FULFIL, target, o);
+      }
+    } catch (Exception e) {
+      // function threw an exception, fulfil callbacks's promise with it
+      trampoline.push(Trampoline.FULFIL, target, e);
+    }
+  }
+
+  /**
+   * Takes the inline slot for the dependent promise, if it is still free. If this promise got fulfilled in the
+   * meantime, the dependent is run right away, unless the fulfilling thread has seen it already.
+   *
+   * @return false if the slot has been taken by another dependent already
+   */
+  private boolean tryAddDependent(Promise target, Function<? super Object, ?> onSuccess, Function<? super Throwable, ?> onFailure, Node node) {
+    if (dependent != null) return false;
+    target.onSuccess = onSuccess;
+    target.onFailure = onFailure;
+    if (!DEPENDENT_UPDATER.compareAndSet(this, null, target)) {
+      target.onSuccess = null;
+      target.onFailure = null;
+      return false;
+    }
+    final Object snapshot = value;
+    if (!(snapshot instanceof Callback)) {
+      final Trampoline trampoline = Trampoline.current();
+      final int base = trampoline.size;
+      fireDependent(this, snapshot, node, trampoline);
+      runSteps(trampoline, base, node);
+    }
+    return true;
+  }
+
+  private void propagate(Promise source, Promise target, Node node, Trampoline trampoline) {
+    if (source.value instanceof Callback && source.dependent == null && DEPENDENT_UPDATER.compareAndSet(source, null, target)) {
+      // the target needs no functions of its own, it just takes over the result of the source
+      final Object snapshot = source.value;
+      if (!(snapshot instanceof Callback) && DEPENDENT_UPDATER.compareAndSet(source, target, FIRED)) {
+        trampoline.push(Trampoline.FULFIL, target, snapshot);
+      }
+      return;
+    }
     Object snapshot;
     Object update;
     do {
-      snapshot = value;
+      snapshot = source.value;
       if (snapshot instanceof Callback) {
         // not yet
-        update = new Callback.Transform(promise, identity(), identity(), (Callback) snapshot);
+        update = new Callback.Transform(target, identity(), identity(), (Callback) snapshot);
       } else {
         // already done
-        final Object result = snapshot;
-        return new Trampoline.More(Trampoline.Done.INSTANCE, () -> fulfil(promise, result, node));
+        trampoline.push(Trampoline.FULFIL, target, snapshot);
+        return;
       }
-    } while (!UPDATER.compareAndSet(this, snapshot, update));
-    return Trampoline.Done.INSTANCE;
+    } while (!UPDATER.compareAndSet(source, snapshot, update));
   }
 
-  @CompilerDirectives.TruffleBoundary
-  public Promise map(Function<? super Object, ?> function, Node node) {
-    Promise result = null;
-    Object snapshot;
-    Object update;
-    do {
-      snapshot = value;
-      if (snapshot instanceof Callback) {
-        // promise is not fulfilled yet
-        if (result == null) result = new Promise();
-        update = new Callback.Transform(result, function, identity(), (Callback) snapshot);
-      } else {
-        // if this promise failed, propagate the exception
-        if (snapshot instanceof Throwable) return this;
-        // if this promise succeeded, apply the function
-        try {
-          Object o = applyTCOToFunction(function, snapshot, node);
-          // if it's a promise, don't wrap it
-          if (o instanceof Promise) return (Promise) o;
-          // otherwise, fulfil the result with the value function returned
-          if (result == null) result = new Promise();
-          result.value = o;
-          return result;
-        } catch (Exception e) {
-          // propagate the exception
-          if (result == null) result = new Promise();
-          result.value = e;
-          return result;
+  /**
+   * Runs the steps pushed to the trampoline since it was at the given base.
+   */
+  private void runSteps(Trampoline trampoline, int base, Node node) {
+    try {
+      while (trampoline.size > base) {
+        final int index = --trampoline.size;
+        final byte kind = trampoline.kinds[index];
+        final Promise promise = trampoline.promises[index];
+        final Object argument = trampoline.arguments[index];
+        trampoline.promises[index] = null;
+        trampoline.arguments[index] = null;
+        if (kind == Trampoline.FULFIL) {
+          if (!complete(promise, argument, node, trampoline)) throw new AssertionError("Promise is already fulfilled with " + promise.value);
+        } else if (kind == Trampoline.FULFIL_ONCE) {
+          complete(promise, argument, node, trampoline);
+        } else {
+          propagate(promise, (Promise) argument, node, trampoline);
         }
       }
-    } while (!UPDATER.compareAndSet(this, snapshot, update));
-    return result;
+    } finally {
+      trampoline.reset(base);
+    }
   }
 
+  @CompilerDirectives.TruffleBoundary
+  public Promise map(Function<? super Object, ?> function, Node node) {
+    return map(function, null, node);
+  }
+
+  /**
+   * @param onFailure null to pass the exception on
+   */
   @CompilerDirectives.TruffleBoundary
   public Promise map(Function<? super Object, ?> onSuccess, Function<? super Throwable, ?> onFailure, Node node) {
     Promise result = null;
@@ -150,9 +250,14 @@ public final class Promise implements TruffleObject {
       snapshot = value;
       if (snapshot instanceof Callback) {
         // promise is not fulfilled yet
-        if (result == null) result = new Promise();
+        if (result == null) {
+          result = new Promise();
+          if (tryAddDependent(result, onSuccess, onFailure, node)) return result;
+        }
         update = new Callback.Transform(result, onSuccess, onFailure, (Callback) snapshot);
       } else {
+        // if this promise failed and there is no failure handler, propagate the exception
+        if (snapshot instanceof Throwable && onFailure == null) return this;
         try {
           final Object o;
           if (snapshot instanceof Throwable) {
@@ -209,37 +314,124 @@ public final class Promise implements TruffleObject {
     }
   }
 
+  /**
+   * @return promise of an array with the values of the arguments, those which are promises replaced by their values
+   */
   @CompilerDirectives.TruffleBoundary
   public static Promise all(Object[] args, Node node) {
-    Promise result = new Promise();
-    Object[] data = args.clone();
-    AtomicInteger counter = new AtomicInteger(data.length);
+    return join(args.clone(), node);
+  }
+
+  /**
+   * Two argument variant of {@link #all(Object[], Node)}, for binary operators. A single pending argument is waited for
+   * by mapping its promise, the other value being kept by the mapping function, so that neither the pending counter
+   * nor join callbacks are needed. Only when both are pending the arguments are joined.
+   */
+  @CompilerDirectives.TruffleBoundary
+  public static Promise all(Object first, Object second, Node node) {
+    if (isFailed(first)) return (Promise) first;
+    if (isFailed(second)) return (Promise) second;
+    final Object firstValue = settled(first);
+    final Object secondValue = settled(second);
+    if (firstValue instanceof Promise) {
+      if (secondValue instanceof Promise) {
+        return join(new Object[]{firstValue, secondValue}, node);
+      }
+      return ((Promise) firstValue).map(value -> new Object[]{value, secondValue}, node);
+    } else if (secondValue instanceof Promise) {
+      return ((Promise) secondValue).map(value -> new Object[]{firstValue, value}, node);
+    } else {
+      return new Promise(new Object[]{firstValue, secondValue});
+    }
+  }
+
+  /**
+   * Three argument variant of {@link #all(Object[], Node)}, see {@link #all(Object, Object, Node)}.
+   */
+  @CompilerDirectives.TruffleBoundary
+  public static Promise all(Object first, Object second, Object third, Node node) {
+    if (isFailed(first)) return (Promise) first;
+    if (isFailed(second)) return (Promise) second;
+    if (isFailed(third)) return (Promise) third;
+    final Object firstValue = settled(first);
+    final Object secondValue = settled(second);
+    final Object thirdValue = settled(third);
+    final boolean firstPending = firstValue instanceof Promise;
+    final boolean secondPending = secondValue instanceof Promise;
+    final boolean thirdPending = thirdValue instanceof Promise;
+    if (firstPending ? secondPending || thirdPending : secondPending && thirdPending) {
+      return join(new Object[]{firstValue, secondValue, thirdValue}, node);
+    } else if (firstPending) {
+      return ((Promise) firstValue).map(value -> new Object[]{value, secondValue, thirdValue}, node);
+    } else if (secondPending) {
+      return ((Promise) secondValue).map(value -> new Object[]{firstValue, value, thirdValue}, node);
+    } else if (thirdPending) {
+      return ((Promise) thirdValue).map(value -> new Object[]{firstValue, secondValue, value}, node);
+    } else {
+      return new Promise(new Object[]{firstValue, secondValue, thirdValue});
+    }
+  }
+
+  private static boolean isFailed(Object arg) {
+    return arg instanceof Promise && ((Promise) arg).value instanceof Throwable;
+  }
+
+  /**
+   * @return value of the argument, if it is a promise which is fulfilled already, otherwise the argument itself
+   */
+  private static Object settled(Object arg) {
+    if (arg instanceof Promise) {
+      final Object snapshot = ((Promise) arg).value;
+      // a failure is passed on by the promise itself
+      if (!(snapshot instanceof Callback) && !(snapshot instanceof Throwable)) return snapshot;
+    }
+    return arg;
+  }
+
+  /**
+   * Replaces the promises in the array, which it takes ownership of, by their values. Promises which are fulfilled
+   * already are replaced right away, so that no result promise needs to wait if all of them are. Otherwise the number
+   * of pending promises is counted in {@link #pending} of the result, starting with one extra for the registration
+   * itself, so that the result cannot be fulfilled before all of the promises have been registered.
+   */
+  private static Promise join(Object[] data, Node node) {
+    Promise result = null;
     for (int i = 0; i < data.length; i++) {
-      Object arg = data[i];
-      if (arg instanceof Promise) {
-        int idx = i;
-        Promise promise = (Promise) arg;
-        Object snapshot;
-        Object update;
-        do {
-          snapshot = promise.value;
-          if (snapshot instanceof Callback) {
-            update = new Callback.Consume(o -> {
-              data[idx] = o;
-              if (counter.decrementAndGet() == 0) result.fulfil(data, node);
-            }, (val) -> result.fulfil(val, node), (Callback) snapshot);
-          } else {
-            if (snapshot instanceof Throwable) result.fulfil(snapshot, node);
-            else {
-              data[idx] = snapshot;
-              if (counter.decrementAndGet() == 0) result.fulfil(data, node);
-            }
-            break;
+      if (!(data[i] instanceof Promise)) continue;
+      Promise promise = (Promise) data[i];
+      boolean counted = false;
+      Object snapshot;
+      Object update;
+      do {
+        snapshot = promise.value;
+        if (snapshot instanceof Callback) {
+          if (result == null) {
+            result = new Promise();
+            result.pending = 1;
           }
-        } while (!UPDATER.compareAndSet(promise, snapshot, update));
-      } else {
-        if (counter.decrementAndGet() == 0) result.fulfil(data, node);
-      }
+          if (!counted) {
+            PENDING_UPDATER.incrementAndGet(result);
+            counted = true;
+          }
+          update = new Callback.Join(result, data, i, (Callback) snapshot);
+        } else {
+          // the extra count of the registration keeps the counter above zero
+          if (counted) PENDING_UPDATER.decrementAndGet(result);
+          if (snapshot instanceof Throwable) {
+            if (result == null) return new Promise(snapshot);
+            result.fulfilOnce(snapshot, node);
+            return result;
+          }
+          data[i] = snapshot;
+          break;
+        }
+      } while (!UPDATER.compareAndSet(promise, snapshot, update));
+    }
+    if (result == null) {
+      return new Promise(data);
+    }
+    if (PENDING_UPDATER.decrementAndGet(result) == 0) {
+      result.fulfil(data, node);
     }
     return result;
   }
@@ -259,18 +451,23 @@ public final class Promise implements TruffleObject {
     return throwIfThrowable(promise.value);
   }
 
+  /**
+   * Passes the value, or the exception, of the promise to the consumer once it is fulfilled, right away if it is
+   * fulfilled already.
+   */
   @CompilerDirectives.TruffleBoundary
-  public static boolean timeout(Promise promise, final long millis) throws InterruptedException {
-    CountDownLatch latch = new CountDownLatch(1);
+  public void onComplete(Consumer<? super Object> consumer) {
     Object snapshot;
     Object update;
     do {
-      snapshot = promise.value;
+      snapshot = value;
       if (snapshot instanceof Callback) {
-        update = new Callback.Consume(o -> latch.countDown(), e -> latch.countDown(), (Callback) snapshot);
-      } else return true;
-    } while (!UPDATER.compareAndSet(promise, snapshot, update));
-    return latch.await(millis, TimeUnit.MILLISECONDS);
+        update = new Callback.Consume(consumer, consumer, (Callback) snapshot);
+      } else {
+        consumer.accept(snapshot);
+        return;
+      }
+    } while (!UPDATER.compareAndSet(this, snapshot, update));
   }
 
   private static Object throwIfThrowable(Object value) throws Throwable {
@@ -305,65 +502,81 @@ public final class Promise implements TruffleObject {
       }
     }
 
-    enum Nil implements Callback {
-      INSTANCE
-    }
-  }
-
-  private static abstract class Trampoline implements Runnable {
-    static final class Done extends Trampoline {
-      static final Done INSTANCE = new Done();
+    final class Join implements Callback {
+      final Promise result;
+      final Object[] data;
+      final int index;
+      final Callback next;
 
-      @Override
-      public void run() {
+      Join(Promise result, Object[] data, int index, Callback next) {
+        this.result = result;
+        this.data = data;
+        this.index = index;
+        this.next = next;
       }
     }
 
-    static final class More extends Trampoline {
-      final Trampoline prev;
-      final Supplier<? extends Trampoline> step;
-
-      More(Trampoline prev, Supplier<? extends Trampoline> step) {
-        this.prev = prev;
-        this.step = step;
-      }
-
-      @Override
-      public void run() {
-        Trampoline current = this;
-        Stack stack = Stack.Nil.INSTANCE;
-        while (true) {
-          if (current instanceof More) {
-            More more = (More) current;
-            current = more.prev;
-            stack = new Stack.Cons(more.step, stack);
-          } else {
-            if (stack instanceof Stack.Cons) {
-              Stack.Cons cons = (Stack.Cons) stack;
-              current = cons.head.get();
-              stack = cons.tail;
-            } else break;
-          }
-        }
-      }
+    enum Nil implements Callback {
+      INSTANCE
     }
   }
 
-  private interface Stack {
-    final class Cons implements Stack {
-      final Supplier<? extends Trampoline> head;
-      final Stack tail;
+  /**
+   * Steps of fulfilling promises which depend on each other, kept on a stack per thread instead of the call stack, so
+   * that long chains of dependent promises neither overflow the call stack nor allocate a frame for each step. A run
+   * only executes the steps pushed since it started, so that nested runs behave as if they had a stack of their own.
+   */
+  private static final class Trampoline {
+    static final byte FULFIL = 0;
+    static final byte PROPAGATE = 1;
+    static final byte FULFIL_ONCE = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Larger stacks are released once they are empty again, so that a single long fan-in does not pin the memory
+     */
+    private static final int RETAINED_CAPACITY = 1024;
+    private static final ThreadLocal<Trampoline> CURRENT = ThreadLocal.withInitial(Trampoline::new);
+
+    byte[] kinds = new byte[INITIAL_CAPACITY];
+    /**
+     * Promise to be fulfilled, or the source promise for {@link #PROPAGATE}
+     */
+    Promise[] promises = new Promise[INITIAL_CAPACITY];
+    /**
+     * Result to fulfil the promise with, or the target promise for {@link #PROPAGATE}
+     */
+    Object[] arguments = new Object[INITIAL_CAPACITY];
+    int size = 0;
+
+    static Trampoline current() {
+      return CURRENT.get();
+    }
 
-      Cons(Supplier<? extends Trampoline> head, Stack tail) {
-        this.head = head;
-        this.tail = tail;
+    void push(byte kind, Promise promise, Object argument) {
+      if (size == kinds.length) {
+        kinds = Arrays.copyOf(kinds, size << 1);
+        promises = Arrays.copyOf(promises, size << 1);
+        arguments = Arrays.copyOf(arguments, size << 1);
       }
+      kinds[size] = kind;
+      promises[size] = promise;
+      arguments[size] = argument;
+      size++;
     }
 
-    enum Nil implements Stack {
-      INSTANCE
+    void reset(int base) {
+      for (int i = base; i < size; i++) {
+        promises[i] = null;
+        arguments[i] = null;
+      }
+      size = base;
+      if (base == 0 && kinds.length > RETAINED_CAPACITY) {
+        kinds = new byte[INITIAL_CAPACITY];
+        promises = new Promise[INITIAL_CAPACITY];
+        arguments = new Object[INITIAL_CAPACITY];
+      }
     }
-
   }
 
   private <T, R> Object applyTCOToFunction(Function<? super T, ? extends R> function, T argument, Node node) {
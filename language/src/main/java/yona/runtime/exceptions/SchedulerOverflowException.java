@@ -0,0 +1,14 @@
+package yona.runtime.exceptions;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.nodes.Node;
+import yona.YonaException;
+import yona.runtime.annotations.ExceptionSymbol;
+
+@ExceptionSymbol("overflow")
+public final class SchedulerOverflowException extends YonaException {
+  @CompilerDirectives.TruffleBoundary
+  public SchedulerOverflowException(Node location) {
+    super("Async task rejected, scheduler queue is full", location);
+  }
+}
@@ -0,0 +1,97 @@
+package yona.runtime.threading;
+
+import com.oracle.truffle.api.TruffleLogger;
+import yona.YonaException;
+import yona.YonaLanguage;
+import yona.YonaOptions;
+import yona.runtime.Context;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs the blocking calls of builtins, such as reading input or waiting for a process. By default these run
+ * on the io executor of the {@link Context}. With {@link YonaOptions#IOThreads} set to virtual, and a JDK which
+ * supports virtual threads, the blocking call runs on a virtual thread instead, and only its completion, which may run
+ * Yona code and therefore needs a thread entered into the context, is handed over to the io executor.
+ */
+public final class BlockingExecutor {
+  private static final TruffleLogger LOGGER = YonaLanguage.getLogger(BlockingExecutor.class);
+
+  @FunctionalInterface
+  public interface BlockingCall {
+    Object call() throws Exception;
+  }
+
+  private final ExecutorService ioExecutor;
+  /**
+   * Executor starting a new virtual thread per call, null if the platform threads of the io executor are used instead
+   */
+  private final ExecutorService virtualExecutor;
+
+  public BlockingExecutor(final Context context, final ExecutorService ioExecutor) {
+    this.ioExecutor = ioExecutor;
+    final String ioThreads = context.getEnv().getOptions().get(YonaOptions.IOThreads);
+    switch (ioThreads) {
+      case YonaOptions.IO_THREADS_PLATFORM:
+        virtualExecutor = null;
+        break;
+      case YonaOptions.IO_THREADS_VIRTUAL:
+        virtualExecutor = virtualThreadPerTaskExecutor();
+        break;
+      default:
+        throw new YonaException("Unknown IO threads: " + ioThreads + ", expected one of: " + YonaOptions.IO_THREADS_PLATFORM + ", " + YonaOptions.IO_THREADS_VIRTUAL, null);
+    }
+  }
+
+  private static ExecutorService virtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // older JDK, or virtual threads are a preview feature which is not enabled
+      LOGGER.config("Virtual threads are not available, blocking calls run on platform threads: " + e);
+      return null;
+    }
+  }
+
+  public boolean usesVirtualThreads() {
+    return virtualExecutor != null;
+  }
+
+  /**
+   * Runs the blocking call and passes its result, or the exception it threw, to the completion.
+   */
+  public void execute(final BlockingCall call, final Consumer<Object> completion) {
+    if (virtualExecutor == null) {
+      ioExecutor.submit(() -> completion.accept(run(call)));
+    } else {
+      virtualExecutor.submit(() -> {
+        final Object result = run(call);
+        try {
+          ioExecutor.submit(() -> completion.accept(result));
+        } catch (RejectedExecutionException ignored) {
+          // the context is being disposed of, nobody is waiting for the result anymore
+        }
+      });
+    }
+  }
+
+  private static Object run(final BlockingCall call) {
+    try {
+      return call.call();
+    } catch (Exception e) {
+      return e;
+    }
+  }
+
+  /**
+   * Interrupts the pending blocking calls running on virtual threads, the io executor is shut down by the context.
+   */
+  public void dispose() {
+    if (virtualExecutor != null) {
+      virtualExecutor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package yona.runtime.threading;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.NodeInfo;
+import com.oracle.truffle.api.nodes.RootNode;
+import yona.YonaLanguage;
+import yona.runtime.Function;
+
+import java.util.function.Supplier;
+
+/**
+ * Root of the functions which run a computation of the runtime as a task, see
+ * {@link Threading#submit(Supplier, com.oracle.truffle.api.nodes.Node)}. The computation is the captured value of the
+ * function, which it receives as its only argument.
+ */
+@NodeInfo(language = "yona", description = "Runtime computation run as a task")
+final class ComputationRootNode extends RootNode {
+  ComputationRootNode(final YonaLanguage language) {
+    super(language);
+  }
+
+  @Override
+  public Object execute(final VirtualFrame frame) {
+    final Object[] arguments = frame.getArguments();
+    return compute((Function) arguments[arguments.length - 1]);
+  }
+
+  @CompilerDirectives.TruffleBoundary
+  private static Object compute(final Function function) {
+    return ((Supplier<?>) function.getCapturedValues()[0]).get();
+  }
+}
@@ -31,6 +31,9 @@ final class Consumer {
     return true;
   }
 
+  boolean available() {
+    return buffer.isReleased(sharedCursor.get() + 1);
+  }
 
   static abstract class Callback {
     abstract void prepare(long token);
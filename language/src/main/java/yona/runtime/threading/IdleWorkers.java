@@ -0,0 +1,135 @@
+package yona.runtime.threading;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Idle strategy shared by the schedulers. A worker which runs out of work first spins for an adaptive number of
+ * iterations, then announces itself on a lock-free stack of idle workers and parks. Producers wake up exactly one
+ * worker by popping it from the stack and unparking its thread, which costs a single volatile read when no worker
+ * is idle.
+ *
+ * The spin budget of each worker doubles whenever work arrived while spinning and halves whenever the worker had to
+ * park, so that workers of busy services stay hot while those of quiet services go to sleep quickly.
+ */
+final class IdleWorkers {
+  static final int MIN_SPINS = 1 << 4;
+  static final int MAX_SPINS = 1 << 14;
+  static final int YIELD_EVERY = 1 << 6;
+
+  private static final int ACTIVE = 0;
+  private static final int IDLE = 1;
+  private static final int INDEX_BITS = 16;
+  private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+  private final Thread[] threads;
+  /**
+   * Head of the idle stack, lower {@link #INDEX_BITS} hold the index of the top worker + 1 (0 means empty), the rest
+   * is a version counter which protects the stack from ABA on worker re-use
+   */
+  private final AtomicLong head = new AtomicLong(0L);
+  /**
+   * Index + 1 of the worker below the given one in the idle stack
+   */
+  private final AtomicIntegerArray next;
+  private final AtomicIntegerArray inStack;
+  private final AtomicIntegerArray states;
+  private final int[] spinBudgets;
+
+  IdleWorkers(final Thread[] threads) {
+    if (threads.length >= INDEX_MASK) {
+      throw new AssertionError();
+    }
+    this.threads = threads;
+    this.next = new AtomicIntegerArray(threads.length);
+    this.inStack = new AtomicIntegerArray(threads.length);
+    this.states = new AtomicIntegerArray(threads.length);
+    this.spinBudgets = new int[threads.length];
+    for (int i = 0; i < threads.length; i++) {
+      spinBudgets[i] = MIN_SPINS;
+    }
+  }
+
+  /**
+   * Called by the worker with the given index after it found no work. Returns once there may be work again.
+   *
+   * @return false if the worker has been interrupted and should terminate
+   */
+  boolean await(final int index, final BooleanSupplier hasWork) {
+    final int budget = spinBudgets[index];
+    for (int i = 1; i <= budget; i++) {
+      if (hasWork.getAsBoolean()) {
+        spinBudgets[index] = Math.min(MAX_SPINS, budget << 1);
+        return true;
+      }
+      if (i % YIELD_EVERY == 0) {
+        Thread.yield();
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+    spinBudgets[index] = Math.max(MIN_SPINS, budget >> 1);
+
+    states.set(index, IDLE);
+    if (inStack.get(index) == 0) {
+      inStack.set(index, 1);
+      push(index);
+    }
+    // re-check after announcing ourselves, a producer which did not see us in the stack has published already
+    if (hasWork.getAsBoolean()) {
+      states.set(index, ACTIVE);
+      return true;
+    }
+    while (states.get(index) == IDLE) {
+      if (Thread.currentThread().isInterrupted()) {
+        return false;
+      }
+      LockSupport.park(this);
+    }
+    return !Thread.currentThread().isInterrupted();
+  }
+
+  /**
+   * @return whether there may be an idle worker to wake up
+   */
+  boolean hasIdle() {
+    return (head.get() & INDEX_MASK) != 0;
+  }
+
+  /**
+   * Wakes up one idle worker, if there is any.
+   */
+  void signal() {
+    while (true) {
+      final long h = head.get();
+      final int top = (int) (h & INDEX_MASK);
+      if (top == 0) {
+        return;
+      }
+      final int index = top - 1;
+      if (!head.compareAndSet(h, nextHead(h, next.get(index)))) {
+        continue;
+      }
+      inStack.set(index, 0);
+      // a worker which found work after announcing itself stays in the stack as active, skip it
+      if (states.compareAndSet(index, IDLE, ACTIVE)) {
+        LockSupport.unpark(threads[index]);
+        return;
+      }
+    }
+  }
+
+  private void push(final int index) {
+    long h;
+    do {
+      h = head.get();
+      next.set(index, (int) (h & INDEX_MASK));
+    } while (!head.compareAndSet(h, nextHead(h, index + 1)));
+  }
+
+  private static long nextHead(final long current, final int top) {
+    return (((current >>> INDEX_BITS) + 1) << INDEX_BITS) | top;
+  }
+}
@@ -37,6 +37,10 @@ final class RingBuffer<E> {
     }
   }
 
+  int capacity() {
+    return size;
+  }
+
   long tryClaim(final int n) {
     long current;
     long next;
@@ -118,6 +122,13 @@ final class RingBuffer<E> {
     return to;
   }
 
+  /**
+   * @return whether the slot of the given token has been released, without scanning the following slots
+   */
+  boolean isReleased(final long token) {
+    return availability.get(((int) token) & mask) == (int) (token >>> shift);
+  }
+
   long lastClaimed() {
     return producerCursor.get();
   }
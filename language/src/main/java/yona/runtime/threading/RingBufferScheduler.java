@@ -0,0 +1,243 @@
+package yona.runtime.threading;
+
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.nodes.Node;
+import yona.YonaException;
+import yona.YonaOptions;
+import yona.runtime.Context;
+import yona.runtime.Dict;
+import yona.runtime.Function;
+import yona.runtime.async.Promise;
+import yona.runtime.exceptions.SchedulerOverflowException;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+/**
+ * All workers consume tasks from a single shared {@link RingBuffer}. When the buffer stays full for
+ * {@link YonaOptions#SchedulerSpinAttempts} spins, the {@link YonaOptions#SchedulerOverflow} policy decides what happens
+ * with the task: it is either spilled to an unbounded overflow queue, executed on the submitting thread, or its promise
+ * is failed with {@link SchedulerOverflowException}.
+ */
+final class RingBufferScheduler extends Scheduler {
+  enum OverflowPolicy {
+    GROW, INLINE, FAIL
+  }
+
+  final Consumer[] consumers;
+  final RingBuffer<Task> ringBuffer;
+  final ConcurrentLinkedQueue<Task> overflowQueue = new ConcurrentLinkedQueue<>();
+  final OverflowPolicy overflowPolicy;
+  final int produceSpinMaxAttempts;
+
+  RingBufferScheduler(final Context context, final int threadCount) {
+    super(context, threadCount);
+    final int bufferSize = context.getEnv().getOptions().get(YonaOptions.SchedulerBufferSize);
+    if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+      throw new YonaException("SchedulerBufferSize must be a power of two, got: " + bufferSize, null);
+    }
+    ringBuffer = new RingBuffer<>(bufferSize, Task::new);
+    consumers = ringBuffer.subscribe(threadCount);
+    overflowPolicy = overflowPolicy(context.getEnv().getOptions().get(YonaOptions.SchedulerOverflow));
+    produceSpinMaxAttempts = context.getEnv().getOptions().get(YonaOptions.SchedulerSpinAttempts);
+    if (produceSpinMaxAttempts < 0) {
+      throw new YonaException("SchedulerSpinAttempts must not be negative, got: " + produceSpinMaxAttempts, null);
+    }
+  }
+
+  private static OverflowPolicy overflowPolicy(final String name) {
+    switch (name) {
+      case YonaOptions.OVERFLOW_GROW:
+        return OverflowPolicy.GROW;
+      case YonaOptions.OVERFLOW_INLINE:
+        return OverflowPolicy.INLINE;
+      case YonaOptions.OVERFLOW_FAIL:
+        return OverflowPolicy.FAIL;
+      default:
+        throw new YonaException("Unknown scheduler overflow policy: " + name + ", expected one of: " + YonaOptions.OVERFLOW_GROW + ", " + YonaOptions.OVERFLOW_INLINE + ", " + YonaOptions.OVERFLOW_FAIL, null);
+    }
+  }
+
+  @Override
+  void work(final int index) {
+    final Consumer consumer = consumers[index];
+    final Consumer.Callback callback = new Consumer.Callback() {
+      Promise promise;
+      Function function;
+      InteropLibrary dispatch;
+      Node node;
+      Dict localContexts;
+
+      @Override
+      void prepare(final long token) {
+        final Task task = ringBuffer.read(token);
+        promise = task.promise;
+        function = task.function;
+        dispatch = task.dispatch;
+        node = task.node;
+        localContexts = task.localContexts;
+      }
+
+      @Override
+      void advance() {
+        if (idleWorkers.hasIdle() && consumer.available()) {
+          // more work is waiting, e.g. from a batch submission, pass the wake-up on
+          idleWorkers.signal();
+        }
+        Context.LOCAL_CONTEXTS.set(localContexts);
+        try {
+          Threading.execute(promise, function, dispatch, node);
+        } finally {
+          promise = null;
+          function = null;
+          dispatch = null;
+          node = null;
+          Context.LOCAL_CONTEXTS.remove();
+        }
+      }
+    };
+    final BooleanSupplier hasWork = () -> consumer.available() || !overflowQueue.isEmpty();
+    while (true) {
+      if (!consumer.consume(callback)) {
+        final Task spilledTask = overflowQueue.poll();
+        if (spilledTask != null) {
+          run(spilledTask);
+        } else if (!idleWorkers.await(index, hasWork)) {
+          break;
+        }
+      }
+    }
+  }
+
+  @Override
+  void submit(final Promise promise, final Function function, final InteropLibrary dispatch, final Node node) {
+    if (!overflowQueue.isEmpty()) {
+      // keep the submission order roughly FIFO while the overflow queue is being drained
+      spill(promise, function, dispatch, node);
+      return;
+    }
+    int spins = 0;
+    long token;
+    while (true) {
+      token = ringBuffer.tryClaim(1);
+      if (token == -1) {
+        if (spins < produceSpinMaxAttempts) {
+          Thread.onSpinWait();
+          spins++;
+          continue;
+        }
+        overflow(promise, function, dispatch, node);
+        return;
+      } else {
+        break;
+      }
+    }
+    Task task = ringBuffer.read(token);
+    task.promise = promise;
+    task.function = function;
+    task.dispatch = dispatch;
+    task.node = node;
+    task.localContexts = Context.LOCAL_CONTEXTS.get();
+    ringBuffer.release(token, token);
+    queued.increment();
+    signal();
+  }
+
+  /**
+   * Claims the slots for the whole batch at once if the ring buffer has enough free capacity, otherwise the claim size
+   * is halved until the parts fit. Tasks which do not fit at all are handled by the overflow policy as a whole, and the
+   * workers are signalled once, before any task is executed inline.
+   */
+  @Override
+  void submitAll(final Task[] tasks) {
+    final int n = tasks.length;
+    int from = 0;
+    if (overflowQueue.isEmpty()) {
+      int batch = Math.min(n, ringBuffer.capacity());
+      int spins = 0;
+      while (from < n) {
+        batch = Math.min(batch, n - from);
+        final long token = ringBuffer.tryClaim(batch);
+        if (token == -1) {
+          if (batch > 1) {
+            batch >>>= 1;
+            continue;
+          }
+          if (spins < produceSpinMaxAttempts) {
+            Thread.onSpinWait();
+            spins++;
+            continue;
+          }
+          break;
+        }
+        spins = 0;
+        final long first = token - batch + 1;
+        for (int i = 0; i < batch; i++) {
+          final Task source = tasks[from + i];
+          final Task task = ringBuffer.read(first + i);
+          task.promise = source.promise;
+          task.function = source.function;
+          task.dispatch = source.dispatch;
+          task.node = source.node;
+          task.localContexts = source.localContexts;
+        }
+        ringBuffer.release(first, token);
+        queued.add(batch);
+        from += batch;
+      }
+    }
+    final int remaining = n - from;
+    if (remaining > 0 && overflowPolicy == OverflowPolicy.GROW) {
+      for (int i = from; i < n; i++) {
+        overflowQueue.offer(tasks[i]);
+      }
+      spilled.add(remaining);
+    }
+    if (from > 0 || overflowPolicy == OverflowPolicy.GROW) {
+      signal();
+    }
+    if (remaining > 0) {
+      switch (overflowPolicy) {
+        case INLINE:
+          inlined.add(remaining);
+          for (int i = from; i < n; i++) {
+            runInline(tasks[i]);
+          }
+          break;
+        case FAIL:
+          rejected.add(remaining);
+          final SchedulerOverflowException exception = new SchedulerOverflowException(tasks[from].node);
+          for (int i = from; i < n; i++) {
+            tasks[i].promise.fulfil(exception, tasks[i].node);
+          }
+          break;
+      }
+    }
+  }
+
+  private void overflow(final Promise promise, final Function function, final InteropLibrary dispatch, final Node node) {
+    switch (overflowPolicy) {
+      case GROW:
+        spill(promise, function, dispatch, node);
+        break;
+      case INLINE:
+        inlined.increment();
+        Threading.execute(promise, function, dispatch, node);
+        break;
+      case FAIL:
+        rejected.increment();
+        promise.fulfil(new SchedulerOverflowException(node), node);
+        break;
+    }
+  }
+
+  private void spill(final Promise promise, final Function function, final InteropLibrary dispatch, final Node node) {
+    overflowQueue.offer(new Task(promise, function, dispatch, node, Context.LOCAL_CONTEXTS.get()));
+    spilled.increment();
+    signal();
+  }
+
+  private void signal() {
+    idleWorkers.signal();
+  }
+}
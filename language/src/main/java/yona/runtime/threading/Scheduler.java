@@ -0,0 +1,95 @@
+package yona.runtime.threading;
+
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.nodes.Node;
+import yona.runtime.Context;
+import yona.runtime.Dict;
+import yona.runtime.Function;
+import yona.runtime.async.Promise;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Strategy for distributing async tasks among the worker threads of {@link Threading}.
+ */
+abstract class Scheduler {
+  final Thread[] threads;
+  final IdleWorkers idleWorkers;
+  /**
+   * Number of tasks which were handed over to workers through the regular queue
+   */
+  final LongAdder queued = new LongAdder();
+  /**
+   * Number of tasks which were moved to the overflow queue, either because they did not fit into the regular queue, or
+   * because the overflow queue was not empty yet and they had to queue up behind it
+   */
+  final LongAdder spilled = new LongAdder();
+  /**
+   * Number of tasks which did not fit into the regular queue and were executed on the submitting thread
+   */
+  final LongAdder inlined = new LongAdder();
+  /**
+   * Number of tasks which did not fit into the regular queue and were failed
+   */
+  final LongAdder rejected = new LongAdder();
+
+  Scheduler(final Context context, final int threadCount) {
+    threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      final int index = i;
+      threads[i] = context.getEnv().createThread(() -> work(index), null, new ThreadGroup("yona-worker"));
+    }
+    idleWorkers = new IdleWorkers(threads);
+  }
+
+  /**
+   * Main loop of the worker thread with the given index, returns once the thread is interrupted.
+   */
+  abstract void work(int index);
+
+  abstract void submit(Promise promise, Function function, InteropLibrary dispatch, Node node);
+
+  /**
+   * Submits the tasks collected by a batch, see {@link Threading#beginBatch(boolean)}.
+   */
+  abstract void submitAll(Task[] tasks);
+
+  static void run(final Task task) {
+    Context.LOCAL_CONTEXTS.set(task.localContexts);
+    try {
+      Threading.execute(task.promise, task.function, task.dispatch, task.node);
+    } finally {
+      Context.LOCAL_CONTEXTS.remove();
+    }
+  }
+
+  /**
+   * Runs the task on the submitting thread, with the local contexts it was submitted with.
+   */
+  static void runInline(final Task task) {
+    final Dict localContexts = Context.LOCAL_CONTEXTS.get();
+    Context.LOCAL_CONTEXTS.set(task.localContexts);
+    try {
+      Threading.execute(task.promise, task.function, task.dispatch, task.node);
+    } finally {
+      Context.LOCAL_CONTEXTS.set(localContexts);
+    }
+  }
+
+  void initialize() {
+    for (Thread thread : threads) {
+      thread.start();
+    }
+  }
+
+  void dispose() {
+    for (Thread thread : threads) {
+      try {
+        thread.interrupt();
+        thread.join();
+      } catch (InterruptedException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+}
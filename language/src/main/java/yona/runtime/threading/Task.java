@@ -12,4 +12,15 @@ public final class Task {
   InteropLibrary dispatch;
   Node node;
   Dict localContexts;
+
+  Task() {
+  }
+
+  Task(final Promise promise, final Function function, final InteropLibrary dispatch, final Node node, final Dict localContexts) {
+    this.promise = promise;
+    this.function = function;
+    this.dispatch = dispatch;
+    this.node = node;
+    this.localContexts = localContexts;
+  }
 }
@@ -0,0 +1,91 @@
+package yona.runtime.threading;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Chase-Lev work-stealing deque. Only the owning thread may {@link #push(Object)} and {@link #pop()} (LIFO end),
+ * any thread may {@link #steal()} (FIFO end).
+ */
+final class TaskDeque<E> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicLongFieldUpdater<TaskDeque> TOP_UPDATER = AtomicLongFieldUpdater.newUpdater(TaskDeque.class, "top");
+
+  private volatile long top = 0L;
+  private volatile long bottom = 0L;
+  private volatile AtomicReferenceArray<E> elements;
+
+  TaskDeque(final int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new AssertionError();
+    }
+    elements = new AtomicReferenceArray<>(capacity);
+  }
+
+  void push(final E element) {
+    final long b = bottom;
+    final long t = top;
+    AtomicReferenceArray<E> a = elements;
+    if (b - t > a.length() - 1) {
+      a = grow(a, t, b);
+    }
+    a.set((int) (b & (a.length() - 1)), element);
+    bottom = b + 1;
+  }
+
+  E pop() {
+    final long b = bottom - 1;
+    final AtomicReferenceArray<E> a = elements;
+    bottom = b;
+    final long t = top;
+    if (t <= b) {
+      final int index = (int) (b & (a.length() - 1));
+      E element = a.get(index);
+      if (t == b) {
+        // last element, race against stealers
+        if (!TOP_UPDATER.compareAndSet(this, t, t + 1)) {
+          element = null;
+        } else {
+          a.compareAndSet(index, element, null);
+        }
+        bottom = b + 1;
+      } else {
+        a.lazySet(index, null);
+      }
+      return element;
+    } else {
+      bottom = b + 1;
+      return null;
+    }
+  }
+
+  E steal() {
+    final long t = top;
+    final long b = bottom;
+    if (t < b) {
+      final AtomicReferenceArray<E> a = elements;
+      final int index = (int) (t & (a.length() - 1));
+      final E element = a.get(index);
+      if (element == null || !TOP_UPDATER.compareAndSet(this, t, t + 1)) {
+        return null;
+      }
+      a.compareAndSet(index, element, null);
+      return element;
+    }
+    return null;
+  }
+
+  boolean isEmpty() {
+    return bottom - top <= 0;
+  }
+
+  private AtomicReferenceArray<E> grow(final AtomicReferenceArray<E> current, final long t, final long b) {
+    final int size = current.length() << 1;
+    final AtomicReferenceArray<E> grown = new AtomicReferenceArray<>(size);
+    for (long i = t; i < b; i++) {
+      grown.set((int) (i & (size - 1)), current.get((int) (i & (current.length() - 1))));
+    }
+    elements = grown;
+    return grown;
+  }
+}
@@ -1,149 +1,173 @@
 package yona.runtime.threading;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.nodes.Node;
+import yona.YonaException;
+import yona.YonaOptions;
 import yona.runtime.Context;
-import yona.runtime.Dict;
 import yona.runtime.Function;
 import yona.runtime.async.Promise;
 import yona.runtime.exceptions.UndefinedNameException;
 
-import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.LockSupport;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 public final class Threading {
-  static final AtomicIntegerFieldUpdater<Threading> WAITERS_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Threading.class, "waiters");
-
   static final int THREAD_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors() - 2);
-  static final int BUFFER_SIZE = 1024;
-  static final int PRODUCE_SPIN_MAX_ATTEMPTS = 1000;
-  static final int CONSUME_YIELD_MAX_ATTEMPTS = 10;
-  static final int CONSUME_PARK_MAX_ATTEMPTS = 100;
-
-  final Thread[] threads;
-  final Consumer[] consumers;
-  final RingBuffer<Task> ringBuffer;
-  final Lock lock = new ReentrantLock();
-  final Condition condition = lock.newCondition();
 
-  volatile int waiters = 0;
+  final Scheduler scheduler;
+  private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(Batch::new);
+  private final RootCallTarget computationCallTarget;
 
   public Threading(final Context context) {
-    ringBuffer = new RingBuffer<>(BUFFER_SIZE, Task::new);
-    consumers = ringBuffer.subscribe(THREAD_COUNT);
-    threads = new Thread[THREAD_COUNT];
-    for (int i = 0; i < THREAD_COUNT; i++) {
-      Consumer consumer = consumers[i];
-      threads[i] = context.getEnv().createThread(() -> {
-        final Consumer.Callback callback = new Consumer.Callback() {
-          Promise promise;
-          Function function;
-          InteropLibrary dispatch;
-          Node node;
-          Dict localContexts;
-
-          @Override
-          void prepare(final long token) {
-            final Task task = ringBuffer.read(token);
-            promise = task.promise;
-            function = task.function;
-            dispatch = task.dispatch;
-            node = task.node;
-            localContexts = task.localContexts;
-          }
-
-          @Override
-          void advance() {
-            Context.LOCAL_CONTEXTS.set(localContexts);
-            try {
-              execute(promise, function, dispatch, node);
-            } finally {
-              promise = null;
-              function = null;
-              dispatch = null;
-              node = null;
-              Context.LOCAL_CONTEXTS.remove();
-            }
-          }
-        };
-        int yields = 0;
-        int parks = 0;
-        while (true) {
-          if (!consumer.consume(callback)) {
-            if (yields != CONSUME_YIELD_MAX_ATTEMPTS) {
-              Thread.yield();
-              yields++;
-              continue;
-            }
-            yields = 0;
-            if (parks != CONSUME_PARK_MAX_ATTEMPTS) {
-              LockSupport.parkNanos(1L);
-              parks++;
-              continue;
-            }
-            parks = 0;
-            lock.lock();
-            WAITERS_UPDATER.incrementAndGet(this);
-            try {
-              condition.await();
-            } catch (InterruptedException e) {
-              break;
-            } finally {
-              WAITERS_UPDATER.decrementAndGet(this);
-              lock.unlock();
-            }
-          }
-        }
-      }, null, new ThreadGroup("yona-worker"));
+    this.computationCallTarget = Truffle.getRuntime().createCallTarget(new ComputationRootNode(context.getLanguage()));
+    final String schedulerName = context.getEnv().getOptions().get(YonaOptions.Scheduler);
+    switch (schedulerName) {
+      case YonaOptions.SCHEDULER_RING_BUFFER:
+        scheduler = new RingBufferScheduler(context, THREAD_COUNT);
+        break;
+      case YonaOptions.SCHEDULER_WORK_STEALING:
+        scheduler = new WorkStealingScheduler(context, THREAD_COUNT);
+        break;
+      default:
+        throw new YonaException("Unknown scheduler: " + schedulerName + ", expected one of: " + YonaOptions.SCHEDULER_RING_BUFFER + ", " + YonaOptions.SCHEDULER_WORK_STEALING, null);
     }
   }
 
   public void initialize() {
-    for (int i = 0; i < THREAD_COUNT; i++) {
-      threads[i].start();
-    }
+    scheduler.initialize();
   }
 
   @CompilerDirectives.TruffleBoundary
   public void submit(final Promise promise, final Function function, final InteropLibrary dispatch, final Node node) {
-    int spins = 0;
-    long token;
-    while (true) {
-      token = ringBuffer.tryClaim(1);
-      if (token == -1) {
-        if (spins != PRODUCE_SPIN_MAX_ATTEMPTS) {
-          Thread.onSpinWait();
-          spins++;
-          continue;
-        }
-        execute(promise, function, dispatch, node);
-        return;
-      } else {
-        break;
-      }
+    final Batch batch = batches.get();
+    if (batch.holding > 0) {
+      batch.add(new Task(promise, function, dispatch, node, Context.LOCAL_CONTEXTS.get()));
+    } else {
+      scheduler.submit(promise, function, dispatch, node);
     }
-    Task task = ringBuffer.read(token);
-    task.promise = promise;
-    task.function = function;
-    task.dispatch = dispatch;
-    task.node = node;
-    task.localContexts = Context.LOCAL_CONTEXTS.get();
-    ringBuffer.release(token, token);
-    if (waiters != 0) {
-      lock.lock();
-      try {
-        condition.signal();
-      } finally {
-        lock.unlock();
+  }
+
+  /**
+   * Runs a computation of the runtime, rather than a Yona function, as a task on the workers. Batches apply to it the
+   * same way as to functions.
+   *
+   * @return promise of the result of the computation
+   */
+  @CompilerDirectives.TruffleBoundary
+  public Promise submit(final Supplier<Object> computation, final Node node) {
+    final Promise promise = new Promise();
+    final Function function = new Function(null, "$computation", computationCallTarget, 0, false, new Object[]{computation}, null);
+    submit(promise, function, InteropLibrary.getFactory().getUncached(), node);
+    return promise;
+  }
+
+  /**
+   * @return number of the worker threads
+   */
+  public int workerCount() {
+    return THREAD_COUNT;
+  }
+
+  /**
+   * Runs computations of the runtime as tasks, handing them over to the scheduler at once.
+   *
+   * @return promises of the results of the computations, in their order, in an array which can be passed on to
+   * {@link Promise#all(Object[], Node)}
+   */
+  @CompilerDirectives.TruffleBoundary
+  public Object[] submitAll(final Supplier<Object>[] computations, final Node node) {
+    final Object[] promises = new Object[computations.length];
+    final int mark = beginBatch(true);
+    try {
+      for (int i = 0; i < computations.length; i++) {
+        promises[i] = submit(computations[i], node);
       }
+    } finally {
+      endBatch(mark, true);
     }
+    return promises;
+  }
+
+  /**
+   * Opens a batch on the current thread. Tasks submitted while the batch holds submissions are collected and handed
+   * over to the scheduler together once the batch is closed, so that a fan-out of N tasks does not cost N claims and N
+   * wake-ups. A batch must only hold submissions while code which does nothing but submit tasks runs, otherwise the
+   * tasks would wait for that code to finish, see {@link #holdSubmissions()}.
+   *
+   * @param hold whether the batch holds submissions right away
+   * @return mark to be passed to {@link #endBatch(int, boolean)}
+   */
+  @CompilerDirectives.TruffleBoundary
+  public int beginBatch(final boolean hold) {
+    final Batch batch = batches.get();
+    batch.depth++;
+    if (hold) {
+      batch.holding++;
+    }
+    return batch.size;
+  }
+
+  /**
+   * Closes the batch opened by {@link #beginBatch(boolean)}, submitting the tasks collected since it was opened.
+   */
+  @CompilerDirectives.TruffleBoundary
+  public void endBatch(final int mark, final boolean held) {
+    final Batch batch = batches.get();
+    if (held) {
+      batch.holding--;
+    }
+    batch.depth--;
+    if (batch.size > mark) {
+      // copy the tasks out first, inlined tasks may open batches of their own
+      final Task[] tasks = Arrays.copyOfRange(batch.tasks, mark, batch.size);
+      Arrays.fill(batch.tasks, mark, batch.size, null);
+      batch.size = mark;
+      scheduler.submitAll(tasks);
+    }
+  }
+
+  /**
+   * Makes the batch open on the current thread hold submissions, until {@link #releaseSubmissions()}.
+   *
+   * @return whether a batch is open, if not, submissions are not held and must not be released
+   */
+  @CompilerDirectives.TruffleBoundary
+  public boolean holdSubmissions() {
+    final Batch batch = batches.get();
+    if (batch.depth > 0) {
+      batch.holding++;
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  @CompilerDirectives.TruffleBoundary
+  public void releaseSubmissions() {
+    batches.get().holding--;
+  }
+
+  public long queuedCount() {
+    return scheduler.queued.sum();
+  }
+
+  public long spilledCount() {
+    return scheduler.spilled.sum();
+  }
+
+  public long inlinedCount() {
+    return scheduler.inlined.sum();
+  }
+
+  public long rejectedCount() {
+    return scheduler.rejected.sum();
   }
 
   static void execute(final Promise promise, final Function function, final InteropLibrary dispatch, final Node node) {
@@ -157,13 +181,23 @@ public final class Threading {
   }
 
   public void dispose() {
-    for (int i = 0; i < THREAD_COUNT; i++) {
-      try {
-        threads[i].interrupt();
-        threads[i].join();
-      } catch (InterruptedException e) {
-        e.printStackTrace();
+    scheduler.dispose();
+  }
+
+  /**
+   * Tasks collected by the batches open on a thread
+   */
+  private static final class Batch {
+    int depth = 0;
+    int holding = 0;
+    int size = 0;
+    Task[] tasks = new Task[8];
+
+    void add(final Task task) {
+      if (size == tasks.length) {
+        tasks = Arrays.copyOf(tasks, size << 1);
       }
+      tasks[size++] = task;
     }
   }
 }
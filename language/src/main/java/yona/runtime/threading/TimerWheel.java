@@ -0,0 +1,245 @@
+package yona.runtime.threading;
+
+import com.oracle.truffle.api.CompilerDirectives;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed wheel timer shared by the {@code sleep} and {@code timeout} builtins, so that a pending timer is just an entry
+ * in a bucket of the wheel instead of a thread blocked until the timer expires.
+ *
+ * The wheel has {@link #WHEEL_SIZE} buckets of {@link #TICK_NANOS} each, a timer further in the future than one turn
+ * of the wheel counts down the remaining rounds whenever its bucket comes up. Buckets are only ever touched by the
+ * timer thread, new and cancelled timers are handed over to it through lock-free queues. Expired timers of one tick
+ * run together on the io executor, so that slow callbacks do not hold up the wheel. The timer thread parks while no
+ * timer is pending.
+ */
+public final class TimerWheel {
+  static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  static final int WHEEL_SIZE = 512;
+  private static final int MASK = WHEEL_SIZE - 1;
+  /**
+   * Latest deadline a timer can have, so that rounding it up to a whole tick does not overflow
+   */
+  private static final long MAX_DEADLINE = Long.MAX_VALUE - TICK_NANOS;
+
+  private final Executor ioExecutor;
+  private final Thread thread;
+  /**
+   * Heads of the doubly linked lists of timers in each bucket, owned by the timer thread
+   */
+  private final Timeout[] buckets = new Timeout[WHEEL_SIZE];
+  private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+  /**
+   * Number of timers which have neither expired nor been removed from the wheel after they were cancelled
+   */
+  private final AtomicInteger pending = new AtomicInteger(0);
+  private final long startTime = System.nanoTime();
+  /**
+   * Number of the next tick to be processed, owned by the timer thread
+   */
+  private long tick = 0;
+
+  public TimerWheel(final ThreadFactory threadFactory, final Executor ioExecutor) {
+    this.ioExecutor = ioExecutor;
+    this.thread = threadFactory.newThread(this::run);
+  }
+
+  public void initialize() {
+    thread.start();
+  }
+
+  /**
+   * Schedules the task to be run on the io executor once the delay elapses, unless the returned timeout is cancelled
+   * before.
+   */
+  @CompilerDirectives.TruffleBoundary
+  public Timeout schedule(final long delayMillis, final Runnable task) {
+    final long deadline = deadline(System.nanoTime() - startTime, TimeUnit.MILLISECONDS.toNanos(delayMillis));
+    final Timeout timeout = new Timeout(this, task, deadline);
+    final boolean wasEmpty = pending.getAndIncrement() == 0;
+    scheduled.offer(timeout);
+    if (wasEmpty) {
+      LockSupport.unpark(thread);
+    }
+    return timeout;
+  }
+
+  private static long deadline(final long now, final long delayNanos) {
+    try {
+      return Math.min(Math.addExact(now, delayNanos), MAX_DEADLINE);
+    } catch (ArithmeticException e) {
+      // a delay this long never expires in practice, it only has to stay in the future
+      return MAX_DEADLINE;
+    }
+  }
+
+  private void run() {
+    final List<Timeout> expired = new ArrayList<>();
+    while (!Thread.currentThread().isInterrupted()) {
+      if (pending.get() == 0) {
+        LockSupport.park(this);
+        // the wheel is empty, so the ticks which passed in the meantime do not need to be processed one by one
+        tick = Math.max(tick, (System.nanoTime() - startTime) / TICK_NANOS);
+        continue;
+      }
+
+      final long sleepNanos = startTime + (tick + 1) * TICK_NANOS - System.nanoTime();
+      if (sleepNanos > 0) {
+        LockSupport.parkNanos(this, sleepNanos);
+        continue;
+      }
+
+      transferScheduled();
+      removeCancelled();
+      expire((int) tick & MASK, expired);
+      tick++;
+
+      if (!expired.isEmpty()) {
+        final Timeout[] tasks = expired.toArray(new Timeout[0]);
+        expired.clear();
+        try {
+          ioExecutor.execute(() -> {
+            for (Timeout timeout : tasks) {
+              timeout.task.run();
+            }
+          });
+        } catch (RejectedExecutionException ignored) {
+          // the context is being disposed of, nobody is waiting for the timers anymore
+        }
+      }
+    }
+  }
+
+  private void transferScheduled() {
+    Timeout timeout;
+    while ((timeout = scheduled.poll()) != null) {
+      if (timeout.state != Timeout.PENDING) {
+        pending.decrementAndGet();
+        continue;
+      }
+      final long ticks = Math.max((timeout.deadline + TICK_NANOS - 1) / TICK_NANOS, tick);
+      timeout.remainingRounds = (ticks - tick) / WHEEL_SIZE;
+      timeout.bucket = (int) ticks & MASK;
+      final Timeout head = buckets[timeout.bucket];
+      timeout.next = head;
+      if (head != null) {
+        head.prev = timeout;
+      }
+      buckets[timeout.bucket] = timeout;
+    }
+  }
+
+  private void removeCancelled() {
+    Timeout timeout;
+    while ((timeout = cancelled.poll()) != null) {
+      // timers cancelled before they were transferred to the wheel have been dropped by transferScheduled already
+      if (timeout.bucket != Timeout.NO_BUCKET) {
+        remove(timeout);
+        pending.decrementAndGet();
+      }
+    }
+  }
+
+  private void expire(final int bucket, final List<Timeout> expired) {
+    Timeout timeout = buckets[bucket];
+    while (timeout != null) {
+      final Timeout next = timeout.next;
+      if (timeout.remainingRounds <= 0) {
+        remove(timeout);
+        pending.decrementAndGet();
+        // unless it has just been cancelled, then removeCancelled finds it already removed
+        if (Timeout.STATE_UPDATER.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+          expired.add(timeout);
+        }
+      } else {
+        timeout.remainingRounds--;
+      }
+      timeout = next;
+    }
+  }
+
+  private void remove(final Timeout timeout) {
+    if (timeout.bucket == Timeout.NO_BUCKET) {
+      return;
+    }
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      buckets[timeout.bucket] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.bucket = Timeout.NO_BUCKET;
+  }
+
+  /**
+   * Number of pending timers, for tests.
+   */
+  int pending() {
+    return pending.get();
+  }
+
+  public void dispose() {
+    try {
+      thread.interrupt();
+      thread.join();
+    } catch (InterruptedException e) {
+      e.printStackTrace();
+    }
+  }
+
+  public static final class Timeout {
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    private static final int NO_BUCKET = -1;
+
+    private final TimerWheel wheel;
+    private final Runnable task;
+    /**
+     * Nanoseconds since the start of the wheel
+     */
+    private final long deadline;
+    private volatile int state = PENDING;
+
+    // owned by the timer thread
+    private long remainingRounds;
+    private int bucket = NO_BUCKET;
+    private Timeout prev;
+    private Timeout next;
+
+    private Timeout(final TimerWheel wheel, final Runnable task, final long deadline) {
+      this.wheel = wheel;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * @return false if the timer has expired or has been cancelled already
+     */
+    public boolean cancel() {
+      if (STATE_UPDATER.compareAndSet(this, PENDING, CANCELLED)) {
+        wheel.cancelled.offer(this);
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+}
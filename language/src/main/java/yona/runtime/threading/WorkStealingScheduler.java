@@ -0,0 +1,115 @@
+package yona.runtime.threading;
+
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.nodes.Node;
+import yona.runtime.Context;
+import yona.runtime.Function;
+import yona.runtime.async.Promise;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Each worker owns a {@link TaskDeque}. Tasks submitted by a worker are pushed to its own deque and popped in LIFO
+ * order, idle workers steal from the other end of the other workers' deques. Tasks submitted from any other thread
+ * go through a shared injection queue.
+ */
+final class WorkStealingScheduler extends Scheduler {
+  static final int DEQUE_SIZE = 256;
+
+  /**
+   * Index of the worker owning the current thread, -1 for threads which are not workers of this scheduler
+   */
+  final ThreadLocal<Integer> workerIndex = ThreadLocal.withInitial(() -> -1);
+  final TaskDeque<Task>[] deques;
+  final ConcurrentLinkedQueue<Task> injectionQueue = new ConcurrentLinkedQueue<>();
+
+  @SuppressWarnings("unchecked")
+  WorkStealingScheduler(final Context context, final int threadCount) {
+    super(context, threadCount);
+    deques = new TaskDeque[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      deques[i] = new TaskDeque<>(DEQUE_SIZE);
+    }
+  }
+
+  @Override
+  void work(final int index) {
+    workerIndex.set(index);
+    final TaskDeque<Task> deque = deques[index];
+    final BooleanSupplier hasWork = this::hasWork;
+    while (true) {
+      Task task = deque.pop();
+      if (task == null) {
+        task = injectionQueue.poll();
+      }
+      if (task == null) {
+        task = steal(index);
+      }
+      if (task != null) {
+        if (idleWorkers.hasIdle() && hasWork()) {
+          // more work is waiting, e.g. from a batch submission, pass the wake-up on
+          idleWorkers.signal();
+        }
+        run(task);
+      } else if (!idleWorkers.await(index, hasWork)) {
+        break;
+      }
+    }
+  }
+
+  private Task steal(final int index) {
+    final int n = deques.length;
+    final int start = ThreadLocalRandom.current().nextInt(n);
+    for (int i = 0; i < n; i++) {
+      final int victim = (start + i) % n;
+      if (victim != index) {
+        final Task task = deques[victim].steal();
+        if (task != null) {
+          return task;
+        }
+      }
+    }
+    return null;
+  }
+
+  private boolean hasWork() {
+    if (!injectionQueue.isEmpty()) {
+      return true;
+    }
+    for (TaskDeque<Task> deque : deques) {
+      if (!deque.isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  void submit(final Promise promise, final Function function, final InteropLibrary dispatch, final Node node) {
+    final Task task = new Task(promise, function, dispatch, node, Context.LOCAL_CONTEXTS.get());
+    final int index = workerIndex.get();
+    if (index != -1) {
+      deques[index].push(task);
+    } else {
+      injectionQueue.offer(task);
+    }
+    queued.increment();
+    idleWorkers.signal();
+  }
+
+  @Override
+  void submitAll(final Task[] tasks) {
+    final int index = workerIndex.get();
+    for (Task task : tasks) {
+      if (index != -1) {
+        deques[index].push(task);
+      } else {
+        injectionQueue.offer(task);
+      }
+    }
+    queued.add(tasks.length);
+    idleWorkers.signal();
+  }
+}
@@ -13,6 +13,27 @@ public class AsyncTest extends CommonTest {
     assertEquals(5l, ret);
   }
 
+  @Test
+  public void asyncTupleTest() {
+    long ret = context.eval(YonaLanguage.ID, "case (async \\-> 1, async \\-> 2, async \\-> 3) of\n" +
+        "(1, 2, 3) -> 4\n" +
+        "_         -> 5\n" +
+        "end\n").asLong();
+    assertEquals(4l, ret);
+  }
+
+  @Test
+  public void asyncSequenceTest() {
+    long ret = context.eval(YonaLanguage.ID, "let xs = [async \\-> 1, async \\-> 2, async \\-> 3] in Seq::foldl xs (\\acc val -> acc * 10 + val) 0").asLong();
+    assertEquals(123l, ret);
+  }
+
+  @Test
+  public void asyncGeneratorTest() {
+    long ret = context.eval(YonaLanguage.ID, "let xs = [async \\-> x * 2 | x <- [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]] in Seq::foldl xs (\\acc val -> acc + val) 0").asLong();
+    assertEquals(110l, ret);
+  }
+
   @Test
   public void asyncCaseTest() {
     long ret = context.eval(YonaLanguage.ID, "case (async \\-> (1, 2)) of\n" +
@@ -23,6 +44,18 @@ public class AsyncTest extends CommonTest {
     assertEquals(4l, ret);
   }
 
+  @Test
+  public void asyncCaseWithLocalsTest() {
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "x = 5\n" +
+        "fun = \\a -> a * x\n" +
+        "in case (async \\-> (1, 2)) of\n" +
+        "(1, y) -> fun (x + y)\n" +
+        "_      -> 3\n" +
+        "end\n").asLong();
+    assertEquals(35l, ret);
+  }
+
   @Test
   public void functionCallWithAsyncArgTest() {
     long ret = context.eval(YonaLanguage.ID, "let fun = \\argone argtwo -> argone + argtwo in fun 1 (async \\-> 2)").asLong();
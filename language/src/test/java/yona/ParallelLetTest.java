@@ -0,0 +1,50 @@
+package yona;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs all of the {@link AsyncTest} tests with every independent binding of a let expression run as an async task.
+ */
+public class ParallelLetTest extends AsyncTest {
+  @BeforeAll
+  public static void initEngine() {
+    context = Context.newBuilder().allowAllAccess(true).environment("YONA_STDLIB_HOME", "lib-yona").option("yona.ParallelLet", "true").option("yona.ParallelLetThreshold", "0").build();
+  }
+
+  @Test
+  public void independentBindingsTest() {
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "xs = [x * 2 | x <- [1, 2, 3, 4, 5]]\n" +
+        "fun = \\n -> Seq::foldl xs (\\acc val -> acc + val * n) 0\n" +
+        "a = fun 1\n" +
+        "b = fun 2\n" +
+        "(c, _) = (fun 3, 0)\n" +
+        "in a + b + c").asLong();
+    assertEquals(180L, ret);
+  }
+
+  @Test
+  public void bindingsWithFunctionArgumentsTest() {
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "fun = \\x y -> let\n" +
+        "  a = x * 2\n" +
+        "  b = y * 3\n" +
+        "  in a + b\n" +
+        "in fun 1 2 + fun 3 4").asLong();
+    assertEquals(26L, ret);
+  }
+
+  @Test
+  public void failingBindingTest() {
+    PolyglotException ex = assertThrows(PolyglotException.class, () -> context.eval(YonaLanguage.ID, "let\n" +
+        "a = 1\n" +
+        "b = raise :parallel_error \"binding failed\"\n" +
+        "in a").asLong());
+    assertEquals("YonaError <parallel_error>: binding failed", ex.getMessage());
+  }
+}
@@ -528,7 +528,31 @@ public class PatternExpressionTest extends CommonTest {
     assertEquals(1l, array[0]);
     assertEquals(2l, array[1]);
   }
-  
+
+  @Test
+  public void headTailsHeadEmptyTailsPatternTest() {
+    Value sequence = context.eval(YonaLanguage.ID, "\\arg -> case arg of\n" +
+        "0 -| tail |- 3 |- 4 -> tail\n" +
+        "_ -> 9\n" +
+        "end\n").execute(Seq.sequence(0l, 3l, 4l));
+
+    assertEquals(0, sequence.as(Object[].class).length);
+  }
+
+  @Test
+  public void headTailsHeadLongSequencePatternTest() {
+    Seq sequence = Seq.EMPTY;
+    for (long i = 1; i <= 100; i++) {
+      sequence = sequence.insertLast(i);
+    }
+    long ret = context.eval(YonaLanguage.ID, "\\arg -> case arg of\n" +
+        "1 -| 2 -| tail |- 99 |- 100 -> (Seq::len tail) * 1000 + Seq::lookup 0 tail + Seq::lookup 95 tail\n" +
+        "_ -> 9\n" +
+        "end\n").execute(sequence).asLong();
+
+    assertEquals(96101l, ret);
+  }
+
   @Test
   public void nestedCaseSyntaxTest() {
     long ret = context.eval(YonaLanguage.ID, "case [1, 2, 3] of\n" +
@@ -600,4 +624,14 @@ public class PatternExpressionTest extends CommonTest {
 
     assertEquals(1l, ret);
   }
+
+  @Test
+  public void bindingsOfChangingTypesTest() {
+    long ret = context.eval(YonaLanguage.ID, "let mod = module TestMod exports testfun as\n" +
+        "testfun (1, x -| xs) = Seq::len xs + 1\n" +
+        "testfun (_, y) = Seq::len y\n" +
+        "end in mod::testfun (1, [2, 3]) + mod::testfun (1, [true]) + mod::testfun (2, \"ab\") + mod::testfun (1, [4, 5, 6])").asLong();
+
+    assertEquals(8l, ret);
+  }
 }
@@ -0,0 +1,122 @@
+package yona;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchedulerTest {
+  private static final int N = 500;
+
+  @ParameterizedTest
+  @ValueSource(strings = {YonaOptions.OVERFLOW_GROW, YonaOptions.OVERFLOW_INLINE, YonaOptions.OVERFLOW_FAIL})
+  public void overflowPolicyTest(String policy) {
+    // each step submits a single task
+    runOverflowPolicyTest(policy, "Seq::foldl " + values() + " (\\acc x -> acc + (async \\-> x)) 0");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {YonaOptions.OVERFLOW_GROW, YonaOptions.OVERFLOW_INLINE, YonaOptions.OVERFLOW_FAIL})
+  public void batchOverflowPolicyTest(String policy) {
+    // the generator submits all tasks as a single batch
+    runOverflowPolicyTest(policy, "let xs = [async \\-> x | x <- " + values() + "] in Seq::foldl xs (\\acc val -> acc + val) 0");
+  }
+
+  @Test
+  public void nestedAsyncNotHeldByBatchTest() {
+    // the task is submitted before the rest of the call argument is evaluated, rather than once the whole argument is
+    Context context = Context.newBuilder().allowAllAccess(true).environment("YONA_STDLIB_HOME", "lib-yona").build();
+    try {
+      long ret = context.eval(YonaLanguage.ID, "let\n" +
+          "  before = " + submittedCount("before_stats") + "\n" +
+          "  pass = \\x -> x\n" +
+          "in pass (let a = async \\-> 1 in let after = " + submittedCount("after_stats") + " in (after - before) + a)").asLong();
+      assertEquals(2L, ret);
+    } finally {
+      try {
+        context.eval(Source.newBuilder(YonaLanguage.ID, "shutdown", "shutdown").internal(true).build());
+      } catch (IOException ignored) {
+      }
+      context.close();
+    }
+  }
+
+  @Test
+  public void negativeSpinAttemptsTest() {
+    try (Context context = Context.newBuilder().allowAllAccess(true).environment("YONA_STDLIB_HOME", "lib-yona")
+        .option("yona.SchedulerSpinAttempts", "-1")
+        .build()) {
+      assertThrows(PolyglotException.class, () -> context.eval(YonaLanguage.ID, "1"));
+    }
+  }
+
+  private static String submittedCount(String statsName) {
+    return "(let " + statsName + " = System::scheduler_stats in " +
+        "(Dict::lookup :queued " + statsName + ") + (Dict::lookup :spilled " + statsName + ") + " +
+        "(Dict::lookup :inlined " + statsName + ") + (Dict::lookup :rejected " + statsName + "))";
+  }
+
+  private static long schedulerStat(Context context, String name) {
+    return context.eval(YonaLanguage.ID, "let stats = System::scheduler_stats in Dict::lookup :" + name + " stats").asLong();
+  }
+
+  private static String values() {
+    return LongStream.rangeClosed(1, N).mapToObj(Long::toString).collect(Collectors.joining(", ", "[", "]"));
+  }
+
+  private static void runOverflowPolicyTest(String policy, String sum) {
+    Context context = Context.newBuilder().allowAllAccess(true).environment("YONA_STDLIB_HOME", "lib-yona")
+        .option("yona.SchedulerBufferSize", "2")
+        .option("yona.SchedulerSpinAttempts", "0")
+        .option("yona.SchedulerOverflow", policy)
+        .build();
+    try {
+      long ret = context.eval(YonaLanguage.ID, "try\n" +
+          "  " + sum + "\n" +
+          "catch\n" +
+          "  (:overflow, _, _) -> -1\n" +
+          "end").asLong();
+      long spilled = schedulerStat(context, "spilled");
+      long inlined = schedulerStat(context, "inlined");
+      long rejected = schedulerStat(context, "rejected");
+      long total = schedulerStat(context, "queued") + spilled + inlined + rejected;
+      switch (policy) {
+        case YonaOptions.OVERFLOW_GROW:
+          assertEquals(N * (N + 1) / 2, ret);
+          assertEquals(N, total);
+          assertTrue(spilled > 0, "no task spilled over");
+          assertEquals(0, inlined + rejected);
+          break;
+        case YonaOptions.OVERFLOW_INLINE:
+          assertEquals(N * (N + 1) / 2, ret);
+          assertEquals(N, total);
+          assertTrue(inlined > 0, "no task inlined");
+          assertEquals(0, spilled + rejected);
+          break;
+        case YonaOptions.OVERFLOW_FAIL:
+          // a failed promise stops the evaluation of the remaining elements
+          assertEquals(-1L, ret, ":overflow not raised");
+          assertTrue(rejected > 0, "no task rejected");
+          assertEquals(0, spilled + inlined);
+          assertTrue(total <= N);
+          break;
+      }
+    } finally {
+      try {
+        context.eval(Source.newBuilder(YonaLanguage.ID, "shutdown", "shutdown").internal(true).build());
+      } catch (IOException ignored) {
+      }
+      context.close();
+    }
+  }
+}
@@ -4,6 +4,7 @@ import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Value;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import yona.ast.call.InvokeNode;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -241,6 +242,37 @@ public class SimpleExpressionTest extends CommonTest {
     assertEquals(6L, ret);
   }
 
+  @Test
+  public void partialApplicationOfPartialApplicationTest() {
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "fun = \\a b c -> a * 100 + b * 10 + c\n" +
+        "partialOne = fun 1\n" +
+        "partialTwo = partialOne 2\n" +
+        "partialThree = fun 6\n" +
+        "in partialTwo 3 + partialOne 4 5 + partialThree 7 8").asLong();
+    assertEquals(123L + 145L + 678L, ret);
+  }
+
+  @Test
+  public void partialApplicationsInFoldTest() {
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "add = \\a b -> a + b\n" +
+        "step = \\acc x -> let inc = add x in inc acc\n" +
+        "in Seq::foldl [1, 2, 3, 4] step 0").asLong();
+    assertEquals(10L, ret);
+  }
+
+  @Test
+  public void partialApplicationsOfManyFunctionsTest() {
+    // the same call site partially applies a different function on every other step
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "add = \\a b -> a + b\n" +
+        "mul = \\a b -> a * b\n" +
+        "step = \\acc x -> let f = if x % 2 == 0 then add else mul in let partial = f x in partial acc\n" +
+        "in Seq::foldl [1, 2, 3, 4, 5, 6] step 1").asLong();
+    assertEquals(((((1L * 1 + 2) * 3) + 4) * 5) + 6, ret);
+  }
+
   @Test
   public void curriedLambdaInLetZeroArgsTest() {
     long ret = context.eval(YonaLanguage.ID, "let\n" +
@@ -637,6 +669,19 @@ public class SimpleExpressionTest extends CommonTest {
     assertEquals(2L, ret);
   }
 
+  @Test
+  public void differentRecordTypesFieldAccessTest() {
+    long ret = context.eval(YonaLanguage.ID, "module RecordModule exports funone as\n" +
+        "record TestRecord = (argone, argtwo)\n" +
+        "record OtherRecord = (argzero, argtwo)\n" +
+        "argtwo_of rec = rec.argtwo\n" +
+        "bump rec = rec(argtwo = rec.argtwo + 1)\n" +
+        "funone = argtwo_of (bump (TestRecord(argtwo = 1))) * 10 + argtwo_of (bump (OtherRecord(argzero = 0, argtwo = 2))) + argtwo_of (bump (TestRecord(argtwo = 3))) * 100\n" +
+        "end").getMember("funone").execute().asLong();
+
+    assertEquals(423L, ret);
+  }
+
   @Test
   public void closureTest() {
     long ret = context.eval(YonaLanguage.ID, "\\a b -> let\n" +
@@ -646,6 +691,57 @@ public class SimpleExpressionTest extends CommonTest {
     assertEquals(3L, ret);
   }
 
+  @Test
+  public void closuresCaptureOwnValuesTest() {
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "adder = \\n -> \\m -> n + m\n" +
+        "add1 = adder 1\n" +
+        "add10 = adder 10\n" +
+        "in add1 100 + add10 100").asLong();
+
+    assertEquals(211L, ret);
+  }
+
+  @Test
+  public void recursiveClosureTest() {
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "sum = \\n -> if n == 0 then 0 else n + sum (n - 1)\n" +
+        "in sum 10").asLong();
+
+    assertEquals(55L, ret);
+  }
+
+  @Test
+  public void selfTailCallTest() {
+    long dispatchedTailCalls = InvokeNode.dispatchedTailCallCount();
+    long ret = context.eval(YonaLanguage.ID, "let\n" +
+        "    summer = module Summer exports run as\n" +
+        "        run 0 acc = acc\n" +
+        "        run n acc = run (n - 1) (acc + n)\n" +
+        "    end\n" +
+        "in\n" +
+        "    summer::run 100000 0").asLong();
+
+    assertEquals(5000050000L, ret);
+    // the self tail calls are run by the root of the function, rather than escaping to the invoke node
+    assertEquals(dispatchedTailCalls, InvokeNode.dispatchedTailCallCount());
+  }
+
+  @Test
+  public void mutualTailCallTest() {
+    boolean ret = context.eval(YonaLanguage.ID, "let\n" +
+        "    parity = module Parity exports is_even as\n" +
+        "        is_even 0 = true\n" +
+        "        is_even n = is_odd (n - 1)\n" +
+        "        is_odd 0 = false\n" +
+        "        is_odd n = is_even (n - 1)\n" +
+        "    end\n" +
+        "in\n" +
+        "    parity::is_even 10001").asBoolean();
+
+    assertFalse(ret);
+  }
+
   @Test
   public void calculatePiTest() {
     double ret = context.eval(YonaLanguage.ID, "let\n" +
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.TestInstance;
 
 import java.io.ByteArrayInputStream;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,6 +44,58 @@ public class StdLibTest extends CommonTest {
     assertEquals(-6L, ret);
   }
 
+  @Test
+  public void sequenceReduceLeftToSeqTest() {
+    Value ret = context.eval(YonaLanguage.ID, "Seq::reducel [-2,-1,0,1,2] <| Transducers::filter (\\val -> val > -2) (Reducers::to_seq)");
+    assertEquals(4, ret.getArraySize());
+    assertEquals(-1L, ret.getArrayElement(0).asLong());
+    assertEquals(2L, ret.getArrayElement(3).asLong());
+  }
+
+  @Test
+  public void sequenceReduceLeftToSeqReusedAccumulatorTest() {
+    Value ret = context.eval(YonaLanguage.ID, "let\n" +
+        "  (init, step, complete) = Reducers::to_seq\n" +
+        "  twice = \\acc val -> let discarded = step acc val in step acc (val * 10)\n" +
+        "in Seq::reducel [1, 2, 3] (init, twice, complete)");
+    assertEquals(3, ret.getArraySize());
+    assertEquals(10L, ret.getArrayElement(0).asLong());
+    assertEquals(20L, ret.getArrayElement(1).asLong());
+    assertEquals(30L, ret.getArrayElement(2).asLong());
+  }
+
+  @Test
+  public void sequenceParallelMapTest() {
+    Value ret = context.eval(YonaLanguage.ID, "Seq::parallel_map [1, 2, 3] \\x -> x * 2");
+    assertEquals(3, ret.getArraySize());
+    assertEquals(6L, ret.getArrayElement(2).asLong());
+  }
+
+  @Test
+  public void sequenceParallelMapLargeTest() {
+    String seq = LongStream.range(0, 20000).mapToObj(Long::toString).collect(Collectors.joining(", ", "(JSON::parse \"[", "]\")"));
+    Value ret = context.eval(YonaLanguage.ID, "Seq::parallel_map " + seq + " \\x -> x * 2");
+    assertEquals(20000, ret.getArraySize());
+    assertEquals(0L, ret.getArrayElement(0).asLong());
+    assertEquals(20000L, ret.getArrayElement(10000).asLong());
+    assertEquals(39998L, ret.getArrayElement(19999).asLong());
+  }
+
+  @Test
+  public void sequenceParallelReduceLargeTest() {
+    String seq = LongStream.range(0, 20000).mapToObj(Long::toString).collect(Collectors.joining(", ", "(JSON::parse \"[", "]\")"));
+    long ret = context.eval(YonaLanguage.ID, "Seq::parallel_reduce " + seq + " (\\a b -> a + b) (0, \\acc val -> acc + val, identity)").asLong();
+    assertEquals(199990000L, ret);
+  }
+
+  @Test
+  public void sequenceParallelReduceToSeqTest() {
+    String seq = LongStream.range(0, 20000).mapToObj(Long::toString).collect(Collectors.joining(", ", "(JSON::parse \"[", "]\")"));
+    Value ret = context.eval(YonaLanguage.ID, "Seq::parallel_reduce " + seq + " (\\a b -> a ++ b) <| Transducers::filter (\\val -> val % 2 == 0) (Reducers::to_seq)");
+    assertEquals(10000, ret.getArraySize());
+    assertEquals(19998L, ret.getArrayElement(9999).asLong());
+  }
+
   @Test
   public void sequenceReduceRightFilterTest() {
     long ret = context.eval(YonaLanguage.ID, "Seq::reducer [-2,-1,0,1,2] <| Transducers::filter \\val -> val < 0 (0, \\acc val -> acc + val, \\acc -> acc * 2)").asLong();
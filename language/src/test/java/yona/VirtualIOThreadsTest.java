@@ -0,0 +1,47 @@
+package yona;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Blocking builtins with the virtual IO threads, on JDKs without virtual threads this checks the fallback.
+ */
+public class VirtualIOThreadsTest extends CommonTest {
+  @BeforeAll
+  public static void initEngine() {
+    context = Context.newBuilder().allowAllAccess(true).environment("YONA_STDLIB_HOME", "lib-yona").option("yona.IOThreads", YonaOptions.IO_THREADS_VIRTUAL).build();
+  }
+
+  @Test
+  public void sleepTest() {
+    long ret = context.eval(YonaLanguage.ID, "let _ = sleep (:millis, 10) in 1").asLong();
+    assertEquals(1L, ret);
+  }
+
+  @Test
+  public void timeoutPromiseTest() {
+    long ret = context.eval(YonaLanguage.ID, "timeout (:millis, 500) (let _ = sleep (:millis, 100) in 1)").asLong();
+    assertEquals(1L, ret);
+  }
+
+  @Test
+  public void timeoutExpiredTest() {
+    PolyglotException ex = assertThrows(PolyglotException.class, () -> context.eval(YonaLanguage.ID, "timeout (:millis, 100) (sleep (:seconds, 2))"));
+    assertEquals("Async value timed out", ex.getMessage());
+  }
+
+  @Test
+  public void runProcessTest() {
+    Value tuple = context.eval(YonaLanguage.ID, "System::run [\"echo\", \"ahoj\"]");
+    Object[] array = tuple.as(Object[].class);
+    assertEquals(0L, array[0]);
+    assertEquals("ahoj", ((List) array[1]).get(0));
+  }
+}
@@ -0,0 +1,14 @@
+package yona;
+
+import org.graalvm.polyglot.Context;
+import org.junit.jupiter.api.BeforeAll;
+
+/**
+ * Runs all of the {@link AsyncTest} tests with the work-stealing scheduler.
+ */
+public class WorkStealingAsyncTest extends AsyncTest {
+  @BeforeAll
+  public static void initEngine() {
+    context = Context.newBuilder().allowAllAccess(true).environment("YONA_STDLIB_HOME", "lib-yona").option("yona.Scheduler", YonaOptions.SCHEDULER_WORK_STEALING).build();
+  }
+}
@@ -0,0 +1,89 @@
+package yona.ast.expression;
+
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import org.junit.jupiter.api.Test;
+import yona.ast.FunctionRootNode;
+import yona.ast.expression.value.IntegerNode;
+import yona.ast.local.ReadArgumentNode;
+import yona.ast.pattern.MatchNode;
+import yona.ast.pattern.PatternMatchable;
+import yona.ast.pattern.PatternNode;
+import yona.ast.pattern.SequenceMatchNode;
+import yona.ast.pattern.TupleMatchNode;
+import yona.ast.pattern.UnderscoreMatchNode;
+import yona.ast.pattern.ValueMatchNode;
+import yona.runtime.Seq;
+import yona.runtime.Tuple;
+import yona.runtime.UninitializedFrameSlot;
+import yona.runtime.async.Promise;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CaseNodeTest {
+  private static final int N = 10000;
+
+  private static CaseNode caseNode() {
+    return new CaseNode(new ReadArgumentNode(0), new PatternMatchable[]{
+        new PatternNode(new ValueMatchNode(new IntegerNode(1L)), new IntegerNode(10L)),
+        new PatternNode(new UnderscoreMatchNode(), new IntegerNode(20L))
+    });
+  }
+
+  private static CaseNode mixedCaseNode() {
+    return new CaseNode(new ReadArgumentNode(0), new PatternMatchable[]{
+        new PatternNode(new TupleMatchNode(new ValueMatchNode(new IntegerNode(1L)), new UnderscoreMatchNode()), new IntegerNode(1L)),
+        new PatternNode(new TupleMatchNode(new ValueMatchNode(new IntegerNode(2L)), new UnderscoreMatchNode()), new IntegerNode(2L)),
+        new PatternNode(new SequenceMatchNode(new MatchNode[]{new UnderscoreMatchNode(), new UnderscoreMatchNode()}), new IntegerNode(3L)),
+        new PatternNode(new ValueMatchNode(new IntegerNode(5L)), new IntegerNode(4L)),
+        new PatternNode(new TupleMatchNode(new UnderscoreMatchNode(), new ValueMatchNode(new IntegerNode(3L))), new IntegerNode(5L)),
+        new PatternNode(new UnderscoreMatchNode(), new IntegerNode(6L))
+    });
+  }
+
+  private static RootCallTarget callTarget(CaseNode caseNode) {
+    FunctionRootNode rootNode = new FunctionRootNode(null, new FrameDescriptor(UninitializedFrameSlot.INSTANCE), caseNode, null, null, "case");
+    return Truffle.getRuntime().createCallTarget(rootNode);
+  }
+
+  @Test
+  public void testValuesStayOffPromisePath() {
+    CaseNode caseNode = caseNode();
+    RootCallTarget callTarget = callTarget(caseNode);
+    for (int i = 0; i < N; i++) {
+      assertEquals(10L, callTarget.call(1L));
+      assertEquals(20L, callTarget.call(2L));
+    }
+    // the promise path, which deoptimizes once, is only taken for the first promise
+    assertFalse(caseNode.hasSeenPromise());
+  }
+
+  @Test
+  public void testFulfilledPromise() {
+    CaseNode caseNode = caseNode();
+    RootCallTarget callTarget = callTarget(caseNode);
+    assertEquals(10L, callTarget.call(1L));
+    assertEquals(20L, callTarget.call(new Promise(2L)));
+    assertTrue(caseNode.hasSeenPromise());
+    assertEquals(10L, callTarget.call(1L));
+  }
+
+  @Test
+  public void testDispatchKeepsClauseOrder() {
+    CaseNode caseNode = mixedCaseNode();
+    RootCallTarget callTarget = callTarget(caseNode);
+    for (int i = 0; i < N; i++) {
+      assertEquals(1L, callTarget.call(new Tuple(1L, 3L)));
+      assertEquals(2L, callTarget.call(new Tuple(2L, 0L)));
+      assertEquals(3L, callTarget.call(Seq.sequence(1L, 2L)));
+      assertEquals(4L, callTarget.call(5L));
+      assertEquals(5L, callTarget.call(new Tuple(4L, 3L)));
+      assertEquals(6L, callTarget.call(new Tuple(4L, 4L)));
+      assertEquals(6L, callTarget.call(new Tuple(1L, 2L, 3L)));
+      assertEquals(6L, callTarget.call(Seq.sequence(1L)));
+      assertEquals(6L, callTarget.call(6L));
+    }
+    assertTrue(caseNode.getDispatch().countTests() > 0);
+  }
+}
@@ -1,6 +1,7 @@
 package yona.ast.expression;
 
 import org.junit.jupiter.api.Test;
+import yona.ast.AliasNode;
 import yona.ast.ExpressionNode;
 import yona.ast.StringPartsNode;
 import yona.ast.call.ModuleCallNode;
@@ -9,6 +10,7 @@ import yona.ast.pattern.ValueMatchNode;
 import yona.runtime.Seq;
 import yona.runtime.Set;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class PatternLetNodeTest {
@@ -47,4 +49,18 @@ public class PatternLetNodeTest {
 
     assertEquals(expectedAliasTree.toString(), aliasTree.toString());
   }
+
+  @Test
+  public void batchesTest() {
+    PatternAliasNode keysFile = new PatternAliasNode(new ValueMatchNode(new IdentifierNode(null, "keys_file", null)), new ModuleCallNode(null, new FQNNode(new String[0], "File"), "open", new ExpressionNode[]{new StringPartsNode(new ExpressionNode[]{new StringNode("tests/Keys.txt")}), new SetNode(new ExpressionNode[]{new SymbolNode("read")})}, null));
+    PatternAliasNode valuesFile = new PatternAliasNode(new ValueMatchNode(new IdentifierNode(null, "values_file", null)), new ModuleCallNode(null, new FQNNode(new String[0], "File"), "open", new ExpressionNode[]{new StringPartsNode(new ExpressionNode[]{new StringNode("tests/Values.txt")}), new SetNode(new ExpressionNode[]{new SymbolNode("read")})}, null));
+    PatternAliasNode keys = new PatternAliasNode(new ValueMatchNode(new IdentifierNode(null, "keys", null)), new ModuleCallNode(null, new FQNNode(new String[0], "File"), "read_lines", new ExpressionNode[]{new IdentifierNode(null, "keys_file", null)}, null));
+    Set globallyProvidedIdentifiers = Set.set("println");
+
+    AliasNode[][] batches = PatternLetNode.resolveDependencies(Seq.sequence(keysFile, valuesFile, keys), globallyProvidedIdentifiers).batches().toArray(AliasNode[].class);
+
+    assertEquals(2, batches.length);
+    assertArrayEquals(new AliasNode[]{keysFile, valuesFile}, batches[0]);
+    assertArrayEquals(new AliasNode[]{keys}, batches[1]);
+  }
 }
@@ -0,0 +1,50 @@
+package yona.runtime;
+
+import com.oracle.truffle.api.Assumption;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalsTest {
+  @Test
+  public void testUndefinedName() {
+    Globals globals = new Globals();
+    assertNull(globals.cell("name"));
+    assertFalse(globals.contains("name"));
+    assertEquals(Unit.INSTANCE, globals.lookup("name"));
+  }
+
+  @Test
+  public void testDefine() {
+    Globals globals = new Globals();
+    GlobalCell cell = globals.define("name", 1L);
+    assertSame(cell, globals.cell("name"));
+    assertTrue(globals.contains("name"));
+    assertEquals(1L, globals.lookup("name"));
+    assertTrue(cell.getAssumption().isValid());
+  }
+
+  @Test
+  public void testRedefineInvalidatesOnlyItsCell() {
+    Globals globals = new Globals();
+    GlobalCell cell = globals.define("name", 1L);
+    GlobalCell otherCell = globals.define("other", 2L);
+    Assumption assumption = cell.getAssumption();
+    Assumption otherAssumption = otherCell.getAssumption();
+
+    assertSame(cell, globals.define("name", 3L));
+    assertFalse(assumption.isValid());
+    assertTrue(cell.getAssumption().isValid());
+    assertEquals(3L, cell.getValue());
+    assertTrue(otherAssumption.isValid());
+    assertEquals(2L, otherCell.getValue());
+  }
+
+  @Test
+  public void testFold() {
+    Globals globals = new Globals();
+    globals.define("one", 1L);
+    globals.define("two", 2L);
+    assertEquals(3L, (long) globals.fold(0L, (acc, name, value) -> acc + (long) value));
+  }
+}
@@ -477,6 +477,39 @@ public class SeqTest {
     });
   }
 
+  @Test
+  public void testUtf8LeafIndex() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < M; i++) {
+      sb.appendCodePoint(i % 3 == 0 && i > M / 2 ? CODE_POINTS[(i * 7919) % CODE_POINTS.length] : 'a' + i % 26);
+    }
+    String str = sb.toString();
+    Seq seq = Seq.fromCharSequence(str);
+    int[] codePoints = str.codePoints().toArray();
+    for (int i = 0; i < codePoints.length; i++) {
+      assertEquals(codePoints[i], seq.lookup(i, null));
+    }
+    for (LeafCursor cursor = new LeafCursor(seq); cursor.leaf != null; cursor.nextLeaf()) {
+      if (cursor.leaf instanceof byte[]) {
+        byte[] bytes = (byte[]) cursor.leaf;
+        int len = nodeLength(bytes);
+        boolean isAscii = true;
+        for (int i = 0; i < len; i++) {
+          isAscii &= (int) nodeLookup(bytes, i) < 0x80;
+        }
+        assertEquals(isAscii, leafBytesEnd(bytes) == bytes.length);
+        assertEquals(isAscii ? 0 : utf8IndexLength(len), bytes.length - leafBytesEnd(bytes));
+      }
+    }
+    byte[] utf8 = str.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocate(utf8.length);
+    assertTrue(seq.asBytes(buffer));
+    assertArrayEquals(utf8, buffer.array());
+    assertEquals(str, seq.asJavaString(null));
+    assertEquals(seq, Seq.fromCharSequence(str));
+    assertNotEquals(seq, Seq.fromCharSequence(str.substring(0, str.length() - 1) + "!"));
+  }
+
   @Test
   public void testAsChars() {
     Seq seq = EMPTY;
@@ -529,6 +562,159 @@ public class SeqTest {
     }
   }
 
+  @Test
+  public void testEqualsHashAcrossLeafKinds() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < M; i++) {
+      sb.appendCodePoint(CODE_POINTS[(i * 7919) % CODE_POINTS.length]);
+    }
+    Seq utf8 = Seq.fromCharSequence(sb);
+    Seq codePoints = EMPTY;
+    int[] sbCodePoints = sb.codePoints().toArray();
+    for (int i = sbCodePoints.length - 1; i >= 0; i--) {
+      codePoints = codePoints.insertFirst(sbCodePoints[i]);
+    }
+    assertEquals(utf8, codePoints);
+    assertEquals(codePoints, utf8);
+    assertEquals(utf8.calculateMurmur3Hash(0L), codePoints.calculateMurmur3Hash(0L));
+    assertTrue(utf8.isString());
+    assertTrue(codePoints.isString());
+    assertTrue(utf8.contains(sbCodePoints[M - 1], null));
+    assertFalse(utf8.contains((long) sbCodePoints[M - 1], null));
+
+    Seq changed = codePoints.replace(M / 2, -1, null);
+    assertNotEquals(utf8, changed);
+    assertNotEquals(changed, utf8);
+    assertTrue(changed.contains(-1, null));
+    assertFalse(utf8.contains(-1, null));
+  }
+
+  @Test
+  public void testEqualsHashOfBytesAcrossLeafKinds() {
+    byte[] data = new byte[M];
+    for (int i = 0; i < M; i++) {
+      data[i] = BYTES[(i * 31) % BYTES.length];
+    }
+    Seq bytes = Seq.fromBytes(data);
+    Seq values = EMPTY;
+    for (byte b : data) {
+      values = values.insertLast(b);
+    }
+    assertEquals(bytes, values);
+    assertEquals(bytes.calculateMurmur3Hash(0L), values.calculateMurmur3Hash(0L));
+    assertFalse(bytes.isString());
+    assertTrue(bytes.contains(data[M / 2], null));
+    assertFalse(bytes.contains((int) data[M / 2], null));
+
+    Seq other = Seq.fromBytes(data).replace(M - 100, (byte) (data[M - 100] + 1), null);
+    assertNotEquals(bytes, other);
+    assertNotEquals(Seq.fromBytes(data).take(M - 1, null), bytes.drop(1, null));
+  }
+
+  @Test
+  public void testPrimitiveLeaves() {
+    Seq longs = EMPTY;
+    Seq doubles = EMPTY;
+    for (int i = 0; i < M; i++) {
+      longs = longs.insertLast((long) i);
+      doubles = doubles.insertLast((double) i);
+    }
+    assertEquals(treeSize(longs), countLeaves(longs, long[].class));
+    assertEquals(treeSize(doubles), countLeaves(doubles, double[].class));
+    for (int i = 0; i < M; i++) {
+      assertEquals((long) i, longs.lookup(i, null));
+      assertEquals((double) i, doubles.lookup(i, null));
+    }
+
+    Seq boxed = longs.map(o -> o);
+    assertEquals(treeSize(boxed), countLeaves(boxed, long[].class));
+    assertEquals(longs, boxed);
+    assertEquals(longs.calculateMurmur3Hash(0L), boxed.calculateMurmur3Hash(0L));
+    assertNotEquals(longs, doubles);
+    assertTrue(longs.contains((long) (M / 2), null));
+    assertFalse(longs.contains((double) (M / 2), null));
+    assertTrue(doubles.contains((double) (M / 2), null));
+    assertFalse(longs.isString());
+
+    Seq mapped = longs.map(o -> (double) (Long) o);
+    assertEquals(treeSize(mapped), countLeaves(mapped, double[].class));
+    assertEquals(doubles, mapped);
+
+    Object[] split = longs.splitAt(M / 2, null);
+    Seq catenated = Seq.catenate((Seq) split[0], ((Seq) split[2]).insertFirst(split[1]));
+    assertEquals(longs, catenated);
+    assertEquals(treeSize(catenated), countLeaves(catenated, long[].class));
+
+    Seq mixed = longs.insertLast("x");
+    for (int i = 0; i < 64; i++) {
+      mixed = mixed.insertLast((long) i);
+    }
+    assertEquals(treeSize(longs), countLeaves(mixed, long[].class));
+    assertEquals(MAX_NODE_LENGTH + mixed.suffixSize, countLeaves(mixed, Object[].class));
+    assertEquals("x", mixed.lookup(M, null));
+    assertEquals(mixed, mixed.map(o -> o));
+    assertNotEquals(longs.map(o -> o.toString()), longs);
+  }
+
+  private static long treeSize(final Seq seq) {
+    return seq.length() - seq.prefixSize - seq.suffixSize;
+  }
+
+  private static long countLeaves(final Seq seq, final Class<?> kind) {
+    long count = 0;
+    for (LeafCursor cursor = new LeafCursor(seq); cursor.leaf != null; cursor.nextLeaf()) {
+      if (kind.isInstance(cursor.leaf)) {
+        count += nodeLength(cursor.leaf);
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public void testSeqBuilder() {
+    for (int n : new int[]{0, 1, MAX_NODE_LENGTH - 1, MAX_NODE_LENGTH, MAX_NODE_LENGTH + 1, M, N}) {
+      Seq.SeqBuilder builder = new Seq.SeqBuilder();
+      Seq expected = EMPTY;
+      for (int i = 0; i < n; i++) {
+        builder.add((long) i);
+        if (n <= M) {
+          expected = expected.insertLast((long) i);
+        }
+      }
+      Seq seq = builder.build();
+      assertEquals(n, seq.length());
+      for (int i = 0; i < n; i += 1 + n / 4096) {
+        assertEquals((long) i, seq.lookup(i, null));
+      }
+      if (n <= M) {
+        assertEquals(expected, seq);
+        assertEquals(expected.calculateMurmur3Hash(0L), seq.calculateMurmur3Hash(0L));
+      }
+      if (n > 0) {
+        assertEquals(n - 1L, seq.last(null));
+      }
+      assertEquals(n + 1, seq.insertLast("x").length());
+    }
+  }
+
+  @Test
+  public void testSeqBuilderAfterBuild() {
+    Seq.SeqBuilder builder = new Seq.SeqBuilder(Seq.sequence(-1L));
+    for (int i = 0; i < M; i++) {
+      builder.add((long) i);
+    }
+    Seq first = builder.build();
+    for (int i = M; i < 2 * M; i++) {
+      builder.add((long) i);
+    }
+    Seq second = builder.build();
+    assertEquals(M + 1, first.length());
+    assertEquals(2 * M + 1, second.length());
+    assertEquals(first, second.take(M + 1, null));
+    assertEquals(-1L, second.first(null));
+    assertEquals(2L * M - 1, second.last(null));
+  }
+
   @Test
   public void testSeqCollector() {
     List<Long> input = List.of(1L, 2L, 3L);
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeAll;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -44,6 +45,31 @@ public class PromiseTest {
     assertEquals(1, Promise.await(dst));
   }
 
+  @Test
+  public void testMapMultipleListeners() throws Throwable {
+    Promise src = new Promise();
+    Promise fst = src.map(i -> (int) i + 1, node);
+    Promise snd = src.map(i -> (int) i + 2, node);
+    Promise trd = src.map(i -> (int) i + 3, node);
+    src.fulfil(1, node);
+    assertEquals(2, Promise.await(fst));
+    assertEquals(3, Promise.await(snd));
+    assertEquals(4, Promise.await(trd));
+  }
+
+  @Test
+  public void testMapRacingFulfil() throws Throwable {
+    for (int i = 0; i < N / 16; i++) {
+      Promise src = new Promise();
+      Future<?> future = exec.submit(() -> src.fulfil(1, node));
+      Promise fst = src.map(v -> (int) v + 1, node);
+      Promise snd = src.map(v -> (int) v + 2, node);
+      future.get();
+      assertEquals(2, Promise.await(fst));
+      assertEquals(3, Promise.await(snd));
+    }
+  }
+
   @Test
   public void testFlatMapImmediate() throws Throwable {
     assertEquals(2, Promise.await(new Promise(1).map(whatever -> new Promise(2), node)));
@@ -125,6 +151,66 @@ public class PromiseTest {
     assertEquals(3, value[2]);
   }
 
+  @Test
+  public void testAllEmpty() {
+    Promise promise = Promise.all(new Object[]{}, node);
+    assertTrue(promise.isFulfilled());
+    assertEquals(0, ((Object[]) promise.unwrap()).length);
+  }
+
+  @Test
+  public void testAllFulfilled() {
+    Promise promise = Promise.all(new Promise(1), 2, node);
+    assertTrue(promise.isFulfilled());
+    Object[] value = (Object[]) promise.unwrap();
+    assertEquals(1, value[0]);
+    assertEquals(2, value[1]);
+  }
+
+  @Test
+  public void testAllThree() {
+    Promise fst = new Promise();
+    Promise trd = new Promise();
+    Promise promise = Promise.all(fst, new Promise(2), trd, node);
+    trd.fulfil(3, node);
+    assertNull(promise.unwrap());
+    fst.fulfil(1, node);
+    Object[] value = (Object[]) promise.unwrap();
+    assertEquals(1, value[0]);
+    assertEquals(2, value[1]);
+    assertEquals(3, value[2]);
+  }
+
+  @Test
+  public void testAllOnePending() {
+    Promise snd = new Promise();
+    Promise promise = Promise.all(1, snd, node);
+    assertNull(promise.unwrap());
+    snd.fulfil(2, node);
+    Object[] value = (Object[]) promise.unwrap();
+    assertEquals(1, value[0]);
+    assertEquals(2, value[1]);
+  }
+
+  @Test
+  public void testAllThreeOnePending() {
+    Promise snd = new Promise();
+    Promise promise = Promise.all(new Promise(1), snd, 3, node);
+    assertNull(promise.unwrap());
+    snd.fulfil(2, node);
+    Object[] value = (Object[]) promise.unwrap();
+    assertEquals(1, value[0]);
+    assertEquals(2, value[1]);
+    assertEquals(3, value[2]);
+  }
+
+  @Test
+  public void testAllFailedWithPending() {
+    Exception e = new Exception();
+    Promise promise = Promise.all(new Promise(), new Promise(e), node);
+    assertEquals(e, promise.value);
+  }
+
   @Test
   public void testAllException() {
     Promise fst = new Promise();
@@ -135,6 +221,26 @@ public class PromiseTest {
     assertEquals(e, promise.value);
   }
 
+  @Test
+  public void testAllMultipleExceptions() {
+    Exception fstException = new Exception();
+    Promise snd = new Promise();
+    Promise promise = Promise.all(new Object[]{ new Promise(fstException), new Promise(new Exception()), snd }, node);
+    snd.fulfil(new Exception(), node);
+    assertEquals(fstException, promise.value);
+  }
+
+  @Test
+  public void testAllExceptionAfterValues() {
+    Promise fst = new Promise();
+    Promise snd = new Promise();
+    Promise promise = Promise.all(fst, snd, node);
+    Exception e = new Exception();
+    snd.fulfil(e, node);
+    fst.fulfil(1, node);
+    assertEquals(e, promise.value);
+  }
+
   @Test
   public void testMapChain() throws Throwable {
     Promise original = new Promise();
@@ -0,0 +1,56 @@
+package yona.runtime.threading;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdleWorkersTest {
+  private static final int N = 1 << 16;
+
+  @Test
+  public void testNoLostWakeups() throws InterruptedException {
+    final AtomicInteger pending = new AtomicInteger(0);
+    final AtomicInteger processed = new AtomicInteger(0);
+    final int m = 4;
+    final Thread[] threads = new Thread[m];
+    final IdleWorkers[] idleWorkers = new IdleWorkers[1];
+    for (int i = 0; i < m; i++) {
+      final int index = i;
+      threads[i] = new Thread(() -> {
+        while (true) {
+          int current = pending.get();
+          if (current > 0) {
+            if (pending.compareAndSet(current, current - 1)) {
+              processed.incrementAndGet();
+            }
+          } else if (!idleWorkers[0].await(index, () -> pending.get() > 0)) {
+            break;
+          }
+        }
+      });
+    }
+    idleWorkers[0] = new IdleWorkers(threads);
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (int i = 0; i < N; i++) {
+      pending.incrementAndGet();
+      idleWorkers[0].signal();
+      if (i % 1024 == 0) {
+        // let the workers go idle from time to time
+        Thread.sleep(1);
+      }
+    }
+    final long deadline = System.currentTimeMillis() + 10_000;
+    while (processed.get() != N && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(N, processed.get());
+    for (Thread thread : threads) {
+      thread.interrupt();
+      thread.join();
+    }
+  }
+}
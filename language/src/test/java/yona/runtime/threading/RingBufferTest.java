@@ -9,6 +9,35 @@ import static org.junit.Assert.*;
 
 public class RingBufferTest {
   private static final int N = 1 << 24;
+  private static final Consumer.Callback NOOP = new Consumer.Callback() {
+    @Override
+    void prepare(final long token) {
+    }
+
+    @Override
+    void advance() {
+    }
+  };
+
+  @Test
+  public void testAvailable() {
+    RingBuffer<Int> buffer = new RingBuffer<>(4, Int::new);
+    Consumer consumer = buffer.subscribe(1)[0];
+    assertFalse(consumer.available());
+    // wrap around the buffer a few times, so that stale slots of previous laps are checked as well
+    for (int i = 0; i < 10; i++) {
+      long token = buffer.tryClaim(2);
+      assertFalse(consumer.available());
+      buffer.release(token, token);
+      assertFalse(consumer.available());
+      buffer.release(token - 1, token - 1);
+      assertTrue(consumer.available());
+      assertTrue(consumer.consume(NOOP));
+      assertTrue(consumer.available());
+      assertTrue(consumer.consume(NOOP));
+      assertFalse(consumer.available());
+    }
+  }
 
   @Test
   @Tag("slow")
@@ -0,0 +1,66 @@
+package yona.runtime.threading;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskDequeTest {
+  private static final int N = 1 << 20;
+
+  @Test
+  public void testOwnerOrder() {
+    TaskDeque<Integer> deque = new TaskDeque<>(2);
+    for (int i = 0; i < 5; i++) {
+      deque.push(i);
+    }
+    assertEquals(0, deque.steal());
+    assertEquals(4, deque.pop());
+    assertEquals(3, deque.pop());
+    assertEquals(1, deque.steal());
+    assertEquals(2, deque.pop());
+    assertNull(deque.pop());
+    assertNull(deque.steal());
+    assertTrue(deque.isEmpty());
+  }
+
+  @Test
+  @Tag("slow")
+  public void testLoad() throws InterruptedException {
+    final AtomicIntegerArray values = new AtomicIntegerArray(N);
+    final TaskDeque<Integer> deque = new TaskDeque<>(16);
+    final AtomicBoolean done = new AtomicBoolean(false);
+    final int m = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+    final Thread[] stealers = new Thread[m];
+    for (int i = 0; i < m; i++) {
+      stealers[i] = new Thread(() -> {
+        while (!done.get() || !deque.isEmpty()) {
+          Integer value = deque.steal();
+          if (value != null) {
+            values.incrementAndGet(value);
+          }
+        }
+      });
+      stealers[i].start();
+    }
+    for (int i = 0; i < N; i++) {
+      deque.push(i);
+      if (i % 3 == 0) {
+        Integer value = deque.pop();
+        if (value != null) {
+          values.incrementAndGet(value);
+        }
+      }
+    }
+    done.set(true);
+    for (int i = 0; i < m; i++) {
+      stealers[i].join();
+    }
+    for (int i = 0; i < N; i++) {
+      assertEquals(1, values.get(i), String.valueOf(i));
+    }
+  }
+}
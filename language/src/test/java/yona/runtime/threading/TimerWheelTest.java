@@ -0,0 +1,97 @@
+package yona.runtime.threading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimerWheelTest {
+  private static final int N = 1 << 17;
+
+  private TimerWheel wheel;
+
+  @BeforeEach
+  public void setup() {
+    wheel = new TimerWheel(Thread::new, Runnable::run);
+    wheel.initialize();
+  }
+
+  @AfterEach
+  public void teardown() {
+    wheel.dispose();
+  }
+
+  @Test
+  public void testExpiresAfterDelay() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final long start = System.nanoTime();
+    wheel.schedule(50, latch::countDown);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  public void testExpiresAfterMoreThanOneRound() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final long delayMillis = TimeUnit.NANOSECONDS.toMillis(TimerWheel.TICK_NANOS * TimerWheel.WHEEL_SIZE) + 100;
+    final long start = System.nanoTime();
+    wheel.schedule(delayMillis, latch::countDown);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(delayMillis));
+  }
+
+  @Test
+  public void testHugeDelayDoesNotExpire() throws InterruptedException {
+    final AtomicInteger expired = new AtomicInteger(0);
+    final CountDownLatch latch = new CountDownLatch(1);
+    final TimerWheel.Timeout longest = wheel.schedule(Long.MAX_VALUE, expired::incrementAndGet);
+    final TimerWheel.Timeout overflowing = wheel.schedule(Long.MAX_VALUE / 1000, expired::incrementAndGet);
+    wheel.schedule(50, latch::countDown);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(0, expired.get());
+    assertTrue(longest.cancel());
+    assertTrue(overflowing.cancel());
+  }
+
+  @Test
+  public void testCancel() throws InterruptedException {
+    final AtomicInteger expired = new AtomicInteger(0);
+    final CountDownLatch latch = new CountDownLatch(1);
+    final TimerWheel.Timeout timeout = wheel.schedule(20, expired::incrementAndGet);
+    assertTrue(timeout.cancel());
+    assertFalse(timeout.cancel());
+    wheel.schedule(50, latch::countDown);
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertEquals(0, expired.get());
+    assertEquals(0, wheel.pending());
+  }
+
+  @Test
+  public void testManyTimers() throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(N / 2);
+    final TimerWheel.Timeout[] timeouts = new TimerWheel.Timeout[N];
+    for (int i = 0; i < N; i++) {
+      timeouts[i] = wheel.schedule(i % 1000, latch::countDown);
+    }
+    // cancel every other timer, some of them may have expired already
+    int cancelled = 0;
+    for (int i = 1; i < N; i += 2) {
+      if (timeouts[i].cancel()) {
+        cancelled++;
+      }
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertFalse(timeouts[0].cancel());
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (wheel.pending() != 0 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(0, wheel.pending());
+    assertTrue(cancelled > 0);
+  }
+}